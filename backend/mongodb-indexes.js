@@ -66,12 +66,36 @@ ensureIndex(db.submission_jobs, { "status": 1, "createdAt": 1 }, { name: "status
 ensureIndex(db.submission_jobs, { "userId": 1, "status": 1, "createdAt": -1 }, { name: "userId_status_createdAt_desc_idx" });
 ensureIndex(db.submission_jobs, { "lockedUntil": 1 }, { name: "lockedUntil_idx" });
 ensureIndex(db.submission_jobs, { "status": 1, "lockedUntil": 1 }, { name: "status_lockedUntil_idx" });
+// Recovery sweep for RETRYING jobs whose retry window opened.
+ensureIndex(db.submission_jobs, { "status": 1, "nextRetryAt": 1 }, { name: "status_nextRetryAt_idx" });
+// Requeueing the jobs of a dead worker node.
+ensureIndex(db.submission_jobs, { "lockedBy": 1, "status": 1 }, { name: "lockedBy_status_idx" });
+
+// Archival sweep for finished jobs, and removal of archived ones archive.hotRetentionSeconds after
+// they were copied. The backend creates the TTL index, or updates its expiry, at startup from that
+// property; the value here is only the default.
+ensureIndex(db.submission_jobs, { "status": 1, "completedAt": 1 }, { name: "status_completedAt_idx" });
+ensureIndex(db.submission_jobs, { "archivedAt": 1 }, { name: "archivedAt_ttl_idx", expireAfterSeconds: 3600 });
 
 // Existing supporting indexes.
 ensureIndex(db.submission_jobs, { "submissionId": 1 }, { name: "submissionId_idx" });
 ensureIndex(db.submission_jobs, { "status": 1 }, { name: "status_idx" });
 ensureIndex(db.submission_jobs, { "createdAt": -1 }, { name: "createdAt_desc_idx" });
 
+// ===== SUBMISSION_JOBS_ARCHIVE COLLECTION INDEXES =====
+// Archived jobs are read by _id (the job id); userId lists a user's history, newest first, and
+// status counts them for the queue stats.
+ensureIndex(db.submission_jobs_archive, { "userId": 1, "createdAt": -1 }, { name: "userId_createdAt_desc_idx" });
+ensureIndex(db.submission_jobs_archive, { "status": 1 }, { name: "status_idx" });
+
+// ===== TEST_CASE_SETS COLLECTION INDEXES =====
+// Sets are read by _id (their content hash); problemId lists the versions of a problem.
+ensureIndex(db.test_case_sets, { "problemId": 1 }, { name: "problemId_idx" });
+
+// ===== WORKER_NODES COLLECTION INDEXES =====
+// Dead-node detection scans ACTIVE nodes by last heartbeat.
+ensureIndex(db.worker_nodes, { "status": 1, "lastHeartbeatAt": 1 }, { name: "status_lastHeartbeatAt_idx" });
+
 // ===== PROBLEM_BUNDLES COLLECTION INDEXES =====
 ensureIndex(db.problem_bundles, { "name": 1 }, { name: "name_idx" });
 ensureIndex(db.problem_bundles, { "difficulty": 1 }, { name: "difficulty_idx" });
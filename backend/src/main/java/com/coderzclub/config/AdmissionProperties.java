@@ -0,0 +1,61 @@
+package com.coderzclub.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control for new submission jobs: jobs are turned away while the expected queue wait
+ * is above the SLO.
+ */
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+    private boolean enabled = false;
+    // Longest expected queue wait at which new jobs are still accepted
+    private long sloSeconds = 120;
+    // Queue depth and worker load are re-read at most this often
+    private long refreshMs = 2000;
+    // Per-job service time assumed until workers have reported one
+    private long defaultJobSeconds = 5;
+    private long maxRetryAfterSeconds = 300;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSloSeconds() {
+        return sloSeconds;
+    }
+
+    public void setSloSeconds(long sloSeconds) {
+        this.sloSeconds = sloSeconds;
+    }
+
+    public long getRefreshMs() {
+        return refreshMs;
+    }
+
+    public void setRefreshMs(long refreshMs) {
+        this.refreshMs = refreshMs;
+    }
+
+    public long getDefaultJobSeconds() {
+        return defaultJobSeconds;
+    }
+
+    public void setDefaultJobSeconds(long defaultJobSeconds) {
+        this.defaultJobSeconds = defaultJobSeconds;
+    }
+
+    public long getMaxRetryAfterSeconds() {
+        return maxRetryAfterSeconds;
+    }
+
+    public void setMaxRetryAfterSeconds(long maxRetryAfterSeconds) {
+        this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+    }
+}
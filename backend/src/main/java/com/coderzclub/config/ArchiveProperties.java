@@ -0,0 +1,70 @@
+package com.coderzclub.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Archival of finished submission jobs, see SubmissionJobArchiveService.
+ */
+@Component
+@ConfigurationProperties(prefix = "archive")
+public class ArchiveProperties {
+    private boolean enabled = true;
+    // Finished jobs move to the archive this long after completing
+    private long afterHours = 72;
+    // Archived jobs stay in submission_jobs this long before the TTL index removes them
+    private long hotRetentionSeconds = 3600;
+    private long intervalSeconds = 300;
+    // Jobs read and archived per batch
+    private int batchSize = 200;
+    // Batches per sweep; a backlog is worked off over several sweeps, so that each one stays short
+    private int maxBatchesPerRun = 25;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getAfterHours() {
+        return afterHours;
+    }
+
+    public void setAfterHours(long afterHours) {
+        this.afterHours = afterHours;
+    }
+
+    public long getHotRetentionSeconds() {
+        return hotRetentionSeconds;
+    }
+
+    public void setHotRetentionSeconds(long hotRetentionSeconds) {
+        this.hotRetentionSeconds = hotRetentionSeconds;
+    }
+
+    public long getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+}
@@ -0,0 +1,262 @@
+package com.coderzclub.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Judge0 client configuration properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "judge0")
+public class Judge0Properties {
+    private String baseUrl = "https://judge0-ce.p.rapidapi.com";
+    private String host = "judge0-ce.p.rapidapi.com";
+    private Mode mode = Mode.SEQUENTIAL;
+    private long requestTimeoutSeconds = 40;
+    private int maxRetries = 7;
+
+    // Batch mode: Judge0 accepts at most 20 submissions per batch request
+    private int batchSize = 20;
+    private long batchPollIntervalMs = 500;
+    private int batchMaxPolls = 120;
+
+    // Shared outbound rate limit (requests/sec), adjusted AIMD-style between min and max
+    private double rateLimitPerSecond = 10;
+    private double rateLimitMinPerSecond = 1;
+    private double rateLimitMaxPerSecond = 50;
+    private double rateLimitIncreasePerSecond = 1;
+    private double rateLimitDecreaseFactor = 0.5;
+    private int rateLimitBurst = 5;
+
+    // Circuit breaker: opens on failure or slow-call rate over the last circuitWindowSize calls
+    private int circuitWindowSize = 20;
+    private int circuitMinimumCalls = 10;
+    private int circuitFailureRateThreshold = 50;
+    private long circuitSlowCallThresholdMs = 20000;
+    private int circuitSlowCallRateThreshold = 80;
+    private long circuitOpenDurationMs = 30000;
+    private int circuitHalfOpenProbes = 3;
+
+    // Bulkhead for the interactive /api/judge0/execute proxy, separate from the worker's budget
+    private int playgroundMaxConcurrent = 4;
+
+    // Per-test result cache for identical resubmissions
+    private boolean resultCacheEnabled = true;
+    private int resultCacheMaxEntries = 10000;
+    private long resultCacheTtlSeconds = 3600;
+    private boolean resultCacheRedisEnabled = false;
+
+    public enum Mode {
+        SEQUENTIAL, // One wait=true request per test case, one after another
+        PARALLEL,   // wait=true requests fanned out concurrently, capped by worker.maxInFlight*
+        BATCH       // POST /submissions/batch in chunks, then poll tokens in bulk
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public long getRequestTimeoutSeconds() {
+        return requestTimeoutSeconds;
+    }
+
+    public void setRequestTimeoutSeconds(long requestTimeoutSeconds) {
+        this.requestTimeoutSeconds = requestTimeoutSeconds;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchPollIntervalMs() {
+        return batchPollIntervalMs;
+    }
+
+    public void setBatchPollIntervalMs(long batchPollIntervalMs) {
+        this.batchPollIntervalMs = batchPollIntervalMs;
+    }
+
+    public int getBatchMaxPolls() {
+        return batchMaxPolls;
+    }
+
+    public void setBatchMaxPolls(int batchMaxPolls) {
+        this.batchMaxPolls = batchMaxPolls;
+    }
+
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(double rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+
+    public double getRateLimitMinPerSecond() {
+        return rateLimitMinPerSecond;
+    }
+
+    public void setRateLimitMinPerSecond(double rateLimitMinPerSecond) {
+        this.rateLimitMinPerSecond = rateLimitMinPerSecond;
+    }
+
+    public double getRateLimitMaxPerSecond() {
+        return rateLimitMaxPerSecond;
+    }
+
+    public void setRateLimitMaxPerSecond(double rateLimitMaxPerSecond) {
+        this.rateLimitMaxPerSecond = rateLimitMaxPerSecond;
+    }
+
+    public double getRateLimitIncreasePerSecond() {
+        return rateLimitIncreasePerSecond;
+    }
+
+    public void setRateLimitIncreasePerSecond(double rateLimitIncreasePerSecond) {
+        this.rateLimitIncreasePerSecond = rateLimitIncreasePerSecond;
+    }
+
+    public double getRateLimitDecreaseFactor() {
+        return rateLimitDecreaseFactor;
+    }
+
+    public void setRateLimitDecreaseFactor(double rateLimitDecreaseFactor) {
+        this.rateLimitDecreaseFactor = rateLimitDecreaseFactor;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    public int getCircuitWindowSize() {
+        return circuitWindowSize;
+    }
+
+    public void setCircuitWindowSize(int circuitWindowSize) {
+        this.circuitWindowSize = circuitWindowSize;
+    }
+
+    public int getCircuitMinimumCalls() {
+        return circuitMinimumCalls;
+    }
+
+    public void setCircuitMinimumCalls(int circuitMinimumCalls) {
+        this.circuitMinimumCalls = circuitMinimumCalls;
+    }
+
+    public int getCircuitFailureRateThreshold() {
+        return circuitFailureRateThreshold;
+    }
+
+    public void setCircuitFailureRateThreshold(int circuitFailureRateThreshold) {
+        this.circuitFailureRateThreshold = circuitFailureRateThreshold;
+    }
+
+    public long getCircuitSlowCallThresholdMs() {
+        return circuitSlowCallThresholdMs;
+    }
+
+    public void setCircuitSlowCallThresholdMs(long circuitSlowCallThresholdMs) {
+        this.circuitSlowCallThresholdMs = circuitSlowCallThresholdMs;
+    }
+
+    public int getCircuitSlowCallRateThreshold() {
+        return circuitSlowCallRateThreshold;
+    }
+
+    public void setCircuitSlowCallRateThreshold(int circuitSlowCallRateThreshold) {
+        this.circuitSlowCallRateThreshold = circuitSlowCallRateThreshold;
+    }
+
+    public long getCircuitOpenDurationMs() {
+        return circuitOpenDurationMs;
+    }
+
+    public void setCircuitOpenDurationMs(long circuitOpenDurationMs) {
+        this.circuitOpenDurationMs = circuitOpenDurationMs;
+    }
+
+    public int getCircuitHalfOpenProbes() {
+        return circuitHalfOpenProbes;
+    }
+
+    public void setCircuitHalfOpenProbes(int circuitHalfOpenProbes) {
+        this.circuitHalfOpenProbes = circuitHalfOpenProbes;
+    }
+
+    public int getPlaygroundMaxConcurrent() {
+        return playgroundMaxConcurrent;
+    }
+
+    public void setPlaygroundMaxConcurrent(int playgroundMaxConcurrent) {
+        this.playgroundMaxConcurrent = playgroundMaxConcurrent;
+    }
+
+    public boolean isResultCacheEnabled() {
+        return resultCacheEnabled;
+    }
+
+    public void setResultCacheEnabled(boolean resultCacheEnabled) {
+        this.resultCacheEnabled = resultCacheEnabled;
+    }
+
+    public int getResultCacheMaxEntries() {
+        return resultCacheMaxEntries;
+    }
+
+    public void setResultCacheMaxEntries(int resultCacheMaxEntries) {
+        this.resultCacheMaxEntries = resultCacheMaxEntries;
+    }
+
+    public long getResultCacheTtlSeconds() {
+        return resultCacheTtlSeconds;
+    }
+
+    public void setResultCacheTtlSeconds(long resultCacheTtlSeconds) {
+        this.resultCacheTtlSeconds = resultCacheTtlSeconds;
+    }
+
+    public boolean isResultCacheRedisEnabled() {
+        return resultCacheRedisEnabled;
+    }
+
+    public void setResultCacheRedisEnabled(boolean resultCacheRedisEnabled) {
+        this.resultCacheRedisEnabled = resultCacheRedisEnabled;
+    }
+}
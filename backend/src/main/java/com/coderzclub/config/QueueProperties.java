@@ -0,0 +1,157 @@
+package com.coderzclub.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Submission queue configuration properties.
+ *
+ * type=memory keeps the queue inside the JVM (single node); type=redis uses a Redis stream with a
+ * consumer group so API and worker nodes can be scaled separately.
+ */
+@Component
+@ConfigurationProperties(prefix = "queue")
+public class QueueProperties {
+    private String type = "memory";
+    private String streamKey = "submission:jobs";
+    private String consumerGroup = "submission-workers";
+    // Defaults to worker.nodeId; must be unique per worker node
+    private String consumerName;
+    // Approximate stream length cap applied on publish
+    private long streamMaxLength = 100000;
+    // Entries pending this long on another consumer are claimed as crashed
+    private long claimIdleSeconds = 180;
+    private long claimIntervalSeconds = 30;
+    private int claimBatchSize = 20;
+    // Entries delivered more often than this are acknowledged and left to job recovery
+    private int maxDeliveries = 5;
+    // Stream entries a worker node reads ahead so the scheduler can pick among them
+    private int prefetch = 8;
+    // Fair-share scheduling: a job costs jobBaseCostSeconds + testCostSeconds per test, divided by
+    // the weight of its class; the job with the earliest finish tag runs first
+    private double interactiveWeight = 4;
+    private double premiumWeight = 2;
+    private double standardWeight = 1;
+    private double jobBaseCostSeconds = 1;
+    private double testCostSeconds = 0.1;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStreamKey() {
+        return streamKey;
+    }
+
+    public void setStreamKey(String streamKey) {
+        this.streamKey = streamKey;
+    }
+
+    public String getConsumerGroup() {
+        return consumerGroup;
+    }
+
+    public void setConsumerGroup(String consumerGroup) {
+        this.consumerGroup = consumerGroup;
+    }
+
+    public String getConsumerName() {
+        return consumerName;
+    }
+
+    public void setConsumerName(String consumerName) {
+        this.consumerName = consumerName;
+    }
+
+    public long getStreamMaxLength() {
+        return streamMaxLength;
+    }
+
+    public void setStreamMaxLength(long streamMaxLength) {
+        this.streamMaxLength = streamMaxLength;
+    }
+
+    public long getClaimIdleSeconds() {
+        return claimIdleSeconds;
+    }
+
+    public void setClaimIdleSeconds(long claimIdleSeconds) {
+        this.claimIdleSeconds = claimIdleSeconds;
+    }
+
+    public long getClaimIntervalSeconds() {
+        return claimIntervalSeconds;
+    }
+
+    public void setClaimIntervalSeconds(long claimIntervalSeconds) {
+        this.claimIntervalSeconds = claimIntervalSeconds;
+    }
+
+    public int getClaimBatchSize() {
+        return claimBatchSize;
+    }
+
+    public void setClaimBatchSize(int claimBatchSize) {
+        this.claimBatchSize = claimBatchSize;
+    }
+
+    public int getMaxDeliveries() {
+        return maxDeliveries;
+    }
+
+    public void setMaxDeliveries(int maxDeliveries) {
+        this.maxDeliveries = maxDeliveries;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public double getInteractiveWeight() {
+        return interactiveWeight;
+    }
+
+    public void setInteractiveWeight(double interactiveWeight) {
+        this.interactiveWeight = interactiveWeight;
+    }
+
+    public double getPremiumWeight() {
+        return premiumWeight;
+    }
+
+    public void setPremiumWeight(double premiumWeight) {
+        this.premiumWeight = premiumWeight;
+    }
+
+    public double getStandardWeight() {
+        return standardWeight;
+    }
+
+    public void setStandardWeight(double standardWeight) {
+        this.standardWeight = standardWeight;
+    }
+
+    public double getJobBaseCostSeconds() {
+        return jobBaseCostSeconds;
+    }
+
+    public void setJobBaseCostSeconds(double jobBaseCostSeconds) {
+        this.jobBaseCostSeconds = jobBaseCostSeconds;
+    }
+
+    public double getTestCostSeconds() {
+        return testCostSeconds;
+    }
+
+    public void setTestCostSeconds(double testCostSeconds) {
+        this.testCostSeconds = testCostSeconds;
+    }
+}
@@ -26,6 +26,7 @@ public class SubmissionLimitsConfig {
 
     // Execution limits
     private int maxExecutionTimeSeconds = 15;
+    private int maxWallTimeSeconds = 30;
     private int maxMemoryKb = 262144; // 256 MB
 
     // Getters
@@ -101,6 +102,14 @@ public class SubmissionLimitsConfig {
         this.maxExecutionTimeSeconds = maxExecutionTimeSeconds;
     }
 
+    public int getMaxWallTimeSeconds() {
+        return maxWallTimeSeconds;
+    }
+
+    public void setMaxWallTimeSeconds(int maxWallTimeSeconds) {
+        this.maxWallTimeSeconds = maxWallTimeSeconds;
+    }
+
     public int getMaxMemoryKb() {
         return maxMemoryKb;
     }
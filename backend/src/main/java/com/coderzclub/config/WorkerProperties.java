@@ -3,6 +3,8 @@ package com.coderzclub.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.net.InetAddress;
+
 /**
  * Submission worker configuration properties.
  */
@@ -10,12 +12,52 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "worker")
 public class WorkerProperties {
     private boolean enabled = true;
+    private String engine = "judge0";
     private int concurrency = 2;
     private int maxAttempts = 3;
     private long leaseDurationSeconds = 60;
     private long retryDelaySeconds = 30;
     private long recoveryIntervalSeconds = 30;
+    // Jobs fetched and updated per recovery round trip
+    private int recoveryBatchSize = 500;
+    // Batches per sweep and kind; the rest is left to later sweeps, so that one sweep stays short
+    private int recoveryMaxBatchesPerRun = 20;
     private long pollTimeoutSeconds = 5;
+    private int maxInFlightPerJob = 4;
+    private int maxInFlightGlobal = 16;
+    private boolean failFastOnCompilationError = true;
+    private boolean failFastOnHiddenFailure = false;
+    // Finished test results are persisted at most this often while a job runs
+    private long checkpointIntervalMs = 1000;
+    private ThreadModel threadModel = ThreadModel.FIXED;
+    private int maxJobsInFlight = 64;
+    private int jobThreadStackKb = 256;
+    // Stable identity of this worker node (e.g. the pod name); defaults to host name and pid
+    private String nodeId;
+    private long nodeHeartbeatSeconds = 5;
+    // A node silent for this long is declared dead and its jobs are requeued
+    private long nodeDeadAfterSeconds = 20;
+    // Resize the number of jobs run at once between autoscaleMin and autoscaleMax; off by default
+    private boolean autoscaleEnabled = false;
+    private int autoscaleMin = 1;
+    private int autoscaleMax = 64;
+    private long autoscaleIntervalMs = 5000;
+    // Size the pool to drain this node's share of the queue within this time
+    private long autoscaleDrainSeconds = 30;
+    // Shrink when more than this share of judge calls were throttled since the last decision
+    private double autoscaleMaxThrottleRate = 0.05;
+    // Node-local cache of test case sets loaded by workers
+    private long testSetCacheMaxBytes = 256L * 1024 * 1024;
+    // Uncompressed test data downloaded by this node, see TestDataStore
+    private String testDataCacheDir = System.getProperty("java.io.tmpdir") + "/coderzclub-test-data";
+    private long testDataCacheMaxBytes = 4L * 1024 * 1024 * 1024;
+    // Failing hidden tests of a finished job stored with full results, see TestResultCodec
+    private int resultDetailFailures = 3;
+
+    public enum ThreadModel {
+        FIXED,   // concurrency threads, each claiming and running one job at a time
+        ELASTIC  // one dispatcher; each job on its own thread, bounded by maxJobsInFlight
+    }
 
     public boolean isEnabled() {
         return enabled;
@@ -25,6 +67,14 @@ public class WorkerProperties {
         this.enabled = enabled;
     }
 
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
     public int getConcurrency() {
         return concurrency;
     }
@@ -65,6 +115,22 @@ public class WorkerProperties {
         this.recoveryIntervalSeconds = recoveryIntervalSeconds;
     }
 
+    public int getRecoveryBatchSize() {
+        return recoveryBatchSize;
+    }
+
+    public void setRecoveryBatchSize(int recoveryBatchSize) {
+        this.recoveryBatchSize = recoveryBatchSize;
+    }
+
+    public int getRecoveryMaxBatchesPerRun() {
+        return recoveryMaxBatchesPerRun;
+    }
+
+    public void setRecoveryMaxBatchesPerRun(int recoveryMaxBatchesPerRun) {
+        this.recoveryMaxBatchesPerRun = recoveryMaxBatchesPerRun;
+    }
+
     public long getPollTimeoutSeconds() {
         return pollTimeoutSeconds;
     }
@@ -72,4 +138,188 @@ public class WorkerProperties {
     public void setPollTimeoutSeconds(long pollTimeoutSeconds) {
         this.pollTimeoutSeconds = pollTimeoutSeconds;
     }
+
+    public int getMaxInFlightPerJob() {
+        return maxInFlightPerJob;
+    }
+
+    public void setMaxInFlightPerJob(int maxInFlightPerJob) {
+        this.maxInFlightPerJob = maxInFlightPerJob;
+    }
+
+    public int getMaxInFlightGlobal() {
+        return maxInFlightGlobal;
+    }
+
+    public void setMaxInFlightGlobal(int maxInFlightGlobal) {
+        this.maxInFlightGlobal = maxInFlightGlobal;
+    }
+
+    public boolean isFailFastOnCompilationError() {
+        return failFastOnCompilationError;
+    }
+
+    public void setFailFastOnCompilationError(boolean failFastOnCompilationError) {
+        this.failFastOnCompilationError = failFastOnCompilationError;
+    }
+
+    public boolean isFailFastOnHiddenFailure() {
+        return failFastOnHiddenFailure;
+    }
+
+    public void setFailFastOnHiddenFailure(boolean failFastOnHiddenFailure) {
+        this.failFastOnHiddenFailure = failFastOnHiddenFailure;
+    }
+
+    public long getCheckpointIntervalMs() {
+        return checkpointIntervalMs;
+    }
+
+    public void setCheckpointIntervalMs(long checkpointIntervalMs) {
+        this.checkpointIntervalMs = checkpointIntervalMs;
+    }
+
+    public ThreadModel getThreadModel() {
+        return threadModel;
+    }
+
+    public void setThreadModel(ThreadModel threadModel) {
+        this.threadModel = threadModel;
+    }
+
+    public int getMaxJobsInFlight() {
+        return maxJobsInFlight;
+    }
+
+    public void setMaxJobsInFlight(int maxJobsInFlight) {
+        this.maxJobsInFlight = maxJobsInFlight;
+    }
+
+    public int getJobThreadStackKb() {
+        return jobThreadStackKb;
+    }
+
+    public void setJobThreadStackKb(int jobThreadStackKb) {
+        this.jobThreadStackKb = jobThreadStackKb;
+    }
+
+    /**
+     * Configured node id, or host name and pid when unset.
+     */
+    public String getNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getNodeHeartbeatSeconds() {
+        return nodeHeartbeatSeconds;
+    }
+
+    public void setNodeHeartbeatSeconds(long nodeHeartbeatSeconds) {
+        this.nodeHeartbeatSeconds = nodeHeartbeatSeconds;
+    }
+
+    public long getNodeDeadAfterSeconds() {
+        return nodeDeadAfterSeconds;
+    }
+
+    public void setNodeDeadAfterSeconds(long nodeDeadAfterSeconds) {
+        this.nodeDeadAfterSeconds = nodeDeadAfterSeconds;
+    }
+
+    public boolean isAutoscaleEnabled() {
+        return autoscaleEnabled;
+    }
+
+    public void setAutoscaleEnabled(boolean autoscaleEnabled) {
+        this.autoscaleEnabled = autoscaleEnabled;
+    }
+
+    public int getAutoscaleMin() {
+        return autoscaleMin;
+    }
+
+    public void setAutoscaleMin(int autoscaleMin) {
+        this.autoscaleMin = autoscaleMin;
+    }
+
+    public int getAutoscaleMax() {
+        return autoscaleMax;
+    }
+
+    public void setAutoscaleMax(int autoscaleMax) {
+        this.autoscaleMax = autoscaleMax;
+    }
+
+    public long getAutoscaleIntervalMs() {
+        return autoscaleIntervalMs;
+    }
+
+    public void setAutoscaleIntervalMs(long autoscaleIntervalMs) {
+        this.autoscaleIntervalMs = autoscaleIntervalMs;
+    }
+
+    public long getAutoscaleDrainSeconds() {
+        return autoscaleDrainSeconds;
+    }
+
+    public void setAutoscaleDrainSeconds(long autoscaleDrainSeconds) {
+        this.autoscaleDrainSeconds = autoscaleDrainSeconds;
+    }
+
+    public double getAutoscaleMaxThrottleRate() {
+        return autoscaleMaxThrottleRate;
+    }
+
+    public void setAutoscaleMaxThrottleRate(double autoscaleMaxThrottleRate) {
+        this.autoscaleMaxThrottleRate = autoscaleMaxThrottleRate;
+    }
+
+    public long getTestSetCacheMaxBytes() {
+        return testSetCacheMaxBytes;
+    }
+
+    public void setTestSetCacheMaxBytes(long testSetCacheMaxBytes) {
+        this.testSetCacheMaxBytes = testSetCacheMaxBytes;
+    }
+
+    public String getTestDataCacheDir() {
+        return testDataCacheDir;
+    }
+
+    public void setTestDataCacheDir(String testDataCacheDir) {
+        this.testDataCacheDir = testDataCacheDir;
+    }
+
+    public long getTestDataCacheMaxBytes() {
+        return testDataCacheMaxBytes;
+    }
+
+    public void setTestDataCacheMaxBytes(long testDataCacheMaxBytes) {
+        this.testDataCacheMaxBytes = testDataCacheMaxBytes;
+    }
+
+    public int getResultDetailFailures() {
+        return resultDetailFailures;
+    }
+
+    public void setResultDetailFailures(int resultDetailFailures) {
+        this.resultDetailFailures = resultDetailFailures;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "worker";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
 }
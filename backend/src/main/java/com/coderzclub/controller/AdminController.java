@@ -6,6 +6,7 @@ import com.coderzclub.model.Submission;
 import com.coderzclub.repository.UserRepository;
 import com.coderzclub.repository.ProblemRepository;
 import com.coderzclub.repository.SubmissionRepository;
+import com.coderzclub.queue.SubmissionWorker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -31,6 +32,9 @@ public class AdminController {
     @Autowired
     private SubmissionRepository submissionRepository;
 
+    @Autowired
+    private SubmissionWorker submissionWorker;
+
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboardStats() {
         try {
@@ -64,6 +68,27 @@ public class AdminController {
         }
     }
     
+    /**
+     * Current worker pool size, autoscaler bounds and recent resize decisions on this node.
+     */
+    @GetMapping("/workers/autoscaler")
+    public ResponseEntity<?> getWorkerAutoscaler() {
+        return ResponseEntity.ok(submissionWorker.getAutoscalerStats());
+    }
+
+    /**
+     * Change the autoscaler bounds on this node, e.g. raise the floor ahead of a contest.
+     */
+    @PutMapping("/workers/autoscaler")
+    public ResponseEntity<?> updateWorkerAutoscaler(@RequestParam int min, @RequestParam int max) {
+        try {
+            submissionWorker.setAutoscaleBounds(min, max);
+            return ResponseEntity.ok(submissionWorker.getAutoscalerStats());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
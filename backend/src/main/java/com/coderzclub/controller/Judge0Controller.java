@@ -1,37 +1,47 @@
 package com.coderzclub.controller;
 
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.service.Judge0CircuitBreaker;
+import com.coderzclub.service.Judge0ExecutionService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
+import jakarta.annotation.PostConstruct;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 @RestController
 @RequestMapping("/api/judge0")
 public class Judge0Controller {
 
-    private static final String JUDGE0_URL = "https://judge0-ce.p.rapidapi.com/submissions?base64_encoded=false&wait=true";
-    private static final String JUDGE0_HOST = "judge0-ce.p.rapidapi.com";
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(20))
-            .build();
+    @Autowired
+    private Judge0Properties judge0Properties;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private Judge0ExecutionService judge0ExecutionService;
+
+    @Autowired
+    private Judge0CircuitBreaker circuitBreaker;
 
-    @Value("${judge0.api.key}")
-    private String judge0ApiKey;
+    // Bulkhead: interactive runs get their own small pool so they cannot crowd out queued jobs
+    private Semaphore bulkhead;
+
+    @PostConstruct
+    public void init() {
+        bulkhead = new Semaphore(Math.max(1, judge0Properties.getPlaygroundMaxConcurrent()));
+    }
 
     @PostMapping("/execute")
     public ResponseEntity<?> execute(@RequestBody Judge0ExecutionRequest request) {
-        if (judge0ApiKey == null || judge0ApiKey.isBlank()) {
+        if (!judge0ExecutionService.isConfigured()) {
             return ResponseEntity.status(500).body(Map.of("error", "Judge0 API key is not configured."));
         }
 
@@ -39,6 +49,17 @@ public class Judge0Controller {
             return ResponseEntity.badRequest().body(Map.of("error", "language_id and source_code are required."));
         }
 
+        if (!circuitBreaker.isCallPermitted()) {
+            return ResponseEntity.status(503)
+                .header("Retry-After", String.valueOf(Math.max(1, circuitBreaker.getRemainingOpenMs() / 1000)))
+                .body(Map.of("error", "Code execution is temporarily unavailable. Please try again shortly."));
+        }
+        if (!bulkhead.tryAcquire()) {
+            return ResponseEntity.status(503)
+                .header("Retry-After", "1")
+                .body(Map.of("error", "Too many code runs in progress. Please try again in a moment."));
+        }
+
         try {
             Map<String, Object> payload = new HashMap<>();
             payload.put("language_id", request.getLanguageId());
@@ -50,43 +71,13 @@ public class Judge0Controller {
                 payload.put("expected_output", request.getExpectedOutput());
             }
 
-            String body = objectMapper.writeValueAsString(payload);
-            HttpRequest httpRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(JUDGE0_URL))
-                    .timeout(Duration.ofSeconds(40))
-                    .header("Content-Type", "application/json")
-                    .header("X-RapidAPI-Key", judge0ApiKey)
-                    .header("X-RapidAPI-Host", JUDGE0_HOST)
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
-                    .build();
-
-            int maxRetries = 7;
-            int attempt = 0;
-            HttpResponse<String> response;
-            while (true) {
-                response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-                int status = response.statusCode();
-                if (status != 429 && status != 503) {
-                    break;
-                }
-                attempt++;
-                if (attempt > maxRetries) {
-                    break;
-                }
-                long waitMs = 1000L * attempt;
-                String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
-                if (retryAfter != null) {
-                    try {
-                        waitMs = Math.max(waitMs, Long.parseLong(retryAfter) * 1000L);
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
-                Thread.sleep(waitMs);
-            }
-
+            // Same client path as judging: one rate-limit budget, breaker and retry policy
+            HttpResponse<InputStream> response = judge0ExecutionService.submitAndWait(payload);
             int statusCode = response.statusCode();
-            String responseBody = response.body();
-            Map<String, Object> responseMap = objectMapper.readValue(responseBody, Map.class);
+            Map<String, Object> responseMap;
+            try (InputStream body = response.body()) {
+                responseMap = objectMapper.readValue(body, new TypeReference<Map<String, Object>>() {});
+            }
             if (statusCode == 429) {
                 return ResponseEntity.status(429).body(Map.of(
                     "error", "Judge0 rate limit exceeded. Please wait a few seconds and try again.",
@@ -94,8 +85,15 @@ public class Judge0Controller {
                 ));
             }
             return ResponseEntity.status(statusCode).body(responseMap);
+        } catch (Judge0CircuitBreaker.CallNotPermittedException e) {
+            return ResponseEntity.status(503).body(Map.of("error", "Code execution is temporarily unavailable. Please try again shortly."));
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             return ResponseEntity.status(500).body(Map.of("error", "Judge0 execution failed", "details", e.getMessage()));
+        } finally {
+            bulkhead.release();
         }
     }
 
@@ -9,6 +9,9 @@ import com.coderzclub.repository.ProblemRepository;
 import com.coderzclub.service.SubmissionValidator;
 
 import com.coderzclub.service.SubmissionValidationService;
+import com.coderzclub.service.TestCaseSetService;
+
+import org.bson.types.ObjectId;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -42,6 +45,9 @@ public class ProblemController {
     @Autowired
     private SubmissionValidationService validationService;
 
+    @Autowired
+    private TestCaseSetService testCaseSetService;
+
     @GetMapping
     public ResponseEntity<?> getAllProblems(
         @RequestParam(required = false) String difficulty,
@@ -76,6 +82,8 @@ public class ProblemController {
                     Criteria.where("_id").regex("^" + escapedSearch, "i")
                 ));
             }
+            // Problems saved before their hidden tests moved to the test set still carry them
+            query.fields().exclude("hiddenTestCases");
             List<Problem> matchedProblems = mongoTemplate.find(query.with(Sort.by(Sort.Order.asc("id"))), Problem.class);
             matchedProblems.sort(Comparator.comparingInt(p -> parseNumericId(p.getId())));
 
@@ -156,12 +164,25 @@ public class ProblemController {
 
     @PostMapping
     public ResponseEntity<?> addProblem(@RequestBody Problem problem) {
+        if (problem.getId() != null && problem.getHiddenTestCases() == null) {
+            // An edit that leaves the hidden tests out keeps the stored ones; an empty list removes them
+            problemRepository.findById(problem.getId()).ifPresent(existing -> problem.setHiddenTestCases(
+                existing.getTestSetId() != null
+                    ? testCaseSetService.hiddenTestCases(existing.getTestSetId())
+                    : existing.getHiddenTestCases()));
+        }
         try {
 
             submissionValidator.validateProblemTestCases(problem);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
+        if (problem.getId() == null) {
+            // The id the repository would assign, so that the set records its problem
+            problem.setId(new ObjectId().toHexString());
+        }
+        // Published on every save, so submissions reference the current tests without loading them
+        testCaseSetService.publish(problem);
         Problem saved = problemRepository.save(problem);
         return ResponseEntity.ok(saved);
 
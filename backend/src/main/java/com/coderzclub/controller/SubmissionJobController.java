@@ -6,7 +6,15 @@ import com.coderzclub.model.User;
 import com.coderzclub.repository.ProblemRepository;
 import com.coderzclub.repository.UserRepository;
 //import com.coderzclub.repository.ProblemRepository;
+import com.coderzclub.queue.SubmissionScheduler;
+import com.coderzclub.queue.SubmissionWorker;
+import com.coderzclub.service.AdmissionControlService;
+import com.coderzclub.service.AdmissionDecision;
+import com.coderzclub.service.Judge0CircuitBreaker;
+import com.coderzclub.service.Judge0RateLimiter;
 import com.coderzclub.service.SubmissionJobService;
+import com.coderzclub.service.TestCaseSetService;
+import com.coderzclub.service.TestResultCodec;
 
 import com.coderzclub.service.SubmissionLimitService;
 import com.coderzclub.service.SubmissionValidator;
@@ -17,17 +25,24 @@ import com.coderzclub.dto.TestResultResponse;
 
 import com.coderzclub.service.SubmissionLimitDecision;
 import com.coderzclub.service.SubmissionValidationService;
+import com.coderzclub.service.WorkerRegistryService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import com.mongodb.client.result.UpdateResult;
 import jakarta.validation.Valid;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,17 +69,43 @@ public class SubmissionJobController {
     @Autowired
     private ProblemRepository problemRepository;
 
+    @Autowired
+    private TestCaseSetService testCaseSetService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
 
 
     @Autowired
     private SubmissionValidationService validationService;
 
+    @Autowired
+    private Judge0RateLimiter judge0RateLimiter;
+
+    @Autowired
+    private Judge0CircuitBreaker judge0CircuitBreaker;
+
+    @Autowired
+    private SubmissionWorker submissionWorker;
+
+    @Autowired
+    private SubmissionScheduler submissionScheduler;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private WorkerRegistryService workerRegistryService;
+
 
     /**
      * Create a new submission job with strict validation
      */
     @PostMapping
     public ResponseEntity<?> createJob(@Valid @RequestBody CreateSubmissionJobRequest request) {
+        AdmissionDecision admission = null;
+        boolean jobCreated = false;
         try {
             // Step 1: Validate code size and content
             try {
@@ -93,81 +134,95 @@ public class SubmissionJobController {
 
             User user = userOpt.get();
 
+            // Turn jobs away up front while the queue is too deep to meet the wait SLO
+            admission = admissionControlService.tryAdmit();
+            if (!admission.isAdmitted()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", String.valueOf(admission.getRetryAfterSeconds()))
+                    .body(Map.of(
+                        "error", "The judge is busy. Please try again later.",
+                        "estimatedWaitSeconds", admission.getEstimatedWaitSeconds(),
+                        "retryAfterSeconds", admission.getRetryAfterSeconds(),
+                        // Running the public tests from the editor does not go through the queue
+                        "degradeTo", "PUBLIC_TESTS_ONLY"
+                    ));
+            }
+
             SubmissionLimitDecision decision = submissionLimitService.tryAcquireSubmissionSlot(user.getId(), request.getProblemId());
             if (!decision.isAllowed()) {
                 switch (decision.getReason()) {
-                    case "COOLDOWN" ->
+                    case "COOLDOWN" -> {
                         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
                             "error", "Please wait before submitting again.",
                             "retryAfterSeconds", submissionLimitService.getCooldownSeconds(user.getId())
                         ));
-                    case "DAILY_LIMIT" ->
+                    }
+                    case "DAILY_LIMIT" -> {
                         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
                             "error", "Daily submission limit exceeded."
                         ));
-                    case "PROBLEM_LIMIT" ->
+                    }
+                    case "PROBLEM_LIMIT" -> {
                         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
                             "error", "Daily submission limit for this problem exceeded."
                         ));
-                    case "REDIS_UNAVAILABLE" ->
+                    }
+                    case "REDIS_UNAVAILABLE" -> {
                         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
                             "error", "Rate limit service unavailable. Please try again later."
                         ));
-                    default ->
+                    }
+                    default -> {
                         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
                             "error", "Submission limit exceeded."
                         ));
+                    }
                 }
             }
 
-            // Step 4: Load problem and validate it exists
-            Optional<Problem> problemOpt = problemRepository.findById(request.getProblemId());
+            // Step 4: Load the problem's test set reference and checker, not its text and tests
+            Optional<Problem> problemOpt = problemRepository.findSubmissionFieldsById(request.getProblemId());
             if (problemOpt.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Problem not found"));
             }
             Problem problem = problemOpt.get();
 
-            int totalTests = (problem.getPublicTestCases() != null ? problem.getPublicTestCases().size() : 0)
-                + (problem.getHiddenTestCases() != null ? problem.getHiddenTestCases().size() : 0);
+            // Step 5: Problems saved before sets were published on save get theirs now, once
+            if (problem.getTestSetId() == null) {
+                try {
+                    problem = publishTestSet(request.getProblemId());
+                } catch (IllegalArgumentException e) {
+                    logger.error("Problem testcases validation failed: {}", e.getMessage());
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Problem configuration error: " + e.getMessage()));
+                }
+            }
+
+            int publicTests = problem.getPublicTestCount() != null ? problem.getPublicTestCount() : 0;
+            int totalTests = publicTests + (problem.getHiddenTestCount() != null ? problem.getHiddenTestCount() : 0);
 
             logger.info("submission_request_received user={} problemId={} language={} languageId={} totalTests={} codeLength={}",
                 username, request.getProblemId(), request.getLanguage(), request.getLanguageId(),
                 totalTests, request.getCode() != null ? request.getCode().length() : 0);
 
-            // Step 5: Validate problem testcases against limits
-            try {
-                submissionValidator.validateProblemTestCases(problem);
-            } catch (IllegalArgumentException e) {
-                logger.error("Problem testcases validation failed: {}", e.getMessage());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Problem configuration error: " + e.getMessage()));
-            }
-
-            // Step 6: Create job using server-side testcases
+            // Step 6: Create job referencing the server-side test set
 
             validationService.validateSubmissionRequest(request.getProblemId(), request.getCode(), request.getLanguageId());
 
-            // Resolve problem test cases server-side so hidden data never travels in the public submission payload.
-            List<SubmissionJob.TestCase> publicTests = null;
-            List<SubmissionJob.TestCase> hiddenTests = null;
-            
-            publicTests = toSubmissionTestCases(problem.getPublicTestCases());
-            hiddenTests = null;
-
             SubmissionJob job = jobService.createJob(
                 user.getId(),
                 request.getProblemId(),
                 request.getCode(),
                 request.getLanguage(),
                 request.getLanguageId(),
-
-                problem.getPublicTestCases(),
-                problem.getHiddenTestCases()
-
-                //publicTests,
-                //hiddenTests
-
+                problem.getTestSetId(),
+                publicTests,
+                totalTests,
+                problem.getChecker(),
+                problem.getCheckerEpsilon(),
+                priorityOf(user)
             );
+            jobCreated = true;
 
             // Note: the submission attempt is already acquired atomically above.
             // If job creation fails after acquisition, the attempt is counted and not compensated.
@@ -176,15 +231,21 @@ public class SubmissionJobController {
             resp.setJobId(job.getId());
             resp.setStatus(job.getStatus().toString());
             resp.setCreatedAt(job.getCreatedAt());
+            resp.setEstimatedWaitSeconds(admission.getEstimatedWaitSeconds());
 
-            logger.info("Created submission job {} for user {} problemId={} totalTests={}",
-                job.getId(), username, request.getProblemId(), job.getTotalTests());
+            logger.info("Created submission job {} for user {} problemId={} totalTests={} estimatedWaitSeconds={}",
+                job.getId(), username, request.getProblemId(), job.getTotalTests(), admission.getEstimatedWaitSeconds());
 
             return ResponseEntity.accepted().body(resp);
 
         } catch (Exception e) {
             logger.error("Failed to create submission job", e);
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to create submission job: " + e.getMessage()));
+        } finally {
+            if (admission != null && admission.isAdmitted() && !jobCreated) {
+                // Rejected after admission, e.g. by the submission limits: the job never joins the queue
+                admissionControlService.release();
+            }
         }
     }
 
@@ -216,8 +277,8 @@ public class SubmissionJobController {
                 resp.setMemory(job.getTotalMemory());
 
                 // Sanitize test results: do not leak hidden test input/expected output
-                List<SubmissionJob.TestResult> storedResults = job.getTestResults();
-                int publicCount = job.getPublicTestCases() != null ? job.getPublicTestCases().size() : 0;
+                List<SubmissionJob.TestResult> storedResults = TestResultCodec.expand(job);
+                int publicCount = job.countPublicTests();
                 List<TestResultResponse> sanitized = new java.util.ArrayList<>();
                 for (int i = 0; i < (storedResults != null ? storedResults.size() : 0); i++) {
                     SubmissionJob.TestResult r = storedResults.get(i);
@@ -236,11 +297,12 @@ public class SubmissionJobController {
                         // Hidden test: never expose input or expected output
                         TestResultResponse tr = new TestResultResponse();
                         tr.setType("hidden");
-                        tr.setStatus(r.isPassed() ? "PASSED" : "FAILED");
+                        tr.setStatus(r.isPassed() ? "PASSED" : r.isNotRun() ? "NOT_RUN" : "FAILED");
                         tr.setPassed(r.isPassed());
                         tr.setRuntime(r.getRuntime());
                         tr.setMemory(r.getMemory());
-                        if (!r.isPassed()) tr.setMessage("Failed on hidden testcase");
+                        if (r.isNotRun()) tr.setMessage("Skipped after an earlier failure");
+                        else if (!r.isPassed()) tr.setMessage("Failed on hidden testcase");
                         sanitized.add(tr);
                     }
                 }
@@ -270,11 +332,8 @@ public class SubmissionJobController {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             String username = auth.getName();
 
-            List<SubmissionJob> jobs = jobService.getUserJobs(username);
-            // Limit results
-            if (jobs.size() > limit) {
-                jobs = jobs.subList(0, limit);
-            }
+            // Older jobs come from the archive, so the limit is bounded
+            List<SubmissionJob> jobs = jobService.getUserJobs(username, Math.max(1, Math.min(limit, 100)));
 
             List<Map<String, Object>> summaries = new java.util.ArrayList<>();
             for (SubmissionJob job : jobs) {
@@ -299,6 +358,19 @@ public class SubmissionJobController {
         }
     }
 
+    /**
+     * Registered worker nodes with their status, capacity and load (for observability)
+     */
+    @GetMapping("/queue/workers")
+    public ResponseEntity<?> getWorkers() {
+        try {
+            return ResponseEntity.ok(workerRegistryService.listNodes());
+        } catch (Exception e) {
+            logger.error("Failed to list worker nodes", e);
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to list worker nodes: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get queue statistics (for observability)
      */
@@ -313,6 +385,15 @@ public class SubmissionJobController {
             response.put("completed", stats.getCompleted());
             response.put("failed", stats.getFailed());
             response.put("total", stats.getTotal());
+            response.put("judge0RateLimit", Map.of(
+                "ratePerSecond", judge0RateLimiter.getCurrentRate(),
+                "queueLength", judge0RateLimiter.getQueueLength(),
+                "throttled", judge0RateLimiter.getThrottledCount()
+            ));
+            response.put("judge0Circuit", judge0CircuitBreaker.getState().name());
+            response.put("workerJobsInFlight", submissionWorker.getJobsInFlight());
+            response.put("autoscaler", submissionWorker.getAutoscalerStats());
+            response.put("scheduler", submissionScheduler.getStats());
 
             return ResponseEntity.ok(response);
 
@@ -322,18 +403,42 @@ public class SubmissionJobController {
         }
     }
 
+    // Decided here, never by the client: every graded submission is PREMIUM or STANDARD
+    private SubmissionJob.Priority priorityOf(User user) {
+        boolean premium = user.isPremium()
+            && (user.getSubscriptionExpiry() == null || user.getSubscriptionExpiry().after(new Date()));
+        return premium ? SubmissionJob.Priority.PREMIUM : SubmissionJob.Priority.STANDARD;
+    }
+
     // Request DTO for creating jobs moved to com.coderzclub.dto.CreateSubmissionJobRequest
-    private List<SubmissionJob.TestCase> toSubmissionTestCases(List<com.coderzclub.model.TestCase> sourceCases) {
-        if (sourceCases == null) {
-            return null;
+
+    /**
+     * Validate and publish the tests of a problem that has no set yet, and record the reference
+     * unless a concurrent submission did first.
+     */
+    private Problem publishTestSet(String problemId) {
+        Problem problem = problemRepository.findById(problemId)
+            .orElseThrow(() -> new IllegalArgumentException("Problem not found: " + problemId));
+        if (problem.getTestSetId() != null) {
+            // Published by a concurrent submission since the projection was read; its hidden tests
+            // are in the set only now, so publishing this copy would drop them
+            return problem;
         }
-        return sourceCases.stream().map(source -> {
-            SubmissionJob.TestCase target = new SubmissionJob.TestCase();
-            target.setInput(source.getInput());
-            target.setExpectedOutput(source.getOutput());
-            target.setExplanation(source.getExplanation());
-            return target;
-        }).toList();
+        submissionValidator.validateProblemTestCases(problem);
+        testCaseSetService.publish(problem);
+        // Only if no one published it meanwhile: the stored problem then no longer has the hidden tests
+        UpdateResult result = mongoTemplate.updateFirst(
+            Query.query(Criteria.where("id").is(problemId).and("testSetId").is(null)),
+            new Update()
+                .set("testSetId", problem.getTestSetId())
+                .set("publicTestCount", problem.getPublicTestCount())
+                .set("hiddenTestCount", problem.getHiddenTestCount())
+                .unset("hiddenTestCases"),
+            Problem.class);
+        if (result.getModifiedCount() == 0) {
+            return problemRepository.findSubmissionFieldsById(problemId).orElse(problem);
+        }
+        return problem;
     }
 
     private List<Map<String, Object>> sanitizeTestResults(List<SubmissionJob.TestResult> testResults) {
@@ -17,6 +17,8 @@ public class AdminProblemResponse {
     private int points;
     private int estimatedTime;
     private String executionMode;
+    private String checker;
+    private Double checkerEpsilon;
     private List<TestCase> publicTestCases;
     private List<TestCase> hiddenTestCases;
 
@@ -33,6 +35,8 @@ public class AdminProblemResponse {
         this.points = problem.getPoints();
         this.estimatedTime = problem.getEstimatedTime();
         this.executionMode = problem.getExecutionMode();
+        this.checker = problem.getChecker();
+        this.checkerEpsilon = problem.getCheckerEpsilon();
         this.publicTestCases = sanitize(problem.getPublicTestCases());
         this.hiddenTestCases = sanitize(problem.getHiddenTestCases());
     }
@@ -70,6 +74,10 @@ public class AdminProblemResponse {
     public void setEstimatedTime(int estimatedTime) { this.estimatedTime = estimatedTime; }
     public String getExecutionMode() { return executionMode; }
     public void setExecutionMode(String executionMode) { this.executionMode = executionMode; }
+    public String getChecker() { return checker; }
+    public void setChecker(String checker) { this.checker = checker; }
+    public Double getCheckerEpsilon() { return checkerEpsilon; }
+    public void setCheckerEpsilon(Double checkerEpsilon) { this.checkerEpsilon = checkerEpsilon; }
     public List<TestCase> getPublicTestCases() { return publicTestCases; }
     public void setPublicTestCases(List<TestCase> publicTestCases) { this.publicTestCases = publicTestCases; }
     public List<TestCase> getHiddenTestCases() { return hiddenTestCases; }
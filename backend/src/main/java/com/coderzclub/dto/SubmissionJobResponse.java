@@ -15,6 +15,7 @@ public class SubmissionJobResponse {
     private Long memory;
     private List<TestResultResponse> testResults;
     private String error;
+    private Long estimatedWaitSeconds; // Expected queue wait when the job was accepted
 
     public String getJobId() { return jobId; }
     public void setJobId(String jobId) { this.jobId = jobId; }
@@ -48,4 +49,7 @@ public class SubmissionJobResponse {
 
     public String getError() { return error; }
     public void setError(String error) { this.error = error; }
+
+    public Long getEstimatedWaitSeconds() { return estimatedWaitSeconds; }
+    public void setEstimatedWaitSeconds(Long estimatedWaitSeconds) { this.estimatedWaitSeconds = estimatedWaitSeconds; }
 }
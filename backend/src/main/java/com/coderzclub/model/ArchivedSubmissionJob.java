@@ -0,0 +1,58 @@
+package com.coderzclub.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A finished submission job moved out of {@code submission_jobs}. The whole job is kept as one
+ * compressed BSON document in {@code data}; the other fields are there to find it. The id is the
+ * job's id, so a job is looked up the same way wherever it lives.
+ */
+@Document(collection = "submission_jobs_archive")
+@CompoundIndex(name = "userId_createdAt_desc_idx", def = "{ 'userId': 1, 'createdAt': -1 }")
+public class ArchivedSubmissionJob {
+    @Id
+    private String id;
+    private String userId;
+    private String problemId;
+    @Indexed(name = "status_idx")
+    private SubmissionJob.JobStatus status;
+    private String finalResult;
+    private Date createdAt;
+    private Date completedAt;
+    private Date archivedAt;
+    private byte[] data; // Deflate-compressed BSON of the job, see SubmissionJobArchiveService
+
+    public ArchivedSubmissionJob() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getProblemId() { return problemId; }
+    public void setProblemId(String problemId) { this.problemId = problemId; }
+
+    public SubmissionJob.JobStatus getStatus() { return status; }
+    public void setStatus(SubmissionJob.JobStatus status) { this.status = status; }
+
+    public String getFinalResult() { return finalResult; }
+    public void setFinalResult(String finalResult) { this.finalResult = finalResult; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    public Date getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+
+    public Date getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(Date archivedAt) { this.archivedAt = archivedAt; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+}
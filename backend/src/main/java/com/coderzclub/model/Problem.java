@@ -20,10 +20,15 @@ public class Problem {
     
     // Execution mode: "FUNCTION" (old) or "STDIN_STDOUT" (new)
     private String executionMode = "STDIN_STDOUT"; // Default to new mode
+
+    // How outputs are judged: "EXACT" (default), "TOKEN", "LINE" or "FLOAT"
+    private String checker;
+    private Double checkerEpsilon; // Tolerance for FLOAT, defaults to 1e-6
     
     // Fields for STDIN_STDOUT mode (NEW - Recommended)
     private List<TestCase> publicTestCases;  // Public test cases (shown to user)
-    private List<TestCase> hiddenTestCases;  // Hidden test cases (not shown to user)
+    // Hidden test cases (not shown to user); taken when the problem is saved and kept only in its test set
+    private List<TestCase> hiddenTestCases;
     private String inputFormat;    // Description of input format
     private String outputFormat;   // Description of output format
     private String constraints;    // Problem constraints (e.g., "1 <= n <= 10^5")
@@ -31,6 +36,11 @@ public class Problem {
     private String exampleInput;   // Example input for display
     private String exampleOutput;  // Example output for display
     private String exampleExplanation; // Explanation of the example
+
+    // Published TestCaseSet of the public and hidden test cases, see TestCaseSetService
+    private String testSetId;
+    private Integer publicTestCount;
+    private Integer hiddenTestCount;
     
     // Fields for FUNCTION mode (OLD - Deprecated but kept for backward compatibility)
     @Deprecated
@@ -132,6 +142,12 @@ public class Problem {
     // New getters and setters for STDIN_STDOUT mode
     public String getExecutionMode() { return executionMode; }
     public void setExecutionMode(String executionMode) { this.executionMode = executionMode; }
+
+    public String getChecker() { return checker; }
+    public void setChecker(String checker) { this.checker = checker; }
+
+    public Double getCheckerEpsilon() { return checkerEpsilon; }
+    public void setCheckerEpsilon(Double checkerEpsilon) { this.checkerEpsilon = checkerEpsilon; }
     
     public List<TestCase> getPublicTestCases() { return publicTestCases; }
     public void setPublicTestCases(List<TestCase> publicTestCases) { this.publicTestCases = publicTestCases; }
@@ -156,4 +172,13 @@ public class Problem {
     
     public String getExampleExplanation() { return exampleExplanation; }
     public void setExampleExplanation(String exampleExplanation) { this.exampleExplanation = exampleExplanation; }
-} 
\ No newline at end of file
+
+    public String getTestSetId() { return testSetId; }
+    public void setTestSetId(String testSetId) { this.testSetId = testSetId; }
+
+    public Integer getPublicTestCount() { return publicTestCount; }
+    public void setPublicTestCount(Integer publicTestCount) { this.publicTestCount = publicTestCount; }
+
+    public Integer getHiddenTestCount() { return hiddenTestCount; }
+    public void setHiddenTestCount(Integer hiddenTestCount) { this.hiddenTestCount = hiddenTestCount; }
+}
@@ -4,6 +4,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,9 @@ public class SubmissionJob {
     private String code;
     private String language;
     private Integer languageId; // Judge0 language ID
+    private String checker; // Output checker copied from the problem, see OutputCheckers
+    private Double checkerEpsilon;
+    private Priority priority = Priority.STANDARD; // Scheduling class, see SubmissionScheduler
 
     // Job status
     private JobStatus status = JobStatus.PENDING;
@@ -29,12 +33,15 @@ public class SubmissionJob {
     private Date startedAt;
     private Date completedAt;
 
-    // Test cases to run
+    // Test cases to run: a shared TestCaseSet, or embedded by jobs created before sets existed
+    private String testSetId;
+    private Integer publicTestCount;
     private List<TestCase> publicTestCases;
     private List<TestCase> hiddenTestCases;
 
-    // Results
+    // Results; once the job is finished, only the detailed ones (see TestResultCodec)
     private List<TestResult> testResults;
+    private ResultDigest resultDigest;
     private String finalResult; // ACCEPTED, WRONG_ANSWER, etc.
     private String errorMessage;
     private Long totalRuntime; // Max runtime across all tests
@@ -49,6 +56,10 @@ public class SubmissionJob {
     private Date nextRetryAt;
     private String lastError;
 
+    // Set once the job is copied to the archive; a TTL index, created by SubmissionJobArchiveService
+    // with archive.hotRetentionSeconds, then removes it from this collection
+    private Date archivedAt;
+
     // Progress tracking
     private Integer completedTests = 0;
     private Integer totalTests = 0;
@@ -56,6 +67,12 @@ public class SubmissionJob {
     // For observability
     private Map<String, Object> metadata;
 
+    public enum Priority {
+        INTERACTIVE, // User is waiting on the result in the editor
+        PREMIUM,     // Submitted by a user with an active premium subscription
+        STANDARD
+    }
+
     public enum JobStatus {
         PENDING,     // Job created but not yet queued or prepared
         QUEUED,      // Job created and ready for workers to claim
@@ -91,6 +108,11 @@ public class SubmissionJob {
     }
 
     public static class TestResult {
+        // errorType of tests skipped by the fail-fast policy
+        public static final String NOT_RUN = "Not Run";
+        // errorType of tests the judge failed to run (judge fault, not a verdict on the code)
+        public static final String EXECUTION_ERROR = "Execution Error";
+
         private String input;
         private String expectedOutput;
         private String actualOutput;
@@ -100,6 +122,11 @@ public class SubmissionJob {
         private String errorType;
         private String errorMessage;
         private Map<String, Object> executionDetails;
+        // Set on results stored next to a ResultDigest: position among all tests, and the hashes
+        // of hidden test data that is not kept
+        private Integer index;
+        private String inputHash;
+        private String expectedOutputHash;
 
         public TestResult() {}
 
@@ -122,6 +149,40 @@ public class SubmissionJob {
         public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
         public Map<String, Object> getExecutionDetails() { return executionDetails; }
         public void setExecutionDetails(Map<String, Object> executionDetails) { this.executionDetails = executionDetails; }
+        public Integer getIndex() { return index; }
+        public void setIndex(Integer index) { this.index = index; }
+        public String getInputHash() { return inputHash; }
+        public void setInputHash(String inputHash) { this.inputHash = inputHash; }
+        public String getExpectedOutputHash() { return expectedOutputHash; }
+        public void setExpectedOutputHash(String expectedOutputHash) { this.expectedOutputHash = expectedOutputHash; }
+
+        @JsonIgnore
+        public boolean isNotRun() { return NOT_RUN.equals(errorType); }
+    }
+
+    /**
+     * Outcome of every test of a finished job: pass and not-run bitmaps (Base64, bit i is test i)
+     * with runtime and memory per test.
+     */
+    public static class ResultDigest {
+        private int count;
+        private String passed;
+        private String notRun;
+        private List<Long> runtimes;
+        private List<Long> memory;
+
+        public ResultDigest() {}
+
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+        public String getPassed() { return passed; }
+        public void setPassed(String passed) { this.passed = passed; }
+        public String getNotRun() { return notRun; }
+        public void setNotRun(String notRun) { this.notRun = notRun; }
+        public List<Long> getRuntimes() { return runtimes; }
+        public void setRuntimes(List<Long> runtimes) { this.runtimes = runtimes; }
+        public List<Long> getMemory() { return memory; }
+        public void setMemory(List<Long> memory) { this.memory = memory; }
     }
 
     // Default constructor
@@ -146,6 +207,15 @@ public class SubmissionJob {
     public Integer getLanguageId() { return languageId; }
     public void setLanguageId(Integer languageId) { this.languageId = languageId; }
 
+    public String getChecker() { return checker; }
+    public void setChecker(String checker) { this.checker = checker; }
+
+    public Double getCheckerEpsilon() { return checkerEpsilon; }
+    public void setCheckerEpsilon(Double checkerEpsilon) { this.checkerEpsilon = checkerEpsilon; }
+
+    public Priority getPriority() { return priority; }
+    public void setPriority(Priority priority) { this.priority = priority; }
+
     public JobStatus getStatus() { return status; }
     public void setStatus(JobStatus status) { this.status = status; }
 
@@ -158,6 +228,22 @@ public class SubmissionJob {
     public Date getCompletedAt() { return completedAt; }
     public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
 
+    public String getTestSetId() { return testSetId; }
+    public void setTestSetId(String testSetId) { this.testSetId = testSetId; }
+
+    public Integer getPublicTestCount() { return publicTestCount; }
+    public void setPublicTestCount(Integer publicTestCount) { this.publicTestCount = publicTestCount; }
+
+    /**
+     * Number of public tests; their results come first in testResults.
+     */
+    public int countPublicTests() {
+        if (publicTestCount != null) {
+            return publicTestCount;
+        }
+        return publicTestCases != null ? publicTestCases.size() : 0;
+    }
+
     public List<TestCase> getPublicTestCases() { return publicTestCases; }
     public void setPublicTestCases(List<TestCase> publicTestCases) { this.publicTestCases = publicTestCases; }
 
@@ -167,6 +253,9 @@ public class SubmissionJob {
     public List<TestResult> getTestResults() { return testResults; }
     public void setTestResults(List<TestResult> testResults) { this.testResults = testResults; }
 
+    public ResultDigest getResultDigest() { return resultDigest; }
+    public void setResultDigest(ResultDigest resultDigest) { this.resultDigest = resultDigest; }
+
     public String getFinalResult() { return finalResult; }
     public void setFinalResult(String finalResult) { this.finalResult = finalResult; }
 
@@ -206,6 +295,9 @@ public class SubmissionJob {
     public String getLastError() { return lastError; }
     public void setLastError(String lastError) { this.lastError = lastError; }
 
+    public Date getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(Date archivedAt) { this.archivedAt = archivedAt; }
+
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
 }
\ No newline at end of file
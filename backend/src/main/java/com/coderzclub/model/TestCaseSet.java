@@ -0,0 +1,59 @@
+package com.coderzclub.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable version of a problem's test cases, referenced by submission jobs instead of copied
+ * into each of them. The id is the SHA-256 of the content, so publishing the same test cases
+ * again yields the same set and a changed problem gets a new one.
+ */
+@Document(collection = "test_case_sets")
+public class TestCaseSet {
+    @Id
+    private String id; // Content hash, see TestCaseSetService
+    @Indexed
+    private String problemId; // Problem the set was first published for
+    private Storage storage; // Null for sets stored inline
+    private Integer publicTestCount;
+    private Integer hiddenTestCount;
+    // Inline test cases; with GRIDFS storage these are filled in by the loader, never stored
+    private List<SubmissionJob.TestCase> publicTestCases;
+    private List<SubmissionJob.TestCase> hiddenTestCases;
+    private Date createdAt = new Date();
+
+    public enum Storage {
+        INLINE, // Test cases in this document
+        GRIDFS  // One compressed GridFS file per test case, see TestDataStore
+    }
+
+    public TestCaseSet() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProblemId() { return problemId; }
+    public void setProblemId(String problemId) { this.problemId = problemId; }
+
+    public Storage getStorage() { return storage; }
+    public void setStorage(Storage storage) { this.storage = storage; }
+
+    public Integer getPublicTestCount() { return publicTestCount; }
+    public void setPublicTestCount(Integer publicTestCount) { this.publicTestCount = publicTestCount; }
+
+    public Integer getHiddenTestCount() { return hiddenTestCount; }
+    public void setHiddenTestCount(Integer hiddenTestCount) { this.hiddenTestCount = hiddenTestCount; }
+
+    public List<SubmissionJob.TestCase> getPublicTestCases() { return publicTestCases; }
+    public void setPublicTestCases(List<SubmissionJob.TestCase> publicTestCases) { this.publicTestCases = publicTestCases; }
+
+    public List<SubmissionJob.TestCase> getHiddenTestCases() { return hiddenTestCases; }
+    public void setHiddenTestCases(List<SubmissionJob.TestCase> hiddenTestCases) { this.hiddenTestCases = hiddenTestCases; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+}
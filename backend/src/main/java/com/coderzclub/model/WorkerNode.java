@@ -0,0 +1,68 @@
+package com.coderzclub.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Registry entry of a submission worker node, kept fresh by the node's own heartbeat.
+ */
+@Document(collection = "worker_nodes")
+@CompoundIndex(def = "{ 'status': 1, 'lastHeartbeatAt': 1 }")
+public class WorkerNode {
+    @Id
+    private String id; // Stable node id (worker.nodeId), also the lockedBy of its jobs
+    private String hostname;
+    private String engine;
+    private String threadModel;
+    private int capacity;     // Jobs the node runs at once
+    private int jobsInFlight; // Jobs it held at the last heartbeat
+    private long avgJobMs;    // Recent average claim-to-finish time per job
+    private NodeStatus status;
+    private Date startedAt;
+    private Date lastHeartbeatAt;
+    private Date stoppedAt;
+
+    public enum NodeStatus {
+        ACTIVE,  // Heartbeating
+        STOPPED, // Shut down cleanly
+        DEAD     // Missed heartbeats; its jobs were requeued by a peer
+    }
+
+    public WorkerNode() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getHostname() { return hostname; }
+    public void setHostname(String hostname) { this.hostname = hostname; }
+
+    public String getEngine() { return engine; }
+    public void setEngine(String engine) { this.engine = engine; }
+
+    public String getThreadModel() { return threadModel; }
+    public void setThreadModel(String threadModel) { this.threadModel = threadModel; }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public int getJobsInFlight() { return jobsInFlight; }
+    public void setJobsInFlight(int jobsInFlight) { this.jobsInFlight = jobsInFlight; }
+
+    public long getAvgJobMs() { return avgJobMs; }
+    public void setAvgJobMs(long avgJobMs) { this.avgJobMs = avgJobMs; }
+
+    public NodeStatus getStatus() { return status; }
+    public void setStatus(NodeStatus status) { this.status = status; }
+
+    public Date getStartedAt() { return startedAt; }
+    public void setStartedAt(Date startedAt) { this.startedAt = startedAt; }
+
+    public Date getLastHeartbeatAt() { return lastHeartbeatAt; }
+    public void setLastHeartbeatAt(Date lastHeartbeatAt) { this.lastHeartbeatAt = lastHeartbeatAt; }
+
+    public Date getStoppedAt() { return stoppedAt; }
+    public void setStoppedAt(Date stoppedAt) { this.stoppedAt = stoppedAt; }
+}
@@ -1,12 +1,13 @@
 package com.coderzclub.queue;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 @Component
+@ConditionalOnProperty(name = "queue.type", havingValue = "memory", matchIfMissing = true)
 public class InMemorySubmissionQueueConsumer implements SubmissionQueueConsumer {
 
     private final InMemorySubmissionQueuePublisher publisher;
@@ -19,8 +20,7 @@ public class InMemorySubmissionQueueConsumer implements SubmissionQueueConsumer
     @Override
     public String consumeJob(long timeoutSeconds) {
         try {
-            BlockingQueue<String> queue = publisher.getQueue();
-            return queue.poll(timeoutSeconds, TimeUnit.SECONDS);
+            return publisher.getScheduler().poll(timeoutSeconds, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return null;
@@ -1,28 +1,35 @@
 package com.coderzclub.queue;
 
+import com.coderzclub.model.SubmissionJob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-
 /**
- * In-memory submission queue publisher for local/dev environments.
+ * In-memory submission queue publisher for local/dev environments. Jobs are ordered by the
+ * {@link SubmissionScheduler} rather than by arrival.
  */
 @Component
+@ConditionalOnProperty(name = "queue.type", havingValue = "memory", matchIfMissing = true)
 public class InMemorySubmissionQueuePublisher implements SubmissionQueuePublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(InMemorySubmissionQueuePublisher.class);
-    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final SubmissionScheduler scheduler;
+
+    @Autowired
+    public InMemorySubmissionQueuePublisher(SubmissionScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
 
     @Override
-    public void publishJob(String jobId) {
-        logger.debug("Publishing job to in-memory queue: {}", jobId);
-        queue.offer(jobId);
+    public void publishJob(SubmissionJob job) {
+        logger.debug("Publishing job to in-memory queue: {} priority={}", job.getId(), job.getPriority());
+        scheduler.offer(job.getId(), job.getUserId(), job.getPriority(), job.getTotalTests(), System.currentTimeMillis());
     }
 
-    public BlockingQueue<String> getQueue() {
-        return queue;
+    public SubmissionScheduler getScheduler() {
+        return scheduler;
     }
 }
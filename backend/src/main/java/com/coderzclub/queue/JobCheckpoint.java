@@ -0,0 +1,176 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.TestCaseSet;
+import com.coderzclub.service.ExecutionEngine;
+import com.coderzclub.service.SubmissionJobLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Collects one job's test results as the engine reports them and saves the finished prefix
+ * (every test up to the first one without a verdict) at most every {@code intervalMs}. A retried
+ * attempt starts from {@link #resumeFrom} and only runs the tests after that prefix.
+ *
+ * Results that are not verdicts about the code (not run, judge unreachable) end the prefix, so
+ * those tests are run again on the next attempt.
+ *
+ * Saves run on {@code writer}, one at a time, with the results copied out under the lock: engines
+ * report results from their own threads (HTTP completion threads in PARALLEL mode), and none of
+ * them waits for a MongoDB write.
+ */
+final class JobCheckpoint implements ExecutionEngine.ResultListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobCheckpoint.class);
+
+    private final String jobId;
+    private final String workerId;
+    private final Integer attemptCount;
+    private final SubmissionJobLeaseService leaseService;
+    private final long intervalMs;
+    private final Executor writer;
+    private final List<SubmissionJob.TestResult> restored;
+    // Results of this attempt, indexed from the first test it runs
+    private final SubmissionJob.TestResult[] fresh;
+    private int finished;
+    private int saved;
+    private long lastSaveAt;
+    private boolean saving;
+    private boolean fenced;
+
+    private JobCheckpoint(SubmissionJob job, String workerId, SubmissionJobLeaseService leaseService, long intervalMs,
+                          Executor writer, List<SubmissionJob.TestResult> restored) {
+        this.jobId = job.getId();
+        this.workerId = workerId;
+        this.attemptCount = job.getAttemptCount();
+        this.leaseService = leaseService;
+        this.intervalMs = intervalMs;
+        this.writer = writer;
+        this.restored = restored;
+        this.fresh = new SubmissionJob.TestResult[Math.max(0, totalTests(job) - restored.size())];
+        this.lastSaveAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Start an attempt of {@code job}, keeping the results saved by earlier attempts. Checkpoints
+     * are written on {@code writer}.
+     */
+    static JobCheckpoint resumeFrom(SubmissionJob job, String workerId, SubmissionJobLeaseService leaseService,
+                                    long intervalMs, Executor writer) {
+        List<SubmissionJob.TestResult> saved = job.getTestResults();
+        List<SubmissionJob.TestResult> restored = new ArrayList<>();
+        if (saved != null && saved.size() <= totalTests(job)) {
+            int count = job.getCompletedTests() != null ? Math.min(job.getCompletedTests(), saved.size()) : 0;
+            restored.addAll(saved.subList(0, count));
+        }
+        return new JobCheckpoint(job, workerId, leaseService, intervalMs, writer, restored);
+    }
+
+    /**
+     * Number of tests whose results were restored from earlier attempts.
+     */
+    int getRestoredCount() {
+        return restored.size();
+    }
+
+    List<SubmissionJob.TestCase> remainingPublic(TestCaseSet testSet) {
+        List<SubmissionJob.TestCase> cases = orEmpty(testSet.getPublicTestCases());
+        return cases.subList(Math.min(restored.size(), cases.size()), cases.size());
+    }
+
+    List<SubmissionJob.TestCase> remainingHidden(TestCaseSet testSet) {
+        int publicCount = orEmpty(testSet.getPublicTestCases()).size();
+        List<SubmissionJob.TestCase> cases = orEmpty(testSet.getHiddenTestCases());
+        return cases.subList(Math.min(Math.max(0, restored.size() - publicCount), cases.size()), cases.size());
+    }
+
+    /**
+     * Restored results followed by {@code results} of this attempt.
+     */
+    List<SubmissionJob.TestResult> merge(List<SubmissionJob.TestResult> results) {
+        List<SubmissionJob.TestResult> all = new ArrayList<>(restored.size() + results.size());
+        all.addAll(restored);
+        all.addAll(results);
+        return all;
+    }
+
+    @Override
+    public void onResult(int index, SubmissionJob.TestResult result) {
+        int completedBefore;
+        int upTo;
+        List<SubmissionJob.TestResult> batch;
+        synchronized (this) {
+            if (index < 0 || index >= fresh.length || !isVerdict(result)) {
+                return;
+            }
+            fresh[index] = result;
+            while (finished < fresh.length && fresh[finished] != null) {
+                finished++;
+            }
+            long now = System.currentTimeMillis();
+            if (fenced || saving || finished <= saved || now - lastSaveAt < intervalMs) {
+                return;
+            }
+            saving = true;
+            lastSaveAt = now;
+            completedBefore = restored.size() + saved;
+            upTo = finished;
+            batch = new ArrayList<>(Arrays.asList(fresh).subList(saved, finished));
+        }
+        try {
+            writer.execute(() -> save(completedBefore, upTo, batch));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the results are still saved when the job finishes
+            synchronized (this) {
+                saving = false;
+            }
+        }
+    }
+
+    /**
+     * Every result with a verdict so far, restored ones included, in test order.
+     */
+    synchronized List<SubmissionJob.TestResult> finishedResults() {
+        return merge(Arrays.asList(fresh).subList(0, finished));
+    }
+
+    private void save(int completedBefore, int upTo, List<SubmissionJob.TestResult> batch) {
+        Boolean accepted = null;
+        try {
+            accepted = leaseService.checkpointTestResults(jobId, workerId, attemptCount, completedBefore, batch);
+        } catch (Exception e) {
+            // Best effort: the results are still saved when the job finishes
+            logger.warn("Job {} checkpoint failed error={}", jobId, e.getMessage());
+        }
+        synchronized (this) {
+            saving = false;
+            if (Boolean.TRUE.equals(accepted)) {
+                saved = upTo;
+            } else if (Boolean.FALSE.equals(accepted)) {
+                // Lease gone or progress moved on elsewhere; the lease manager aborts the job
+                fenced = true;
+            }
+        }
+        if (Boolean.FALSE.equals(accepted)) {
+            logger.warn("Job {} checkpoint rejected; no longer held by {}", jobId, workerId);
+        }
+    }
+
+    private static boolean isVerdict(SubmissionJob.TestResult result) {
+        return result != null && !result.isNotRun() && !SubmissionJob.TestResult.EXECUTION_ERROR.equals(result.getErrorType());
+    }
+
+    private static int totalTests(SubmissionJob job) {
+        return job.getTotalTests() != null ? job.getTotalTests() : 0;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+}
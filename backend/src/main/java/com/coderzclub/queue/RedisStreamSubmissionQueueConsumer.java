@@ -0,0 +1,255 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.QueueProperties;
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes job ids from a Redis stream through a consumer group (XREADGROUP), so each entry is
+ * delivered to one worker node. Entries stay pending until {@link #acknowledge} (XACK); entries
+ * left pending by a crashed node for {@code queue.claimIdleSeconds} are claimed (XCLAIM) by a live
+ * one. Duplicate deliveries are harmless: the job lease in MongoDB decides who runs a job.
+ *
+ * Up to {@code queue.prefetch} entries are read ahead into the node's {@link SubmissionScheduler},
+ * which picks the next job among them. Read-ahead entries wait for this node, so keep the
+ * prefetch close to the node's job slots.
+ */
+@Component
+@ConditionalOnProperty(name = "queue.type", havingValue = "redis")
+public class RedisStreamSubmissionQueueConsumer implements SubmissionQueueConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamSubmissionQueueConsumer.class);
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private QueueProperties queueProperties;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    @Autowired
+    private SubmissionScheduler scheduler;
+
+    private String consumerName;
+    private volatile boolean groupReady;
+    private volatile long nextClaimAtMs;
+
+    // Stream entry of each job buffered in the scheduler or running here, not yet acknowledged
+    private final Map<String, RecordId> delivered = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        consumerName = queueProperties.getConsumerName();
+        if (consumerName == null || consumerName.isBlank()) {
+            consumerName = workerProperties.getNodeId();
+        }
+        logger.info("Redis stream consumer stream={} group={} consumer={}",
+            queueProperties.getStreamKey(), queueProperties.getConsumerGroup(), consumerName);
+    }
+
+    @Override
+    public String consumeJob(long timeoutSeconds) {
+        try {
+            ensureGroup();
+            // Entries claimed from crashed consumers are older than anything new; serve them first
+            boolean claimedStale = System.currentTimeMillis() >= nextClaimAtMs && claimStaleEntries() > 0;
+            int room = Math.max(1, queueProperties.getPrefetch()) - scheduler.size();
+            if (!claimedStale && room > 0) {
+                StreamReadOptions options = StreamReadOptions.empty().count(room);
+                if (scheduler.size() == 0) {
+                    options = options.block(Duration.ofSeconds(Math.max(1, timeoutSeconds)));
+                }
+                List<MapRecord<String, Object, Object>> records = streams().read(
+                    Consumer.from(queueProperties.getConsumerGroup(), consumerName),
+                    options,
+                    offsets(StreamOffset.create(queueProperties.getStreamKey(), ReadOffset.lastConsumed())));
+                if (records != null) {
+                    records.forEach(this::buffer);
+                }
+            }
+            return scheduler.poll(0, TimeUnit.MILLISECONDS);
+        } catch (DataAccessException e) {
+            logger.warn("Redis stream read failed stream={} error={}", queueProperties.getStreamKey(), e.getMessage());
+            // Back off instead of spinning while Redis is unreachable
+            try {
+                TimeUnit.SECONDS.sleep(Math.max(1, timeoutSeconds));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public void acknowledge(String jobId) {
+        RecordId recordId = delivered.remove(jobId);
+        if (recordId == null) {
+            return;
+        }
+        try {
+            streams().acknowledge(queueProperties.getStreamKey(), queueProperties.getConsumerGroup(), recordId);
+        } catch (DataAccessException e) {
+            // Still pending: another node claims it later and the lease check drops the duplicate
+            logger.warn("Redis stream ack failed jobId={} recordId={} error={}", jobId, recordId, e.getMessage());
+        }
+    }
+
+    public String getConsumerName() {
+        return consumerName;
+    }
+
+    private void buffer(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> fields = record.getValue();
+        Object jobId = fields.get(RedisStreamSubmissionQueuePublisher.JOB_ID_FIELD);
+        if (jobId == null) {
+            logger.warn("Dropping malformed stream entry recordId={}", record.getId());
+            streams().acknowledge(queueProperties.getStreamKey(), queueProperties.getConsumerGroup(), record.getId());
+            return;
+        }
+        if (delivered.putIfAbsent(jobId.toString(), record.getId()) != null) {
+            // Same job already buffered or running here under an earlier entry
+            streams().acknowledge(queueProperties.getStreamKey(), queueProperties.getConsumerGroup(), record.getId());
+            return;
+        }
+        Object userId = fields.get(RedisStreamSubmissionQueuePublisher.USER_ID_FIELD);
+        Long enqueuedAt = record.getId().getTimestamp();
+        scheduler.offer(jobId.toString(),
+            userId != null ? userId.toString() : null,
+            priority(fields.get(RedisStreamSubmissionQueuePublisher.PRIORITY_FIELD)),
+            totalTests(fields.get(RedisStreamSubmissionQueuePublisher.TOTAL_TESTS_FIELD)),
+            enqueuedAt != null ? enqueuedAt : System.currentTimeMillis());
+    }
+
+    private static SubmissionJob.Priority priority(Object value) {
+        try {
+            return value != null ? SubmissionJob.Priority.valueOf(value.toString()) : SubmissionJob.Priority.STANDARD;
+        } catch (IllegalArgumentException e) {
+            return SubmissionJob.Priority.STANDARD;
+        }
+    }
+
+    private static Integer totalTests(Object value) {
+        try {
+            return value != null ? Integer.valueOf(value.toString()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Take over entries that other consumers received but never acknowledged. Returns how many
+     * were claimed into the scheduler.
+     */
+    private synchronized int claimStaleEntries() {
+        long now = System.currentTimeMillis();
+        if (now < nextClaimAtMs) {
+            return 0;
+        }
+        nextClaimAtMs = now + TimeUnit.SECONDS.toMillis(queueProperties.getClaimIntervalSeconds());
+
+        Duration minIdle = Duration.ofSeconds(queueProperties.getClaimIdleSeconds());
+        PendingMessages pending = streams().pending(queueProperties.getStreamKey(), queueProperties.getConsumerGroup(),
+            Range.unbounded(), queueProperties.getClaimBatchSize());
+        List<RecordId> stale = new ArrayList<>();
+        List<RecordId> exhausted = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= queueProperties.getMaxDeliveries()) {
+                exhausted.add(message.getId());
+            } else {
+                stale.add(message.getId());
+            }
+        }
+        if (!exhausted.isEmpty()) {
+            // Job recovery re-publishes jobs whose lease expired; the stream entry itself is done
+            streams().acknowledge(queueProperties.getStreamKey(), queueProperties.getConsumerGroup(),
+                exhausted.toArray(new RecordId[0]));
+            logger.warn("queue_entries_dropped count={} reason=maxDeliveries", exhausted.size());
+        }
+        if (stale.isEmpty()) {
+            return 0;
+        }
+
+        List<MapRecord<String, Object, Object>> records = streams().claim(queueProperties.getStreamKey(),
+            queueProperties.getConsumerGroup(), consumerName, minIdle, stale.toArray(new RecordId[0]));
+        Set<RecordId> found = new HashSet<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            found.add(record.getId());
+            buffer(record);
+        }
+        // Entries trimmed from the stream can no longer be claimed; clear them from the pending list
+        List<RecordId> missing = new ArrayList<>(stale);
+        missing.removeAll(found);
+        if (!missing.isEmpty()) {
+            streams().acknowledge(queueProperties.getStreamKey(), queueProperties.getConsumerGroup(),
+                missing.toArray(new RecordId[0]));
+        }
+        logger.info("queue_claimed_stale count={} consumer={}", records.size(), consumerName);
+        return records.size();
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        byte[] key = queueProperties.getStreamKey().getBytes(StandardCharsets.UTF_8);
+        try {
+            // MKSTREAM so workers can start before the first job is published
+            redis.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                .xGroupCreate(key, queueProperties.getConsumerGroup(), ReadOffset.from("0"), true));
+            logger.info("Created consumer group {} on stream {}", queueProperties.getConsumerGroup(), queueProperties.getStreamKey());
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupReady = true;
+    }
+
+    private StreamOperations<String, Object, Object> streams() {
+        return redis.opsForStream();
+    }
+
+    // The varargs read would create a generic array at the call site; an array of one offset is safe
+    @SuppressWarnings("unchecked")
+    private static StreamOffset<String>[] offsets(StreamOffset<String> offset) {
+        return new StreamOffset[] {offset};
+    }
+}
@@ -0,0 +1,81 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.QueueProperties;
+import com.coderzclub.model.SubmissionJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishes job ids to a Redis stream (XADD, approximately capped at {@code queue.streamMaxLength}).
+ */
+@Component
+@ConditionalOnProperty(name = "queue.type", havingValue = "redis")
+public class RedisStreamSubmissionQueuePublisher implements SubmissionQueuePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamSubmissionQueuePublisher.class);
+
+    static final String JOB_ID_FIELD = "jobId";
+    static final String USER_ID_FIELD = "userId";
+    static final String PRIORITY_FIELD = "priority";
+    static final String TOTAL_TESTS_FIELD = "totalTests";
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private QueueProperties queueProperties;
+
+    @Override
+    public void publishJob(SubmissionJob job) {
+        RecordId recordId = redis.execute((RedisCallback<RecordId>) connection -> xAdd((StringRedisConnection) connection, job));
+        logger.debug("Publishing job to Redis stream: jobId={} stream={} recordId={}",
+            job.getId(), queueProperties.getStreamKey(), recordId);
+    }
+
+    @Override
+    public void publishJobs(Collection<SubmissionJob> jobs) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        // One pipelined round trip instead of an XADD per job
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (SubmissionJob job : jobs) {
+                xAdd((StringRedisConnection) connection, job);
+            }
+            return null;
+        });
+        logger.debug("Publishing jobs to Redis stream: count={} stream={}", jobs.size(), queueProperties.getStreamKey());
+    }
+
+    private RecordId xAdd(StringRedisConnection connection, SubmissionJob job) {
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions
+            .maxlen(queueProperties.getStreamMaxLength())
+            .approximateTrimming(true);
+        // Scheduling metadata travels with the entry so consumers need no lookup to order jobs
+        Map<String, String> fields = new HashMap<>();
+        fields.put(JOB_ID_FIELD, job.getId());
+        if (job.getUserId() != null) {
+            fields.put(USER_ID_FIELD, job.getUserId());
+        }
+        if (job.getPriority() != null) {
+            fields.put(PRIORITY_FIELD, job.getPriority().name());
+        }
+        if (job.getTotalTests() != null) {
+            fields.put(TOTAL_TESTS_FIELD, job.getTotalTests().toString());
+        }
+        return connection.xAdd(StreamRecords.string(fields).withStreamKey(queueProperties.getStreamKey()), options);
+    }
+}
@@ -2,4 +2,11 @@ package com.coderzclub.queue;
 
 public interface SubmissionQueueConsumer {
     String consumeJob(long timeoutSeconds);
+
+    /**
+     * Called once the worker is done with a job returned by {@link #consumeJob}, whatever the
+     * outcome; job state in MongoDB, not the queue, decides whether it runs again.
+     */
+    default void acknowledge(String jobId) {
+    }
 }
@@ -1,5 +1,20 @@
 package com.coderzclub.queue;
 
+import com.coderzclub.model.SubmissionJob;
+
+import java.util.Collection;
+
 public interface SubmissionQueuePublisher {
-    void publishJob(String jobId);
+    /**
+     * Queue a job for the workers. Besides the id, its userId, priority and totalTests are used
+     * for scheduling (see {@link SubmissionScheduler}).
+     */
+    void publishJob(SubmissionJob job);
+
+    /**
+     * Publish several jobs at once; implementations backed by a remote queue send them in one round trip.
+     */
+    default void publishJobs(Collection<SubmissionJob> jobs) {
+        jobs.forEach(this::publishJob);
+    }
 }
@@ -0,0 +1,92 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Refills the in-memory queue after a restart. The queue lives only in this process, so jobs that
+ * were QUEUED (or left PENDING) when the previous instance stopped would otherwise stay in MongoDB
+ * with nothing to publish them. Called by {@link SubmissionWorker} before its workers start.
+ *
+ * Jobs are read oldest first in pages of {@code worker.recoveryBatchSize}, keyed on
+ * (createdAt, id) over the status/createdAt index, so memory stays bounded whatever the backlog.
+ * Jobs already offered by a concurrent submission are skipped by the scheduler.
+ */
+@Component
+@ConditionalOnProperty(name = "queue.type", havingValue = "memory", matchIfMissing = true)
+public class SubmissionQueueRehydrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionQueueRehydrator.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SubmissionScheduler scheduler;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    /**
+     * Queue every job created before now that is waiting for a worker. Returns the number of jobs
+     * newly added to the queue.
+     */
+    public int rehydrate() {
+        Date startedAt = new Date();
+        int batchSize = Math.max(1, workerProperties.getRecoveryBatchSize());
+
+        // Workers only claim QUEUED jobs
+        long promoted = mongoTemplate.updateMulti(
+            Query.query(Criteria.where("status").is(SubmissionJob.JobStatus.PENDING).and("createdAt").lt(startedAt)),
+            new Update().set("status", SubmissionJob.JobStatus.QUEUED),
+            SubmissionJob.class).getModifiedCount();
+
+        int offered = 0;
+        int seen = 0;
+        SubmissionJob last = null;
+        while (true) {
+            List<SubmissionJob> page = mongoTemplate.find(pageAfter(last, startedAt, batchSize), SubmissionJob.class);
+            for (SubmissionJob job : page) {
+                long enqueuedAt = job.getCreatedAt() != null ? job.getCreatedAt().getTime() : startedAt.getTime();
+                if (scheduler.offer(job.getId(), job.getUserId(), job.getPriority(), job.getTotalTests(), enqueuedAt)) {
+                    offered++;
+                }
+            }
+            seen += page.size();
+            if (page.size() < batchSize) {
+                break;
+            }
+            last = page.get(page.size() - 1);
+        }
+
+        logger.info("submission_queue_rehydrated offered={} seen={} promotedPending={}", offered, seen, promoted);
+        return offered;
+    }
+
+    private static Query pageAfter(SubmissionJob last, Date startedAt, int batchSize) {
+        Criteria criteria = Criteria.where("status").is(SubmissionJob.JobStatus.QUEUED).and("createdAt").lt(startedAt);
+        if (last != null) {
+            criteria = criteria.orOperator(
+                Criteria.where("createdAt").gt(last.getCreatedAt()),
+                Criteria.where("createdAt").is(last.getCreatedAt()).and("id").gt(last.getId()));
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("id").include("userId").include("priority").include("totalTests").include("createdAt");
+        query.with(Sort.by(Sort.Direction.ASC, "createdAt", "id"));
+        query.limit(batchSize);
+        return query;
+    }
+}
@@ -0,0 +1,190 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.QueueProperties;
+import com.coderzclub.model.SubmissionJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which queued job a worker takes next, instead of plain arrival order. Every job gets a
+ * finish tag on a virtual clock that follows wall-clock seconds:
+ *
+ *   tag = max(now, tag of the user's previous job) + cost / weight of the job's priority class
+ *   cost = queue.jobBaseCostSeconds + queue.testCostSeconds * totalTests
+ *
+ * and the job with the smallest tag runs first. Chaining tags per user spreads one user's burst
+ * between everyone else's jobs; the class weight lets interactive and premium jobs through
+ * sooner; a smaller cost moves short jobs ahead. Jobs arriving later never get a tag earlier than
+ * their arrival time, so a waiting job is overtaken by fewer and fewer new ones (aging) and
+ * always runs eventually.
+ */
+@Component
+public class SubmissionScheduler {
+
+    private final QueueProperties properties;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(
+        Comparator.comparingDouble((Entry entry) -> entry.tag).thenComparingLong(entry -> entry.sequence));
+    private final Set<String> queuedIds = new HashSet<>();
+    // Finish tag of each user's last scheduled job, while it is still in the future
+    private final Map<String, Double> userTags = new HashMap<>();
+    private final Map<SubmissionJob.Priority, WaitStats> waits = new EnumMap<>(SubmissionJob.Priority.class);
+    private long sequence;
+
+    @Autowired
+    public SubmissionScheduler(QueueProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    SubmissionScheduler(QueueProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        for (SubmissionJob.Priority priority : SubmissionJob.Priority.values()) {
+            waits.put(priority, new WaitStats());
+        }
+    }
+
+    /**
+     * Queue a job. {@code enqueuedAtMs} is when it entered the queue, used for wait-time metrics.
+     * Returns false if the job is already queued.
+     */
+    public boolean offer(String jobId, String userId, SubmissionJob.Priority priority, Integer totalTests,
+                         long enqueuedAtMs) {
+        SubmissionJob.Priority jobClass = priority != null ? priority : SubmissionJob.Priority.STANDARD;
+        double cost = properties.getJobBaseCostSeconds()
+            + properties.getTestCostSeconds() * (totalTests != null ? Math.max(0, totalTests) : 0);
+        String userKey = userId != null ? userId : "job:" + jobId;
+
+        lock.lock();
+        try {
+            if (!queuedIds.add(jobId)) {
+                return false;
+            }
+            double now = clock.getAsLong() / 1000.0;
+            if (userTags.size() > 1024) {
+                userTags.values().removeIf(tag -> tag <= now);
+            }
+            double tag = Math.max(now, userTags.getOrDefault(userKey, now)) + cost / Math.max(0.01, weight(jobClass));
+            userTags.put(userKey, tag);
+            queue.add(new Entry(jobId, jobClass, enqueuedAtMs, tag, sequence++));
+            waits.get(jobClass).queued++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the job with the earliest finish tag, waiting up to {@code timeout} for one to arrive.
+     */
+    public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = notEmpty.awaitNanos(remainingNanos);
+            }
+            Entry entry = queue.poll();
+            queuedIds.remove(entry.jobId);
+            WaitStats stats = waits.get(entry.priority);
+            stats.queued--;
+            stats.record(Math.max(0, clock.getAsLong() - entry.enqueuedAtMs));
+            return entry.jobId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue length and wait time (enqueue to dispatch) per priority class since startup.
+     */
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            waits.forEach((priority, wait) -> stats.put(priority.name(), wait.snapshot()));
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double weight(SubmissionJob.Priority priority) {
+        return switch (priority) {
+            case INTERACTIVE -> properties.getInteractiveWeight();
+            case PREMIUM -> properties.getPremiumWeight();
+            case STANDARD -> properties.getStandardWeight();
+        };
+    }
+
+    private static final class Entry {
+        private final String jobId;
+        private final SubmissionJob.Priority priority;
+        private final long enqueuedAtMs;
+        private final double tag;
+        private final long sequence;
+
+        private Entry(String jobId, SubmissionJob.Priority priority, long enqueuedAtMs, double tag, long sequence) {
+            this.jobId = jobId;
+            this.priority = priority;
+            this.enqueuedAtMs = enqueuedAtMs;
+            this.tag = tag;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class WaitStats {
+        private int queued;
+        private long dispatched;
+        private long totalWaitMs;
+        private long maxWaitMs;
+        // Exponentially weighted, follows the current wait rather than the all-time average
+        private double recentWaitMs;
+
+        void record(long waitMs) {
+            recentWaitMs = dispatched == 0 ? waitMs : recentWaitMs * 0.9 + waitMs * 0.1;
+            dispatched++;
+            totalWaitMs += waitMs;
+            maxWaitMs = Math.max(maxWaitMs, waitMs);
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("queued", queued);
+            snapshot.put("dispatched", dispatched);
+            snapshot.put("avgWaitMs", dispatched > 0 ? totalWaitMs / dispatched : 0);
+            snapshot.put("recentWaitMs", Math.round(recentWaitMs));
+            snapshot.put("maxWaitMs", maxWaitMs);
+            return snapshot;
+        }
+    }
+}
@@ -1,27 +1,38 @@
 package com.coderzclub.queue;
 
+import com.coderzclub.config.Judge0Properties;
 import com.coderzclub.config.WorkerProperties;
 import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.TestCaseSet;
 import com.coderzclub.repository.SubmissionJobRepository;
-import com.coderzclub.service.Judge0ExecutionService;
+import com.coderzclub.service.ExecutionEngine;
+import com.coderzclub.service.JobLeaseManager;
+import com.coderzclub.service.Judge0CircuitBreaker;
+import com.coderzclub.service.Judge0RateLimiter;
+import com.coderzclub.service.OutputCheckers;
 import com.coderzclub.service.SubmissionJobLeaseService;
 import com.coderzclub.service.SubmissionService;
+import com.coderzclub.service.TestCaseSetService;
+import com.coderzclub.service.TestResultCodec;
+import com.coderzclub.service.WorkerRegistryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class SubmissionWorker {
@@ -29,7 +40,7 @@ public class SubmissionWorker {
     private static final Logger logger = LoggerFactory.getLogger(SubmissionWorker.class);
 
     @Autowired
-    private SubmissionQueuePublisher publisher;
+    private SubmissionQueueConsumer consumer;
 
     @Autowired
     private SubmissionJobRepository jobRepository;
@@ -38,7 +49,10 @@ public class SubmissionWorker {
     private SubmissionJobLeaseService leaseService;
 
     @Autowired
-    private Judge0ExecutionService executionService;
+    private JobLeaseManager leaseManager;
+
+    @Autowired
+    private List<ExecutionEngine> executionEngines;
 
     @Autowired
     private SubmissionService submissionService;
@@ -46,8 +60,36 @@ public class SubmissionWorker {
     @Autowired
     private WorkerProperties workerProperties;
 
+    @Autowired
+    private Judge0Properties judge0Properties;
+
+    // Only with the in-memory queue; the Redis stream outlives restarts
+    @Autowired(required = false)
+    private SubmissionQueueRehydrator queueRehydrator;
+
+    @Autowired
+    private WorkerRegistryService workerRegistryService;
+
+    @Autowired
+    private TestCaseSetService testCaseSetService;
+
+    @Autowired
+    private Judge0RateLimiter judge0RateLimiter;
+
+    @Autowired
+    private Judge0CircuitBreaker judge0CircuitBreaker;
+
+    private ExecutionEngine executionService;
     private ExecutorService executor;
-    private ScheduledExecutorService heartbeatExecutor;
+    private ExecutorService jobExecutor;
+    // Checkpoint writes, off the threads that report test results
+    private ExecutorService checkpointWriter;
+    private ResizableSemaphore jobSlots;
+    private WorkerAutoscaler autoscaler;
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    // Jobs this node runs at once: worker loops (FIXED) or job slots (ELASTIC)
+    private final AtomicInteger workerTarget = new AtomicInteger();
+    private final AtomicInteger workerLoops = new AtomicInteger();
 
     @PostConstruct
     public void startWorkers() {
@@ -56,31 +98,185 @@ public class SubmissionWorker {
             return;
         }
 
-        int concurrency = Math.max(1, workerProperties.getConcurrency());
-        executor = Executors.newFixedThreadPool(concurrency);
-        heartbeatExecutor = Executors.newScheduledThreadPool(Math.max(1, concurrency));
-        for (int i = 0; i < concurrency; i++) {
-            executor.submit(this::runWorkerLoop);
+        executionService = executionEngines.stream()
+            .filter(engine -> engine.getName().equalsIgnoreCase(workerProperties.getEngine()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown execution engine: " + workerProperties.getEngine()
+                + " (available: " + executionEngines.stream().map(ExecutionEngine::getName).toList()
+                + "; the local engine requires the dev profile)"));
+
+        try {
+            // Before any loop claims a job under this node id
+            workerRegistryService.register();
+        } catch (Exception e) {
+            // The first heartbeat retries; it only touches jobs claimed before this node started
+            logger.error("Failed to requeue the jobs of this node's previous run", e);
+        }
+
+        if (queueRehydrator != null) {
+            try {
+                queueRehydrator.rehydrate();
+            } catch (Exception e) {
+                // Start anyway; new submissions still flow and the waiting jobs are picked up on the next restart
+                logger.error("Failed to rehydrate the submission queue", e);
+            }
+        }
+
+        checkpointWriter = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "job-checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (workerProperties.isAutoscaleEnabled()) {
+            autoscaler = new WorkerAutoscaler(workerProperties, judge0Properties, judge0RateLimiter.getThrottledCount(),
+                judge0RateLimiter.getSucceededCount());
         }
-        logger.info("Started submission worker fleet with concurrency={}", concurrency);
+
+        if (workerProperties.getThreadModel() == WorkerProperties.ThreadModel.ELASTIC) {
+            int maxJobs = initialWorkers(workerProperties.getMaxJobsInFlight());
+            jobSlots = new ResizableSemaphore(0);
+            jobExecutor = Executors.newCachedThreadPool(jobThreadFactory());
+            executor = Executors.newSingleThreadExecutor();
+            resizeWorkers(maxJobs);
+            executor.submit(this::runDispatcherLoop);
+            logger.info("Started elastic submission worker with maxJobsInFlight={} engine={}", maxJobs, executionService.getName());
+            return;
+        }
+
+        int concurrency = initialWorkers(workerProperties.getConcurrency());
+        // Worker loops come and go with the autoscaler
+        executor = Executors.newCachedThreadPool();
+        resizeWorkers(concurrency);
+        logger.info("Started submission worker fleet with concurrency={} engine={}", concurrency, executionService.getName());
     }
 
-    @Async
-    public void runWorkerLoop() {
-        if (!(publisher instanceof InMemorySubmissionQueuePublisher)) {
-            logger.warn("Only in-memory submission queue publisher is supported by this worker implementation");
+    /**
+     * Resize the worker pool for the current queue depth and judge load; see {@link WorkerAutoscaler}.
+     */
+    @Scheduled(fixedDelayString = "${worker.autoscaleIntervalMs:5000}")
+    public void autoscale() {
+        if (autoscaler == null || !workerProperties.isAutoscaleEnabled()) {
             return;
         }
+        try {
+            long queued = jobRepository.countByStatus(SubmissionJob.JobStatus.QUEUED);
+            // Every active node sees the same queue; size for this node's share of it
+            int nodes = Math.max(1, workerRegistryService.listActiveNodes().size());
+            int target = autoscaler.decide(workerTarget.get(), activeJobs.get(), (queued + nodes - 1) / nodes,
+                leaseManager.getAverageJobMillis(), judge0RateLimiter.getCurrentRate(),
+                judge0CircuitBreaker.getAverageCallMillis(), judge0RateLimiter.getThrottledCount(),
+                judge0RateLimiter.getSucceededCount());
+            resizeWorkers(target);
+        } catch (Exception e) {
+            logger.warn("worker_autoscale_failed error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * Change the autoscaler bounds at runtime; the pool is moved into the new bounds right away.
+     */
+    public void setAutoscaleBounds(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Autoscale bounds must satisfy 1 <= min <= max");
+        }
+        workerProperties.setAutoscaleMin(min);
+        workerProperties.setAutoscaleMax(max);
+        if (autoscaler != null) {
+            resizeWorkers(Math.max(min, Math.min(max, workerTarget.get())));
+        }
+    }
+
+    public Map<String, Object> getAutoscalerStats() {
+        if (autoscaler == null) {
+            return Map.of("enabled", false, "workers", workerTarget.get());
+        }
+        return autoscaler.getStats(workerTarget.get());
+    }
+
+    private int initialWorkers(int configured) {
+        int workers = Math.max(1, configured);
+        if (workerProperties.isAutoscaleEnabled()) {
+            workers = Math.max(workerProperties.getAutoscaleMin(), Math.min(workerProperties.getAutoscaleMax(), workers));
+        }
+        return Math.max(1, workers);
+    }
+
+    /**
+     * Set the number of jobs run at once. Extra FIXED loops are started now; surplus loops stop
+     * after their current job. ELASTIC slots are added or withdrawn, taking effect as jobs finish.
+     */
+    private synchronized void resizeWorkers(int target) {
+        int previous = workerTarget.getAndSet(target);
+        if (target == previous) {
+            return;
+        }
+        if (jobSlots != null) {
+            if (target > previous) {
+                jobSlots.release(target - previous);
+            } else {
+                jobSlots.reduce(previous - target);
+            }
+        } else {
+            while (workerLoops.get() < target) {
+                workerLoops.incrementAndGet();
+                executor.submit(this::runWorkerLoop);
+            }
+        }
+        workerRegistryService.reportCapacity(target);
+    }
+
+    /**
+     * Called by a FIXED worker loop between jobs: true if the loop should stop because the pool shrank.
+     */
+    private boolean retireIfOverTarget() {
+        while (true) {
+            int loops = workerLoops.get();
+            if (loops <= workerTarget.get()) {
+                return false;
+            }
+            if (workerLoops.compareAndSet(loops, loops - 1)) {
+                return true;
+            }
+        }
+    }
 
-        InMemorySubmissionQueuePublisher inMemoryPublisher = (InMemorySubmissionQueuePublisher) publisher;
+    @Async
+    public void runWorkerLoop() {
+        boolean retired = false;
+        try {
+            retired = runWorkerIterations();
+        } finally {
+            if (!retired) {
+                workerLoops.decrementAndGet();
+            }
+        }
+    }
 
-        while (workerProperties.isEnabled()) {
+    /**
+     * Claim and run jobs one at a time; true if the loop stopped because the pool shrank.
+     */
+    private boolean runWorkerIterations() {
+        while (workerProperties.isEnabled() && !Thread.currentThread().isInterrupted()) {
+            if (retireIfOverTarget()) {
+                return true;
+            }
             try {
-                String jobId = inMemoryPublisher.getQueue().poll(workerProperties.getPollTimeoutSeconds(), TimeUnit.SECONDS);
+                if (!executionService.isAvailable()) {
+                    // Leave jobs queued rather than claiming leases we cannot make progress on
+                    logger.debug("Execution engine {} unavailable; pausing job claims", executionService.getName());
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(Math.max(1, workerProperties.getPollTimeoutSeconds())));
+                    continue;
+                }
+                String jobId = consumer.consumeJob(workerProperties.getPollTimeoutSeconds());
                 if (jobId == null) {
                     continue;
                 }
-                processJob(jobId);
+                try {
+                    processJob(jobId);
+                } finally {
+                    consumer.acknowledge(jobId);
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 logger.warn("Submission worker interrupted", e);
@@ -89,34 +285,143 @@ public class SubmissionWorker {
                 logger.error("Unexpected error in submission worker loop", e);
             }
         }
+        return false;
+    }
+
+    /**
+     * ELASTIC thread model: claim jobs while a slot is free and run each on its own thread. Job
+     * threads spend nearly all their time blocked on judge I/O, so the slot count, not the thread
+     * count, is what is sized to judge capacity.
+     */
+    private void runDispatcherLoop() {
+        while (workerProperties.isEnabled() && !Thread.currentThread().isInterrupted()) {
+            boolean slotHeld = false;
+            try {
+                if (!executionService.isAvailable()) {
+                    logger.debug("Execution engine {} unavailable; pausing job claims", executionService.getName());
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(Math.max(1, workerProperties.getPollTimeoutSeconds())));
+                    continue;
+                }
+                // Stop consuming while the node is at capacity so other nodes pick the jobs up
+                if (!jobSlots.tryAcquire(workerProperties.getPollTimeoutSeconds(), TimeUnit.SECONDS)) {
+                    continue;
+                }
+                slotHeld = true;
+                String jobId = consumer.consumeJob(workerProperties.getPollTimeoutSeconds());
+                if (jobId == null) {
+                    continue;
+                }
+                jobExecutor.execute(() -> {
+                    try {
+                        processJob(jobId);
+                    } finally {
+                        consumer.acknowledge(jobId);
+                        jobSlots.release();
+                    }
+                });
+                slotHeld = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Submission dispatcher interrupted", e);
+                break;
+            } catch (Exception e) {
+                logger.error("Unexpected error in submission dispatcher loop", e);
+            } finally {
+                if (slotHeld) {
+                    jobSlots.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Daemon job threads with a reduced stack: hundreds of jobs blocked on judge I/O stay cheap.
+     */
+    private ThreadFactory jobThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        long stackBytes = Math.max(64, workerProperties.getJobThreadStackKb()) * 1024L;
+        return runnable -> {
+            Thread thread = new Thread(null, runnable, "submission-job-" + counter.incrementAndGet(), stackBytes);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Semaphore whose permit count can be lowered while permits are held; releases by running jobs
+     * then settle it at the new size.
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        private ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        void reduce(int permits) {
+            reducePermits(permits);
+        }
+    }
+
+    /**
+     * Jobs this node is currently executing.
+     */
+    public int getJobsInFlight() {
+        return activeJobs.get();
     }
 
     private void processJob(String jobId) {
-        String workerId = UUID.randomUUID().toString();
+        activeJobs.incrementAndGet();
+        try {
+            runJob(jobId);
+        } finally {
+            activeJobs.decrementAndGet();
+        }
+    }
+
+    private void runJob(String jobId) {
+        String workerId = leaseManager.getWorkerId();
         Optional<SubmissionJob> jobOpt = leaseService.claimJob(jobId, workerId, workerProperties.getLeaseDurationSeconds());
         if (jobOpt.isEmpty()) {
             return;
         }
 
         SubmissionJob job = jobOpt.get();
-        long heartbeatInterval = Math.max(1, workerProperties.getLeaseDurationSeconds() / 2);
-        ScheduledFuture<?> heartbeatTask = heartbeatExecutor.scheduleAtFixedRate(
-            () -> leaseService.heartbeat(jobId, workerId, workerProperties.getLeaseDurationSeconds()),
-            heartbeatInterval,
-            heartbeatInterval,
-            TimeUnit.SECONDS
-        );
+        // Interrupt judge I/O if the lease is lost: another worker now owns the job
+        Thread jobThread = Thread.currentThread();
+        JobLeaseManager.Lease lease = leaseManager.track(jobId, jobThread::interrupt);
+        JobCheckpoint checkpoint = JobCheckpoint.resumeFrom(job, workerId, leaseService,
+            workerProperties.getCheckpointIntervalMs(), checkpointWriter);
 
-        logger.info("Worker claimed job {} userId={} problemId={} attempt={} totalTests={} lockedBy={}",
-            jobId, job.getUserId(), job.getProblemId(), job.getAttemptCount(), job.getTotalTests(), workerId);
+        logger.info("Worker claimed job {} userId={} problemId={} attempt={} totalTests={} resumedTests={} lockedBy={}",
+            jobId, job.getUserId(), job.getProblemId(), job.getAttemptCount(), job.getTotalTests(),
+            checkpoint.getRestoredCount(), workerId);
 
+        boolean testSetAcquired = false;
         try {
-            List<SubmissionJob.TestResult> results = executionService.executeTestCases(
-                job.getCode(),
-                job.getLanguageId(),
-                job.getPublicTestCases(),
-                job.getHiddenTestCases()
-            );
+            TestCaseSet testSet = testCasesOf(job);
+            testSetAcquired = job.getTestSetId() != null;
+            List<SubmissionJob.TestCase> publicTestCases = checkpoint.remainingPublic(testSet);
+            List<SubmissionJob.TestCase> hiddenTestCases = checkpoint.remainingHidden(testSet);
+            List<SubmissionJob.TestResult> results = checkpoint.merge(publicTestCases.isEmpty() && hiddenTestCases.isEmpty()
+                ? List.of()
+                : executionService.executeTestCases(
+                    job.getCode(),
+                    job.getLanguageId(),
+                    publicTestCases,
+                    hiddenTestCases,
+                    OutputCheckers.forName(job.getChecker(), job.getCheckerEpsilon()),
+                    checkpoint
+                ));
+            if (lease.isLost()) {
+                logger.warn("Job {} lease lost during execution; discarding results", jobId);
+                return;
+            }
+            for (int i = 0; i < results.size(); i++) {
+                if (SubmissionJob.TestResult.EXECUTION_ERROR.equals(results.get(i).getErrorType())) {
+                    // A judge fault is not a verdict: retry from the last checkpoint instead of judging it
+                    throw new IllegalStateException("Judge failed to run test " + (i + 1) + ": "
+                        + results.get(i).getErrorMessage());
+                }
+            }
 
             String finalResult = analyzeResults(results);
             Long maxRuntime = results.stream()
@@ -138,7 +443,11 @@ public class SubmissionWorker {
             job.setHeartbeatAt(null);
             job.setNextRetryAt(null);
             job.setLastError(null);
-            jobRepository.save(job);
+            TestResultCodec.compact(job, workerProperties.getResultDetailFailures());
+            if (!leaseService.finishJob(job, workerId)) {
+                // Re-leased by another attempt, which owns the outcome and the submission
+                return;
+            }
 
             submissionService.createSubmissionFromJob(job);
 
@@ -148,7 +457,15 @@ public class SubmissionWorker {
                 maxRuntime, maxMemory, job.getAttemptCount());
 
         } catch (Exception e) {
+            if (lease.isLost()) {
+                logger.warn("Job {} lease lost during execution; leaving it to its new owner", jobId);
+                return;
+            }
             logger.error("Job {} failed during execution", jobId, e);
+            // Keep the finished tests so the next attempt resumes after them
+            List<SubmissionJob.TestResult> finished = checkpoint.finishedResults();
+            job.setTestResults(finished);
+            job.setCompletedTests(finished.size());
             job.setLastError(e.getMessage());
             job.setLockedBy(null);
             job.setLockedUntil(null);
@@ -157,21 +474,43 @@ public class SubmissionWorker {
                 job.setStatus(SubmissionJob.JobStatus.RETRYING);
                 Date nextRetryAt = new Date(System.currentTimeMillis() + workerProperties.getRetryDelaySeconds() * 1000);
                 job.setNextRetryAt(nextRetryAt);
-                jobRepository.save(job);
-                logger.info("Job {} will retry at {} (attempt {}/{})", jobId, nextRetryAt, job.getAttemptCount(), job.getMaxAttempts());
+                if (leaseService.finishJob(job, workerId)) {
+                    logger.info("Job {} will retry at {} (attempt {}/{})", jobId, nextRetryAt, job.getAttemptCount(), job.getMaxAttempts());
+                }
             } else {
                 job.setStatus(SubmissionJob.JobStatus.FAILED);
                 job.setCompletedAt(new Date());
-                jobRepository.save(job);
-                logger.info("Job {} permanently failed after {} attempts", jobId, job.getAttemptCount());
+                TestResultCodec.compact(job, workerProperties.getResultDetailFailures());
+                if (leaseService.finishJob(job, workerId)) {
+                    logger.info("Job {} permanently failed after {} attempts", jobId, job.getAttemptCount());
+                }
             }
         } finally {
-            if (heartbeatTask != null) {
-                heartbeatTask.cancel(true);
+            if (testSetAcquired) {
+                testCaseSetService.release(job.getTestSetId());
+            }
+            leaseManager.release(lease);
+            if (lease.isLost()) {
+                // Clear the interrupt meant for this job before the thread takes the next one
+                Thread.interrupted();
             }
         }
     }
 
+    /**
+     * The job's test cases: its shared set through the node-local cache, acquired until the job
+     * is done with it, or the copy embedded in jobs created before test case sets.
+     */
+    private TestCaseSet testCasesOf(SubmissionJob job) {
+        if (job.getTestSetId() != null) {
+            return testCaseSetService.acquire(job.getTestSetId());
+        }
+        TestCaseSet embedded = new TestCaseSet();
+        embedded.setPublicTestCases(job.getPublicTestCases());
+        embedded.setHiddenTestCases(job.getHiddenTestCases());
+        return embedded;
+    }
+
     private String analyzeResults(List<SubmissionJob.TestResult> results) {
         boolean allPassed = results.stream().allMatch(SubmissionJob.TestResult::isPassed);
         if (allPassed) {
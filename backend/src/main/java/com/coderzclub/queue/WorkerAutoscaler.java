@@ -0,0 +1,124 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.config.WorkerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks how many jobs this node should run at once, between {@code worker.autoscaleMin} and
+ * {@code worker.autoscaleMax}. Both limits come from Little's law (jobs in the system = rate *
+ * time per job):
+ *
+ *   demand    = jobs running + this node's share of the queue * job time / autoscaleDrainSeconds
+ *   judge cap = judge rate * judge call latency / judge calls in flight per job
+ *
+ * Demand is what drains the backlog within the drain time; the judge cap is how many jobs keep
+ * the judge's sustainable request rate busy, beyond which extra workers only wait on the rate
+ * limiter. A job has {@code maxInFlightPerJob} calls in flight in PARALLEL mode and one in
+ * SEQUENTIAL and BATCH modes, where a batch submit or poll is a single call. Throttled (429) judge calls since the last decision shrink the pool by a quarter.
+ * Shrinking for lack of demand closes half the gap per decision, so a short lull does not drop
+ * workers just before the next burst.
+ */
+final class WorkerAutoscaler {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerAutoscaler.class);
+    private static final int HISTORY = 20;
+
+    private final WorkerProperties properties;
+    private final Judge0Properties judge0Properties;
+    private final Deque<Map<String, Object>> decisions = new ArrayDeque<>();
+    private long lastThrottled;
+    private long lastSucceeded;
+    private long resizes;
+
+    WorkerAutoscaler(WorkerProperties properties, Judge0Properties judge0Properties, long throttled, long succeeded) {
+        this.properties = properties;
+        this.judge0Properties = judge0Properties;
+        this.lastThrottled = throttled;
+        this.lastSucceeded = succeeded;
+    }
+
+    /**
+     * Target worker count for the current load. {@code throttled} and {@code succeeded} are the
+     * running totals of judge calls; only the change since the previous decision counts.
+     */
+    synchronized int decide(int current, int inFlight, long queued, long avgJobMs,
+                            double judgeRatePerSecond, long judgeCallMs, long throttled, long succeeded) {
+        long throttledCalls = Math.max(0, throttled - lastThrottled);
+        long calls = throttledCalls + Math.max(0, succeeded - lastSucceeded);
+        lastThrottled = throttled;
+        lastSucceeded = succeeded;
+        double throttleRate = calls > 0 ? (double) throttledCalls / calls : 0;
+
+        double jobSeconds = avgJobMs > 0 ? avgJobMs / 1000.0 : 1.0;
+        int target = inFlight + (int) Math.ceil(queued * jobSeconds / Math.max(1, properties.getAutoscaleDrainSeconds()));
+        String reason = "queue_depth";
+        if (target < current) {
+            target = current - Math.max(1, (current - target) / 2);
+            reason = "idle";
+        }
+        if (judgeRatePerSecond > 0 && judgeCallMs > 0) {
+            int judgeCap = (int) Math.ceil(judgeRatePerSecond * judgeCallMs / 1000.0 / callsInFlightPerJob());
+            if (target > judgeCap) {
+                target = judgeCap;
+                reason = "judge_capacity";
+            }
+        }
+        if (throttleRate > properties.getAutoscaleMaxThrottleRate()) {
+            target = Math.min(target, current - Math.max(1, current / 4));
+            reason = "judge_throttled";
+        }
+        int min = Math.max(1, properties.getAutoscaleMin());
+        target = Math.max(min, Math.min(Math.max(min, properties.getAutoscaleMax()), target));
+
+        if (target != current) {
+            resizes++;
+            Map<String, Object> decision = new LinkedHashMap<>();
+            decision.put("at", new Date());
+            decision.put("from", current);
+            decision.put("to", target);
+            decision.put("reason", reason);
+            decision.put("inFlight", inFlight);
+            decision.put("queued", queued);
+            decision.put("avgJobMs", avgJobMs);
+            decision.put("judgeRatePerSecond", judgeRatePerSecond);
+            decision.put("judgeCallMs", judgeCallMs);
+            decision.put("throttleRate", throttleRate);
+            if (decisions.size() == HISTORY) {
+                decisions.removeFirst();
+            }
+            decisions.addLast(decision);
+            logger.info("worker_autoscale from={} to={} reason={} inFlight={} queued={} avgJobMs={} judgeRatePerSec={} judgeCallMs={} throttleRate={}",
+                current, target, reason, inFlight, queued, avgJobMs, String.format("%.2f", judgeRatePerSecond),
+                judgeCallMs, String.format("%.3f", throttleRate));
+        }
+        return target;
+    }
+
+    private int callsInFlightPerJob() {
+        return judge0Properties.getMode() == Judge0Properties.Mode.PARALLEL
+            ? Math.max(1, properties.getMaxInFlightPerJob())
+            : 1;
+    }
+
+    synchronized Map<String, Object> getStats(int current) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isAutoscaleEnabled());
+        stats.put("workers", current);
+        stats.put("min", properties.getAutoscaleMin());
+        stats.put("max", properties.getAutoscaleMax());
+        stats.put("resizes", resizes);
+        List<Map<String, Object>> recent = new ArrayList<>(decisions);
+        stats.put("recentDecisions", recent);
+        return stats;
+    }
+}
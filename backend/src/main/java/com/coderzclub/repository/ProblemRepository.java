@@ -7,6 +7,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProblemRepository extends MongoRepository<Problem, String> {
@@ -41,4 +42,9 @@ public interface ProblemRepository extends MongoRepository<Problem, String> {
            "?3 == null || { 'tags': { $in: ?3 } } " +
            "] }")
     List<Problem> findAllWithFilters(String difficulty, String category, String search, List<String> tags);
-} 
\ No newline at end of file
+
+    // What a submission needs: the published test set and the checker, without the problem's text and tests
+    @Query(value = "{ '_id': ?0 }",
+           fields = "{ 'testSetId': 1, 'publicTestCount': 1, 'hiddenTestCount': 1, 'checker': 1, 'checkerEpsilon': 1 }")
+    Optional<Problem> findSubmissionFieldsById(String id);
+}
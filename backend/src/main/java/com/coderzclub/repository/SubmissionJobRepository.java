@@ -1,6 +1,7 @@
 package com.coderzclub.repository;
 
 import com.coderzclub.model.SubmissionJob;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,6 +15,9 @@ public interface SubmissionJobRepository extends MongoRepository<SubmissionJob,
     // Find jobs by user
     List<SubmissionJob> findByUserIdOrderByCreatedAtDesc(String userId);
 
+    // Find a user's jobs not yet copied to the archive
+    List<SubmissionJob> findByUserIdAndArchivedAtIsNullOrderByCreatedAtDesc(String userId, Pageable pageable);
+
     // Find jobs by problem
     List<SubmissionJob> findByProblemIdOrderByCreatedAtDesc(String problemId);
 
@@ -29,6 +33,9 @@ public interface SubmissionJobRepository extends MongoRepository<SubmissionJob,
     // Count jobs by status
     long countByStatus(SubmissionJob.JobStatus status);
 
+    // Count jobs by status, leaving out those already counted in the archive
+    long countByStatusAndArchivedAtIsNull(SubmissionJob.JobStatus status);
+
     // Count jobs by user and status
     long countByUserIdAndStatus(String userId, SubmissionJob.JobStatus status);
 
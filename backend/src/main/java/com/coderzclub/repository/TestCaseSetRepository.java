@@ -0,0 +1,9 @@
+package com.coderzclub.repository;
+
+import com.coderzclub.model.TestCaseSet;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TestCaseSetRepository extends MongoRepository<TestCaseSet, String> {
+}
@@ -0,0 +1,15 @@
+package com.coderzclub.repository;
+
+import com.coderzclub.model.WorkerNode;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WorkerNodeRepository extends MongoRepository<WorkerNode, String> {
+
+    List<WorkerNode> findAllByOrderByLastHeartbeatAtDesc();
+
+    List<WorkerNode> findByStatus(WorkerNode.NodeStatus status);
+}
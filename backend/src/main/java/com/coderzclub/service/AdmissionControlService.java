@@ -0,0 +1,128 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.AdmissionProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.WorkerNode;
+import com.coderzclub.repository.SubmissionJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a new submission job is accepted, from its expected queue wait:
+ *
+ *   wait = queued jobs * recent time per job / worker slots
+ *
+ * with queue depth from MongoDB and slots and per-job times from the worker registry heartbeats.
+ * Jobs whose expected wait is above {@code admission.sloSeconds} are rejected rather than left to
+ * time out in the queue. The load figures are cached for {@code admission.refreshMs}; jobs
+ * admitted in between are added to the cached depth so a spike is seen before the next read.
+ */
+@Service
+public class AdmissionControlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+
+    @Autowired
+    private SubmissionJobRepository jobRepository;
+
+    @Autowired
+    private WorkerRegistryService workerRegistryService;
+
+    @Autowired
+    private AdmissionProperties admissionProperties;
+
+    private volatile Load load;
+
+    public AdmissionDecision tryAdmit() {
+        Load current = currentLoad();
+        long waitSeconds = current.estimatedWaitSeconds();
+        if (admissionProperties.isEnabled() && waitSeconds > admissionProperties.getSloSeconds()) {
+            // Roughly when the backlog will be back under the SLO
+            long retryAfter = Math.min(admissionProperties.getMaxRetryAfterSeconds(),
+                Math.max(1, waitSeconds - admissionProperties.getSloSeconds()));
+            logger.warn("submission_admission_rejected estimatedWaitSeconds={} sloSeconds={} queued={} capacity={} avgJobMs={}",
+                waitSeconds, admissionProperties.getSloSeconds(), current.queued.get(), current.capacity, current.avgJobMs);
+            return AdmissionDecision.rejected(waitSeconds, retryAfter);
+        }
+        current.queued.incrementAndGet();
+        return AdmissionDecision.admitted(waitSeconds);
+    }
+
+    /**
+     * Take back a job admitted by {@link #tryAdmit} that was not queued after all.
+     */
+    public void release() {
+        Load current = load;
+        if (current != null) {
+            current.queued.updateAndGet(queued -> Math.max(0, queued - 1));
+        }
+    }
+
+    private Load currentLoad() {
+        Load current = load;
+        if (current != null && System.currentTimeMillis() - current.readAtMs < admissionProperties.getRefreshMs()) {
+            return current;
+        }
+        synchronized (this) {
+            current = load;
+            if (current != null && System.currentTimeMillis() - current.readAtMs < admissionProperties.getRefreshMs()) {
+                return current;
+            }
+            try {
+                current = readLoad();
+            } catch (Exception e) {
+                // Fail open: without load figures admission falls back to the last known, or an empty queue
+                logger.warn("submission_admission_load_unavailable error={}", e.getMessage());
+                current = current != null
+                    ? new Load(current.queued.get(), current.capacity, current.avgJobMs)
+                    : new Load(0, workerRegistryService.capacity(), admissionProperties.getDefaultJobSeconds() * 1000);
+            }
+            load = current;
+            return current;
+        }
+    }
+
+    private Load readLoad() {
+        long queued = jobRepository.countByStatus(SubmissionJob.JobStatus.QUEUED)
+            + jobRepository.countByStatus(SubmissionJob.JobStatus.RETRYING);
+        int capacity = 0;
+        int measuredCapacity = 0;
+        double weightedJobMs = 0;
+        for (WorkerNode node : workerRegistryService.listActiveNodes()) {
+            capacity += node.getCapacity();
+            if (node.getAvgJobMs() > 0) {
+                weightedJobMs += (double) node.getAvgJobMs() * node.getCapacity();
+                measuredCapacity += node.getCapacity();
+            }
+        }
+        if (capacity <= 0) {
+            // No worker registered yet: assume this node's own slots
+            capacity = workerRegistryService.capacity();
+        }
+        long avgJobMs = measuredCapacity > 0
+            ? Math.round(weightedJobMs / measuredCapacity)
+            : admissionProperties.getDefaultJobSeconds() * 1000;
+        return new Load(queued, capacity, avgJobMs);
+    }
+
+    private static final class Load {
+        private final AtomicLong queued;
+        private final int capacity;
+        private final long avgJobMs;
+        private final long readAtMs = System.currentTimeMillis();
+
+        private Load(long queued, int capacity, long avgJobMs) {
+            this.queued = new AtomicLong(queued);
+            this.capacity = Math.max(1, capacity);
+            this.avgJobMs = avgJobMs;
+        }
+
+        long estimatedWaitSeconds() {
+            return (long) Math.ceil(queued.get() * (double) avgJobMs / capacity / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.coderzclub.service;
+
+public class AdmissionDecision {
+    private final boolean admitted;
+    private final long estimatedWaitSeconds;
+    private final long retryAfterSeconds;
+
+    private AdmissionDecision(boolean admitted, long estimatedWaitSeconds, long retryAfterSeconds) {
+        this.admitted = admitted;
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public static AdmissionDecision admitted(long estimatedWaitSeconds) {
+        return new AdmissionDecision(true, estimatedWaitSeconds, 0);
+    }
+
+    public static AdmissionDecision rejected(long estimatedWaitSeconds, long retryAfterSeconds) {
+        return new AdmissionDecision(false, estimatedWaitSeconds, retryAfterSeconds);
+    }
+
+    public boolean isAdmitted() {
+        return admitted;
+    }
+
+    public long getEstimatedWaitSeconds() {
+        return estimatedWaitSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,88 @@
+package com.coderzclub.service;
+
+import com.coderzclub.model.SubmissionJob;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Backend that compiles and runs submitted code against a job's test cases.
+ * The active engine is selected with {@code worker.engine}.
+ */
+public interface ExecutionEngine {
+
+    /**
+     * Engine name used by {@code worker.engine}, e.g. "judge0" or "local".
+     */
+    String getName();
+
+    /**
+     * Whether the engine can take work right now. Workers stop claiming jobs while this is false.
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Execute all test cases for a submission. Results are returned with public test cases
+     * first, then hidden ones, in their original order. Outputs are judged with {@code checker}.
+     * Each result is also passed to {@code listener} as soon as it is known.
+     */
+    List<SubmissionJob.TestResult> executeTestCases(String code, Integer languageId,
+                                                    List<SubmissionJob.TestCase> publicTestCases,
+                                                    List<SubmissionJob.TestCase> hiddenTestCases,
+                                                    OutputChecker checker,
+                                                    ResultListener listener);
+
+    /**
+     * Execute all test cases for a submission, judging outputs with {@code checker}.
+     */
+    default List<SubmissionJob.TestResult> executeTestCases(String code, Integer languageId,
+                                                            List<SubmissionJob.TestCase> publicTestCases,
+                                                            List<SubmissionJob.TestCase> hiddenTestCases,
+                                                            OutputChecker checker) {
+        return executeTestCases(code, languageId, publicTestCases, hiddenTestCases, checker, ResultListener.NONE);
+    }
+
+    /**
+     * Execute all test cases, judging outputs with the exact checker.
+     */
+    default List<SubmissionJob.TestResult> executeTestCases(String code, Integer languageId,
+                                                            List<SubmissionJob.TestCase> publicTestCases,
+                                                            List<SubmissionJob.TestCase> hiddenTestCases) {
+        return executeTestCases(code, languageId, publicTestCases, hiddenTestCases, OutputCheckers.exact());
+    }
+
+    /**
+     * Public test cases followed by hidden ones, as a read-only view: test sets from
+     * {@link TestDataStore} load each test on access, and copying them into one list would load
+     * them all.
+     */
+    static List<SubmissionJob.TestCase> inOrder(List<SubmissionJob.TestCase> publicTestCases,
+                                                List<SubmissionJob.TestCase> hiddenTestCases) {
+        List<SubmissionJob.TestCase> first = publicTestCases != null ? publicTestCases : List.of();
+        List<SubmissionJob.TestCase> second = hiddenTestCases != null ? hiddenTestCases : List.of();
+        return new AbstractList<>() {
+            @Override
+            public SubmissionJob.TestCase get(int index) {
+                return index < first.size() ? first.get(index) : second.get(index - first.size());
+            }
+
+            @Override
+            public int size() {
+                return first.size() + second.size();
+            }
+        };
+    }
+
+    /**
+     * Receives test results while a job runs. {@code index} is the test's position in the returned
+     * list. Engines may call it from several threads and out of order.
+     */
+    @FunctionalInterface
+    interface ResultListener {
+        ResultListener NONE = (index, result) -> { };
+
+        void onResult(int index, SubmissionJob.TestResult result);
+    }
+}
@@ -0,0 +1,207 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.model.SubmissionJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of per-test execution results, so byte-identical resubmissions do not
+ * run again on the judge.
+ *
+ * Keys hash the language, the normalized source, the test case (input and expected output) and
+ * the execution limits and output checker. Entries live in an in-process LRU with a TTL and, when
+ * {@code judge0.resultCacheRedisEnabled} is set, in Redis as a shared second tier.
+ * Only deterministic verdicts are cached: timeouts and judge/transport errors are not.
+ */
+@Component
+public class ExecutionResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionResultCache.class);
+
+    private static final String REDIS_KEY_PREFIX = "judge0:result:";
+
+    // errorTypes that are a pure function of code and input; null means passed or wrong answer
+    private static final Set<String> CACHEABLE_ERROR_TYPES = Set.of("Compilation Error", "Runtime Error");
+
+    @Autowired
+    private Judge0Properties judge0Properties;
+
+    @Autowired(required = false)
+    private StringRedisTemplate redis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final Map<String, Entry> local = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > judge0Properties.getResultCacheMaxEntries();
+        }
+    };
+
+    public boolean isEnabled() {
+        return judge0Properties.isResultCacheEnabled();
+    }
+
+    /**
+     * Cache key for one test case of a submission, judged with {@code checker}.
+     */
+    public String key(Integer languageId, String code, SubmissionJob.TestCase testCase, String limits,
+                      OutputChecker checker) {
+        MessageDigest digest = sha256();
+        update(digest, String.valueOf(languageId));
+        update(digest, normalizeSource(code));
+        update(digest, testCase.getInput());
+        update(digest, testCase.getExpectedOutput());
+        update(digest, limits);
+        update(digest, checker != null ? checker.getName() : null);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Cached result for {@code key}, or null. Each hit returns a fresh copy.
+     */
+    public SubmissionJob.TestResult get(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (local) {
+            entry = local.get(key);
+            if (entry != null && entry.expiresAtMs <= now) {
+                local.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null && isRedisEnabled()) {
+            entry = getFromRedis(key, now);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(entry.result);
+    }
+
+    public void put(String key, SubmissionJob.TestResult result) {
+        if (!isCacheable(result)) {
+            return;
+        }
+        long ttlMs = judge0Properties.getResultCacheTtlSeconds() * 1000L;
+        Entry entry = new Entry(copy(result), System.currentTimeMillis() + ttlMs);
+        synchronized (local) {
+            local.put(key, entry);
+        }
+        if (isRedisEnabled()) {
+            try {
+                redis.opsForValue().set(REDIS_KEY_PREFIX + key, objectMapper.writeValueAsString(entry.result),
+                    Duration.ofMillis(ttlMs));
+            } catch (Exception e) {
+                logger.debug("Result cache Redis write failed key={} error={}", key, e.getMessage());
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    static boolean isCacheable(SubmissionJob.TestResult result) {
+        return result != null && !result.isNotRun()
+            && (result.getErrorType() == null || CACHEABLE_ERROR_TYPES.contains(result.getErrorType()));
+    }
+
+    /**
+     * Line endings and trailing whitespace at the end of the file do not change what is judged.
+     */
+    static String normalizeSource(String code) {
+        if (code == null) {
+            return "";
+        }
+        return code.replace("\r\n", "\n").replace('\r', '\n').stripTrailing();
+    }
+
+    private boolean isRedisEnabled() {
+        return redis != null && judge0Properties.isResultCacheRedisEnabled();
+    }
+
+    private Entry getFromRedis(String key, long now) {
+        try {
+            String json = redis.opsForValue().get(REDIS_KEY_PREFIX + key);
+            if (json == null) {
+                return null;
+            }
+            Entry entry = new Entry(objectMapper.readValue(json, SubmissionJob.TestResult.class),
+                now + judge0Properties.getResultCacheTtlSeconds() * 1000L);
+            synchronized (local) {
+                local.put(key, entry);
+            }
+            return entry;
+        } catch (Exception e) {
+            logger.debug("Result cache Redis read failed key={} error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static SubmissionJob.TestResult copy(SubmissionJob.TestResult source) {
+        // Test data is not cached; engines identify the result for the test it is used for
+        SubmissionJob.TestResult copy = new SubmissionJob.TestResult();
+        copy.setActualOutput(source.getActualOutput());
+        copy.setPassed(source.isPassed());
+        copy.setRuntime(source.getRuntime());
+        copy.setMemory(source.getMemory());
+        copy.setErrorType(source.getErrorType());
+        copy.setErrorMessage(source.getErrorMessage());
+        if (source.getExecutionDetails() != null) {
+            copy.setExecutionDetails(new HashMap<>(source.getExecutionDetails()));
+        }
+        return copy;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Length-prefixed so that ("ab", "c") and ("a", "bc") hash differently
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        digest.update(Integer.toString(value != null ? bytes.length : -1).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static final class Entry {
+        private final SubmissionJob.TestResult result;
+        private final long expiresAtMs;
+
+        private Entry(SubmissionJob.TestResult result, long expiresAtMs) {
+            this.result = result;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
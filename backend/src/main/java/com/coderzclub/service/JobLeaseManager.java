@@ -0,0 +1,161 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the leases of every job this node is running alive with one batched renewal per tick, so
+ * heartbeat writes stay flat however many jobs are in flight. Jobs are claimed under the node's
+ * {@link #getWorkerId() worker id}; a job whose lease could not be renewed is told through its
+ * {@link Lease} so it can abort instead of racing the node that took it over.
+ */
+@Component
+public class JobLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseManager.class);
+
+    @Autowired
+    private SubmissionJobLeaseService leaseService;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    // Exponentially weighted time jobs held their lease, i.e. recent claim-to-finish time
+    private double averageJobMs;
+
+    @PostConstruct
+    public void init() {
+        // A third of the lease duration leaves two more ticks before a lease can expire
+        long intervalMs = Math.max(1000, TimeUnit.SECONDS.toMillis(workerProperties.getLeaseDurationSeconds()) / 3);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::renewAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Lease owner recorded in {@code lockedBy} for jobs claimed by this node: the node id.
+     */
+    public String getWorkerId() {
+        return workerProperties.getNodeId();
+    }
+
+    /**
+     * Start renewing the lease of a job this node just claimed. {@code onLost} runs on the renewal
+     * thread if the lease is lost before {@link #release} is called.
+     */
+    public Lease track(String jobId, Runnable onLost) {
+        Lease lease = new Lease(jobId, onLost);
+        held.put(jobId, lease);
+        return lease;
+    }
+
+    public void release(Lease lease) {
+        held.remove(lease.jobId, lease);
+        lease.close();
+        if (!lease.isLost()) {
+            recordJobTime(System.currentTimeMillis() - lease.trackedAtMs);
+        }
+    }
+
+    public int getHeldCount() {
+        return held.size();
+    }
+
+    /**
+     * Recent average time this node took per job, from claim to release; 0 before the first job.
+     */
+    public synchronized long getAverageJobMillis() {
+        return Math.round(averageJobMs);
+    }
+
+    private synchronized void recordJobTime(long ms) {
+        averageJobMs = averageJobMs == 0 ? ms : averageJobMs * 0.8 + ms * 0.2;
+    }
+
+    void renewAll() {
+        if (held.isEmpty()) {
+            return;
+        }
+        List<String> jobIds = new ArrayList<>(held.keySet());
+        try {
+            Set<String> renewed = leaseService.renewLeases(getWorkerId(), jobIds, workerProperties.getLeaseDurationSeconds());
+            for (String jobId : jobIds) {
+                if (renewed.contains(jobId)) {
+                    continue;
+                }
+                Lease lease = held.remove(jobId);
+                if (lease != null) {
+                    logger.warn("job_lease_lost jobId={} worker={}", jobId, getWorkerId());
+                    lease.markLost();
+                }
+            }
+        } catch (Exception e) {
+            // Leases are still valid until lockedUntil; the next tick retries
+            logger.warn("job_lease_renewal_failed worker={} jobs={} error={}", getWorkerId(), jobIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * A job's lease as seen by the job itself.
+     */
+    public static final class Lease {
+        private final String jobId;
+        private final Runnable onLost;
+        private final long trackedAtMs = System.currentTimeMillis();
+        private volatile boolean lost;
+        private boolean closed;
+
+        private Lease(String jobId, Runnable onLost) {
+            this.jobId = jobId;
+            this.onLost = onLost;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public boolean isLost() {
+            return lost;
+        }
+
+        private synchronized void markLost() {
+            if (closed) {
+                return;
+            }
+            lost = true;
+            if (onLost != null) {
+                onLost.run();
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.Judge0Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Arrays;
+
+/**
+ * Circuit breaker in front of every Judge0 call.
+ *
+ * CLOSED keeps a sliding window of the last {@code circuitWindowSize} outcomes and opens once the
+ * failure rate (transport errors, timeouts, 5xx) or slow-call rate crosses its threshold. OPEN
+ * rejects calls for {@code circuitOpenDurationMs}, then HALF_OPEN lets {@code circuitHalfOpenProbes}
+ * probe calls through: all of them succeeding closes the circuit, any failure reopens it.
+ */
+@Component
+public class Judge0CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(Judge0CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Autowired
+    private Judge0Properties judge0Properties;
+
+    private State state = State.CLOSED;
+    private boolean[] failedWindow;
+    private boolean[] slowWindow;
+    private int windowNext;
+    private int windowCount;
+    private int failedCount;
+    private int slowCount;
+    private long openedAtMs;
+    private int probesInFlight;
+    private int probeSuccesses;
+    // Exponentially weighted latency of recent calls, whatever the circuit state
+    private double averageCallMs;
+
+    @PostConstruct
+    public synchronized void init() {
+        int windowSize = Math.max(1, judge0Properties.getCircuitWindowSize());
+        failedWindow = new boolean[windowSize];
+        slowWindow = new boolean[windowSize];
+        resetWindow();
+        state = State.CLOSED;
+    }
+
+    /**
+     * Claim permission for one call, or throw {@link CallNotPermittedException} if the circuit is open.
+     * Every permitted call must be followed by {@link #onResult(long, boolean)}.
+     */
+    public void acquirePermission() {
+        if (!tryAcquirePermission()) {
+            throw new CallNotPermittedException("Judge0 circuit is " + getState()
+                + "; retry in " + getRemainingOpenMs() + "ms");
+        }
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && getRemainingOpenMs() == 0) {
+            transitionTo(State.HALF_OPEN, "open duration elapsed");
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && probesInFlight < judge0Properties.getCircuitHalfOpenProbes()) {
+            probesInFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     */
+    public synchronized void onResult(long durationMs, boolean failed) {
+        averageCallMs = averageCallMs == 0 ? durationMs : averageCallMs * 0.9 + durationMs * 0.1;
+        boolean slow = durationMs >= judge0Properties.getCircuitSlowCallThresholdMs();
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (failed || slow) {
+                transitionTo(State.OPEN, failed ? "probe failed" : "probe slow durationMs=" + durationMs);
+            } else if (++probeSuccesses >= judge0Properties.getCircuitHalfOpenProbes()) {
+                transitionTo(State.CLOSED, "probes succeeded");
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call that started before the circuit opened; it says nothing new
+            return;
+        }
+
+        if (windowCount == failedWindow.length) {
+            failedCount -= failedWindow[windowNext] ? 1 : 0;
+            slowCount -= slowWindow[windowNext] ? 1 : 0;
+        } else {
+            windowCount++;
+        }
+        failedWindow[windowNext] = failed;
+        slowWindow[windowNext] = slow;
+        failedCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        windowNext = (windowNext + 1) % failedWindow.length;
+
+        if (windowCount < judge0Properties.getCircuitMinimumCalls()) {
+            return;
+        }
+        int failureRate = failedCount * 100 / windowCount;
+        int slowRate = slowCount * 100 / windowCount;
+        if (failureRate >= judge0Properties.getCircuitFailureRateThreshold()) {
+            transitionTo(State.OPEN, "failureRate=" + failureRate + "%");
+        } else if (slowRate >= judge0Properties.getCircuitSlowCallRateThreshold()) {
+            transitionTo(State.OPEN, "slowCallRate=" + slowRate + "%");
+        }
+    }
+
+    /**
+     * Give back a permission whose call was abandoned (cancelled or interrupted) without an outcome.
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    /**
+     * Whether a new call would currently be let through, without claiming a probe slot.
+     */
+    public synchronized boolean isCallPermitted() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                return probesInFlight < judge0Properties.getCircuitHalfOpenProbes();
+            default:
+                return getRemainingOpenMs() == 0;
+        }
+    }
+
+    /**
+     * Recent average duration of a judge call, or 0 before the first call.
+     */
+    public synchronized long getAverageCallMillis() {
+        return Math.round(averageCallMs);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getRemainingOpenMs() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openedAtMs + judge0Properties.getCircuitOpenDurationMs() - System.currentTimeMillis());
+    }
+
+    private void transitionTo(State next, String reason) {
+        logger.warn("judge0_circuit from={} to={} reason={}", state, next, reason);
+        state = next;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        if (next == State.OPEN) {
+            openedAtMs = System.currentTimeMillis();
+        }
+        if (next == State.CLOSED) {
+            resetWindow();
+        }
+    }
+
+    private void resetWindow() {
+        Arrays.fill(failedWindow, false);
+        Arrays.fill(slowWindow, false);
+        windowNext = 0;
+        windowCount = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+
+    /**
+     * Thrown instead of calling Judge0 while the circuit is open.
+     */
+    public static class CallNotPermittedException extends RuntimeException {
+        public CallNotPermittedException(String message) {
+            super(message);
+        }
+    }
+}
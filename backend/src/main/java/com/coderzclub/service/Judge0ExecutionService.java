@@ -1,276 +1,822 @@
 package com.coderzclub.service;
 
+import com.coderzclub.config.Judge0Properties;
 import com.coderzclub.config.SubmissionLimitsConfig;
+import com.coderzclub.config.WorkerProperties;
 import com.coderzclub.model.SubmissionJob;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 @Service
-public class Judge0ExecutionService {
+public class Judge0ExecutionService implements ExecutionEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(Judge0ExecutionService.class);
 
-    private static final String JUDGE0_URL = "https://judge0-ce.p.rapidapi.com/submissions?base64_encoded=false&wait=true";
-    private static final String JUDGE0_HOST = "judge0-ce.p.rapidapi.com";
+    private static final String BATCH_RESULT_FIELDS = "token,stdout,stderr,compile_output,message,time,memory,status";
+
+    // Judge0 status ids 1 (In Queue) and 2 (Processing) mean the result is not ready yet
+    private static final int STATUS_PROCESSING = 2;
 
     private final HttpClient httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(20))
             .build();
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = objectMapper.getFactory();
 
     @Value("${judge0.api.key}")
     private String judge0ApiKey;
 
     @Autowired
+    private Judge0Properties judge0Properties;
+
+    @Autowired
+    private WorkerProperties workerProperties;
 
+    @Autowired
     private SubmissionLimitsConfig limitsConfig;
 
     @Autowired
     private SubmissionValidator submissionValidator;
 
+    @Autowired
     private SubmissionValidationService validationService;
 
+    @Autowired
+    private Judge0RateLimiter rateLimiter;
+
+    @Autowired
+    private Judge0CircuitBreaker circuitBreaker;
+
+    @Autowired
+    private ExecutionResultCache resultCache;
+
+    // Caps concurrent Judge0 requests across all jobs on this node (PARALLEL mode)
+    private Semaphore globalInFlight;
+
+    @PostConstruct
+    public void init() {
+        globalInFlight = new Semaphore(Math.max(1, workerProperties.getMaxInFlightGlobal()), true);
+    }
+
+    @Override
+    public String getName() {
+        return "judge0";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
 
     /**
      * Execute all test cases for a submission
      */
+    @Override
     public List<SubmissionJob.TestResult> executeTestCases(String code, Integer languageId,
                                                           List<SubmissionJob.TestCase> publicTestCases,
-                                                          List<SubmissionJob.TestCase> hiddenTestCases) {
-        List<SubmissionJob.TestResult> results = new ArrayList<>();
-
-        // Execute public test cases
-        if (publicTestCases != null) {
-            for (SubmissionJob.TestCase testCase : publicTestCases) {
-                SubmissionJob.TestResult result = executeSingleTest(code, languageId, testCase);
-                results.add(result);
+                                                          List<SubmissionJob.TestCase> hiddenTestCases,
+                                                          OutputChecker checker,
+                                                          ResultListener listener) {
+        // Public test cases first, then hidden: callers rely on this order to split the results
+        List<SubmissionJob.TestCase> testCases = ExecutionEngine.inOrder(publicTestCases, hiddenTestCases);
+
+        JobExecution execution = new JobExecution(testCases, publicTestCases != null ? publicTestCases.size() : 0,
+            checker, listener);
+        List<SubmissionJob.TestResult> results = resultCache.isEnabled()
+            ? executeWithCache(code, languageId, testCases, execution)
+            : dispatch(code, languageId, testCases, execution);
+        for (int i = 0; i < results.size(); i++) {
+            // Tests that were not run are not recorded as they finish
+            if (results.get(i).getIndex() == null) {
+                TestResultCodec.identify(results.get(i), testCases, i, execution.publicCount);
             }
         }
 
-        // Execute hidden test cases
-        if (hiddenTestCases != null) {
-            for (SubmissionJob.TestCase testCase : hiddenTestCases) {
-                SubmissionJob.TestResult result = executeSingleTest(code, languageId, testCase);
-                results.add(result);
+        if (execution.isAborted()) {
+            long skipped = results.stream().filter(SubmissionJob.TestResult::isNotRun).count();
+            logger.info("judge0_fail_fast languageId={} reason={} skippedTests={}/{}",
+                languageId, execution.abortReason, skipped, results.size());
+        }
+        return results;
+    }
+
+    private List<SubmissionJob.TestResult> dispatch(String code, Integer languageId,
+                                                    List<SubmissionJob.TestCase> testCases,
+                                                    JobExecution execution) {
+        if (testCases.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (judge0Properties.getMode() == Judge0Properties.Mode.BATCH) {
+            return executeBatch(code, languageId, testCases, execution);
+        } else if (judge0Properties.getMode() == Judge0Properties.Mode.PARALLEL) {
+            return executeParallel(code, languageId, testCases, execution);
+        }
+        return executeSequential(code, languageId, testCases, execution);
+    }
+
+    /**
+     * Serve test cases from {@link ExecutionResultCache} where possible and send only the misses to
+     * Judge0. Cached verdicts feed the fail-fast policy the same way fresh ones do.
+     */
+    private List<SubmissionJob.TestResult> executeWithCache(String code, Integer languageId,
+                                                            List<SubmissionJob.TestCase> testCases,
+                                                            JobExecution execution) {
+        String limits = limitsConfig.getMaxExecutionTimeSeconds() + "s/" + validationService.getMaxMemoryKb()
+            + "kb/" + limitsConfig.getMaxStdoutLength();
+        String[] keys = new String[testCases.size()];
+        SubmissionJob.TestResult[] results = new SubmissionJob.TestResult[testCases.size()];
+        List<Integer> missPositions = new ArrayList<>();
+        for (int i = 0; i < testCases.size(); i++) {
+            keys[i] = resultCache.key(languageId, code, testCases.get(i), limits, execution.checker);
+            results[i] = resultCache.get(keys[i]);
+            if (results[i] != null) {
+                execution.recordAt(i, results[i]);
+            } else {
+                missPositions.add(i);
             }
         }
+        // A view, so that the misses are read from the test set only when dispatched
+        List<SubmissionJob.TestCase> misses = new AbstractList<>() {
+            @Override
+            public SubmissionJob.TestCase get(int index) {
+                return testCases.get(missPositions.get(index));
+            }
 
+            @Override
+            public int size() {
+                return missPositions.size();
+            }
+        };
+
+        List<SubmissionJob.TestResult> fresh;
+        if (execution.isAborted()) {
+            fresh = new ArrayList<>();
+            for (int k = 0; k < misses.size(); k++) {
+                fresh.add(notRunResult(execution.abortReason));
+            }
+        } else {
+            execution.positions = missPositions;
+            fresh = dispatch(code, languageId, misses, execution);
+        }
+        for (int k = 0; k < fresh.size(); k++) {
+            int position = missPositions.get(k);
+            results[position] = fresh.get(k);
+            resultCache.put(keys[position], fresh.get(k));
+        }
+
+        logger.info("judge0_result_cache languageId={} tests={} hits={}",
+            languageId, testCases.size(), testCases.size() - misses.size());
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private List<SubmissionJob.TestResult> executeSequential(String code, Integer languageId,
+                                                             List<SubmissionJob.TestCase> testCases,
+                                                             JobExecution execution) {
+        List<SubmissionJob.TestResult> results = new ArrayList<>(testCases.size());
+        for (int i = 0; i < testCases.size(); i++) {
+            SubmissionJob.TestCase testCase = testCases.get(i);
+            if (execution.isAborted()) {
+                results.add(notRunResult(execution.abortReason));
+                continue;
+            }
+            SubmissionJob.TestResult result = executeSingleTest(code, languageId, testCase, execution.checker);
+            results.add(result);
+            execution.record(i, result);
+        }
         return results;
     }
 
     /**
      * Execute a single test case with output truncation and size limits
      */
-    private SubmissionJob.TestResult executeSingleTest(String code, Integer languageId, SubmissionJob.TestCase testCase) {
-        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
-        result.setInput(testCase.getInput());
-        result.setExpectedOutput(testCase.getExpectedOutput());
-
+    private SubmissionJob.TestResult executeSingleTest(String code, Integer languageId, SubmissionJob.TestCase testCase,
+                                                       OutputChecker checker) {
         try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("language_id", languageId);
-            payload.put("source_code", code);
-            
-            // Add time and memory limits
-            payload.put("cpu_time_limit", limitsConfig.getMaxExecutionTimeSeconds());
-            payload.put("memory_limit", limitsConfig.getMaxMemoryKb() * 1024); // Convert KB to bytes
-            
-            if (testCase.getInput() != null && !testCase.getInput().trim().isEmpty()) {
-                payload.put("stdin", testCase.getInput());
+            String body = objectMapper.writeValueAsString(buildPayload(code, languageId, testCase));
+            HttpRequest httpRequest = requestBuilder("/submissions?base64_encoded=false&wait=true")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+
+            HttpResponse<InputStream> response = sendWithRetry(httpRequest);
+            try (InputStream responseBody = response.body()) {
+                return toTestResult(languageId, testCase, Judge0Response.decode(jsonFactory, responseBody, outputLimits()), checker);
+            }
+        } catch (Judge0CircuitBreaker.CallNotPermittedException e) {
+            // Fail the whole job so it is retried later instead of recording bogus verdicts
+            throw e;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.error("Failed to execute test case", e);
+            return executionErrorResult("Failed to execute code: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fan test cases out concurrently with {@link HttpClient#sendAsync}. At most
+     * {@code worker.maxInFlightPerJob} requests of this job and {@code worker.maxInFlightGlobal}
+     * requests of the whole node are in flight at once; the calling worker thread blocks on
+     * those permits, not on the HTTP calls. Results keep the order of {@code testCases}.
+     * When the fail-fast policy aborts the job, undispatched tests are skipped and in-flight
+     * requests are cancelled.
+     */
+    private List<SubmissionJob.TestResult> executeParallel(String code, Integer languageId,
+                                                           List<SubmissionJob.TestCase> testCases,
+                                                           JobExecution execution) {
+        Semaphore jobInFlight = new Semaphore(Math.max(1, workerProperties.getMaxInFlightPerJob()));
+        List<CompletableFuture<SubmissionJob.TestResult>> futures = new ArrayList<>(testCases.size());
+
+        for (int i = 0; i < testCases.size(); i++) {
+            SubmissionJob.TestCase testCase = testCases.get(i);
+            try {
+                jobInFlight.acquire();
+                try {
+                    globalInFlight.acquire();
+                } catch (InterruptedException e) {
+                    jobInFlight.release();
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.add(CompletableFuture.completedFuture(
+                    executionErrorResult("Execution interrupted before dispatch")));
+                continue;
+            }
+
+            if (execution.isAborted()) {
+                globalInFlight.release();
+                jobInFlight.release();
+                futures.add(CompletableFuture.completedFuture(notRunResult(execution.abortReason)));
+                continue;
+            }
+
+            int index = i;
+            futures.add(executeSingleTestAsync(code, languageId, testCase, execution)
+                .whenComplete((result, error) -> {
+                    globalInFlight.release();
+                    jobInFlight.release();
+                    if (result != null) {
+                        execution.record(index, result);
+                    }
+                }));
+        }
+
+        List<SubmissionJob.TestResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<SubmissionJob.TestResult> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Judge0CircuitBreaker.CallNotPermittedException) {
+                    throw (Judge0CircuitBreaker.CallNotPermittedException) e.getCause();
+                }
+                throw e;
             }
-            payload.put("memory_limit", validationService.getMaxMemoryKb());
+        }
+        return results;
+    }
 
-            String body = objectMapper.writeValueAsString(payload);
-            HttpRequest httpRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(JUDGE0_URL))
-                    .timeout(Duration.ofSeconds(40))
+    private CompletableFuture<SubmissionJob.TestResult> executeSingleTestAsync(String code, Integer languageId,
+                                                                             SubmissionJob.TestCase testCase,
+                                                                             JobExecution execution) {
+        HttpRequest httpRequest;
+        try {
+            String body = objectMapper.writeValueAsString(buildPayload(code, languageId, testCase));
+            httpRequest = requestBuilder("/submissions?base64_encoded=false&wait=true")
                     .header("Content-Type", "application/json")
-                    .header("X-RapidAPI-Key", judge0ApiKey)
-                    .header("X-RapidAPI-Host", JUDGE0_HOST)
                     .POST(HttpRequest.BodyPublishers.ofString(body))
                     .build();
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(executionErrorResult("Failed to execute code: " + e.getMessage()));
+        }
 
-            int maxRetries = 7;
-            int attempt = 0;
-            HttpResponse<String> response;
-            while (true) {
-                response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-                int status = response.statusCode();
-                if (status != 429 && status != 503) {
-                    break;
+        return sendWithRetryAsync(httpRequest, 0, execution)
+            .thenApply(response -> {
+                try (InputStream responseBody = response.body()) {
+                    return toTestResult(languageId, testCase, Judge0Response.decode(jsonFactory, responseBody, outputLimits()),
+                        execution.checker);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Invalid Judge0 response: " + e.getMessage(), e);
                 }
-                attempt++;
-                if (attempt > maxRetries) {
-                    break;
+            })
+            .exceptionally(error -> {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof Judge0CircuitBreaker.CallNotPermittedException) {
+                    execution.abort(cause.getMessage());
+                    throw (Judge0CircuitBreaker.CallNotPermittedException) cause;
                 }
-                long waitMs = 1000L * attempt;
-                String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
-                if (retryAfter != null) {
-                    try {
-                        waitMs = Math.max(waitMs, Long.parseLong(retryAfter) * 1000L);
-                    } catch (NumberFormatException ignored) {
-                    }
+                if (execution.isAborted()) {
+                    return notRunResult(execution.abortReason);
                 }
-                Thread.sleep(waitMs);
-            }
+                logger.error("Failed to execute test case", cause);
+                return executionErrorResult("Failed to execute code: " + cause.getMessage());
+            });
+    }
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> responseMap = objectMapper.readValue(response.body(), Map.class);
+    /**
+     * Execute test cases through Judge0's batch endpoint: submit test cases in chunks of
+     * {@code judge0.batchSize}, then poll the returned tokens in bulk until all are finished.
+     * Results are returned in the same order as {@code testCases}.
+     *
+     * Judge0 cannot cancel queued batch submissions, so with a fail-fast policy enabled the
+     * first chunk (which holds the public tests) is run on its own as a probe; a compilation
+     * error there skips submitting the remaining chunks entirely.
+     */
+    private List<SubmissionJob.TestResult> executeBatch(String code, Integer languageId,
+                                                        List<SubmissionJob.TestCase> testCases,
+                                                        JobExecution execution) {
+        int total = testCases.size();
+        SubmissionJob.TestResult[] results = new SubmissionJob.TestResult[total];
+        String[] tokens = new String[total];
+        int chunkSize = Math.max(1, Math.min(20, judge0Properties.getBatchSize()));
+
+        int probeEnd = isFailFastEnabled() ? Math.min(total, chunkSize) : 0;
+        int polls = runBatchRange(code, languageId, testCases, 0, probeEnd, chunkSize, tokens, results, execution);
+        if (!execution.isAborted()) {
+            polls += runBatchRange(code, languageId, testCases, probeEnd, total, chunkSize, tokens, results, execution);
+        }
 
-            // Extract execution details
-            Long runtime = null;
-            Long memory = null;
-            if (responseMap.get("time") != null) {
-                try {
-                    runtime = Math.round(Double.parseDouble(responseMap.get("time").toString()) * 1000);
-                } catch (Exception e) {
-                    logger.warn("Failed to parse runtime: {}", responseMap.get("time"));
+        for (int i : pendingIndexes(results, 0, total)) {
+            results[i] = execution.isAborted()
+                ? notRunResult(execution.abortReason)
+                : executionErrorResult("Timed out waiting for Judge0 result");
+        }
+
+        logger.info("judge0_batch_completed languageId={} tests={} chunks={} polls={}",
+            languageId, total, (total + chunkSize - 1) / chunkSize, polls);
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * Submit test cases [start, end) and poll them until they are final or the job is aborted.
+     * Returns the number of poll rounds used.
+     */
+    private int runBatchRange(String code, Integer languageId, List<SubmissionJob.TestCase> testCases,
+                              int start, int end, int chunkSize, String[] tokens,
+                              SubmissionJob.TestResult[] results, JobExecution execution) {
+        // Step 1: submit the range, chunk by chunk
+        for (int from = start; from < end; from += chunkSize) {
+            int to = Math.min(end, from + chunkSize);
+            try {
+                submitBatchChunk(code, languageId, testCases, from, to, tokens, results);
+            } catch (Judge0CircuitBreaker.CallNotPermittedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                logger.error("Failed to submit Judge0 batch [{}, {})", from, to, e);
+                for (int i = from; i < to; i++) {
+                    results[i] = executionErrorResult("Failed to execute code: " + e.getMessage());
                 }
             }
-            if (responseMap.get("memory") != null) {
-                try {
-                    memory = Long.parseLong(responseMap.get("memory").toString());
-                } catch (Exception e) {
-                    logger.warn("Failed to parse memory: {}", responseMap.get("memory"));
+        }
+
+        // Step 2: poll outstanding tokens in bulk until every result is final
+        int polls = 0;
+        List<Integer> pending = pendingIndexes(results, start, end);
+        while (!pending.isEmpty() && polls < judge0Properties.getBatchMaxPolls()
+                && !execution.isAborted() && !Thread.currentThread().isInterrupted()) {
+            polls++;
+            try {
+                Thread.sleep(judge0Properties.getBatchPollIntervalMs());
+                for (int from = 0; from < pending.size() && !execution.isAborted(); from += chunkSize) {
+                    List<Integer> group = pending.subList(from, Math.min(pending.size(), from + chunkSize));
+                    pollBatchGroup(languageId, testCases, group, tokens, results, execution.checker);
+                    for (int i : group) {
+                        if (results[i] != null) {
+                            execution.record(i, results[i]);
+                        }
+                    }
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Judge0CircuitBreaker.CallNotPermittedException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.warn("Judge0 batch poll {} failed; will retry: {}", polls, e.getMessage());
             }
+            pending = pendingIndexes(results, start, end);
+        }
+        return polls;
+    }
+
+    private void submitBatchChunk(String code, Integer languageId, List<SubmissionJob.TestCase> testCases,
+                                  int start, int end, String[] tokens, SubmissionJob.TestResult[] results)
+            throws IOException, InterruptedException {
+        List<Map<String, Object>> submissions = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            submissions.add(buildPayload(code, languageId, testCases.get(i)));
+        }
 
-            // Extract and truncate stdout
-            String stdout = responseMap.get("stdout") != null ? responseMap.get("stdout").toString().trim() : "";
-            boolean stdoutTruncated = false;
-            if (stdout.length() > limitsConfig.getMaxStdoutLength()) {
-                stdoutTruncated = true;
-                stdout = submissionValidator.truncateOutput(stdout, limitsConfig.getMaxStdoutLength());
-                logger.warn("stdout_truncated", "originalLength", stdout.length(), "truncatedAt", limitsConfig.getMaxStdoutLength());
+        String body = objectMapper.writeValueAsString(Map.of("submissions", submissions));
+        HttpRequest httpRequest = requestBuilder("/submissions/batch?base64_encoded=false")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<InputStream> response = sendWithRetry(httpRequest);
+        List<Map<String, Object>> created;
+        try (InputStream responseBody = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Judge0 batch submission returned HTTP " + response.statusCode());
+            }
+            // Tokens or per-submission validation errors only; no program output to bound here
+            created = objectMapper.readValue(responseBody, new TypeReference<>() {});
+        }
+        for (int i = start; i < end; i++) {
+            Map<String, Object> entry = i - start < created.size() ? created.get(i - start) : null;
+            Object token = entry != null ? entry.get("token") : null;
+            if (token != null) {
+                tokens[i] = token.toString();
+            } else {
+                // Judge0 reports per-submission validation errors in place of the token
+                results[i] = executionErrorResult("Judge0 rejected submission: " + entry);
             }
+        }
+    }
 
-            // Extract and truncate stderr
-            String stderr = responseMap.get("stderr") != null ? responseMap.get("stderr").toString().trim() : "";
-            boolean stderrTruncated = false;
-            if (stderr.length() > limitsConfig.getMaxStderrLength()) {
-                stderrTruncated = true;
-                stderr = submissionValidator.truncateOutput(stderr, limitsConfig.getMaxStderrLength());
-                logger.warn("stderr_truncated", "originalLength", stderr.length(), "truncatedAt", limitsConfig.getMaxStderrLength());
+    private void pollBatchGroup(Integer languageId, List<SubmissionJob.TestCase> testCases, List<Integer> group,
+                                String[] tokens, SubmissionJob.TestResult[] results, OutputChecker checker)
+            throws IOException, InterruptedException {
+        StringBuilder tokenParam = new StringBuilder();
+        for (int i : group) {
+            if (tokenParam.length() > 0) {
+                tokenParam.append(',');
             }
+            tokenParam.append(tokens[i]);
+        }
 
-            // Extract and truncate compile output
-            String compileOutput = responseMap.get("compile_output") != null ? responseMap.get("compile_output").toString().trim() : "";
-            boolean compileOutputTruncated = false;
-            if (compileOutput.length() > limitsConfig.getMaxCompileOutputLength()) {
-                compileOutputTruncated = true;
-                compileOutput = submissionValidator.truncateOutput(compileOutput, limitsConfig.getMaxCompileOutputLength());
-                logger.warn("compile_output_truncated", "originalLength", compileOutput.length(), "truncatedAt", limitsConfig.getMaxCompileOutputLength());
+        HttpRequest httpRequest = requestBuilder("/submissions/batch?base64_encoded=false&tokens=" + tokenParam
+                + "&fields=" + BATCH_RESULT_FIELDS)
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response = sendWithRetry(httpRequest);
+        List<Judge0Response> submissions;
+        try (InputStream responseBody = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Judge0 batch poll returned HTTP " + response.statusCode());
+            }
+            submissions = Judge0Response.decodeBatch(jsonFactory, responseBody, outputLimits());
+        }
+        for (int k = 0; k < group.size() && k < submissions.size(); k++) {
+            Judge0Response submission = submissions.get(k);
+            if (submission == null || isProcessing(submission)) {
+                continue;
             }
+            int index = group.get(k);
+            results[index] = toTestResult(languageId, testCases.get(index), submission, checker);
+        }
+    }
 
-            // Determine actual output (prioritize stderr if present, then compile_output, then stdout)
-            String actualOutput = "";
-            boolean outputTruncated = false;
-            if (!stderr.isEmpty()) {
-                actualOutput = stderr;
-                outputTruncated = stderrTruncated;
-            } else if (!compileOutput.isEmpty()) {
-                actualOutput = compileOutput;
-                outputTruncated = compileOutputTruncated;
-            } else if (!stdout.isEmpty()) {
-                actualOutput = stdout;
-                outputTruncated = stdoutTruncated;
-            } else {
-                actualOutput = "No Output";
+    private List<Integer> pendingIndexes(SubmissionJob.TestResult[] results, int start, int end) {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            if (results[i] == null) {
+                pending.add(i);
             }
+        }
+        return pending;
+    }
+
+    private boolean isProcessing(Judge0Response submission) {
+        return submission.getStatusId() != null && submission.getStatusId() <= STATUS_PROCESSING;
+    }
+
+    private Judge0Response.Limits outputLimits() {
+        return new Judge0Response.Limits(limitsConfig.getMaxStdoutLength(), limitsConfig.getMaxStderrLength(),
+            limitsConfig.getMaxCompileOutputLength());
+    }
+
+    private Map<String, Object> buildPayload(String code, Integer languageId, SubmissionJob.TestCase testCase) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("language_id", languageId);
+        payload.put("source_code", code);
+
+        // Add time and memory limits (Judge0 expects memory_limit in KB)
+        payload.put("cpu_time_limit", limitsConfig.getMaxExecutionTimeSeconds());
+        payload.put("memory_limit", validationService.getMaxMemoryKb());
+
+        if (testCase.getInput() != null && !testCase.getInput().trim().isEmpty()) {
+            payload.put("stdin", testCase.getInput());
+        }
+        return payload;
+    }
 
-            result.setActualOutput(actualOutput);
-            result.setRuntime(runtime);
-            result.setMemory(memory);
-            result.setExecutionDetails(validationService.sanitizeJudge0Response(responseMap));
+    private HttpRequest.Builder requestBuilder(String pathAndQuery) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(judge0Properties.getBaseUrl() + pathAndQuery))
+                .timeout(Duration.ofSeconds(judge0Properties.getRequestTimeoutSeconds()))
+                .header("X-RapidAPI-Key", judge0ApiKey)
+                .header("X-RapidAPI-Host", judge0Properties.getHost());
+    }
 
-            String actualOutputSummary = actualOutput;
-            if (actualOutputSummary.length() > 200) {
-                actualOutputSummary = actualOutputSummary.substring(0, 200) + "...";
+    /**
+     * Whether a Judge0 API key is configured.
+     */
+    public boolean isConfigured() {
+        return judge0ApiKey != null && !judge0ApiKey.isBlank();
+    }
+
+    /**
+     * Run one submission with {@code wait=true} for the code playground, through the same rate
+     * limiter, circuit breaker and 429/503 retries as judging. The payload is passed to Judge0 as
+     * is; the caller reads and closes the response body.
+     */
+    public HttpResponse<InputStream> submitAndWait(Map<String, Object> payload) throws IOException, InterruptedException {
+        HttpRequest httpRequest = requestBuilder("/submissions?base64_encoded=false&wait=true")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
+                .build();
+        return sendWithRetry(httpRequest);
+    }
+
+    /**
+     * Send through the shared rate limiter, retrying 429/503 responses. The limiter decides when a
+     * retry may go out, so throttled callers queue behind each other instead of sleeping blindly.
+     */
+    private HttpResponse<InputStream> sendWithRetry(HttpRequest httpRequest) throws IOException, InterruptedException {
+        int maxRetries = judge0Properties.getMaxRetries();
+        int attempt = 0;
+        HttpResponse<InputStream> response;
+        while (true) {
+            rateLimiter.acquire();
+            circuitBreaker.acquirePermission();
+            long started = System.currentTimeMillis();
+            try {
+                response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                circuitBreaker.onResult(System.currentTimeMillis() - started, true);
+                throw e;
+            } catch (InterruptedException e) {
+                circuitBreaker.releasePermission();
+                throw e;
+            }
+            circuitBreaker.onResult(System.currentTimeMillis() - started, isServerError(response));
+            if (!isThrottled(response)) {
+                rateLimiter.onSuccess();
+                break;
             }
+            rateLimiter.onThrottled(retryAfterMs(response));
+            attempt++;
+            if (attempt > maxRetries) {
+                break;
+            }
+            response.body().close();
+        }
+        return response;
+    }
 
-            // Mark as OUTPUT_LIMIT_EXCEEDED if outputs were truncated
-            if (outputTruncated) {
-                result.setErrorType("OUTPUT_LIMIT_EXCEEDED");
-                result.setPassed(false);
-                logger.warn("output_limit_exceeded_on_testcase languageId={} runtimeMs={} memoryBytes={} outputLength={}",
-                    languageId, runtime, memory, actualOutput.length());
+    private CompletableFuture<HttpResponse<InputStream>> sendWithRetryAsync(HttpRequest httpRequest, int attempt,
+                                                                      JobExecution execution) {
+        if (execution.isAborted()) {
+            return CompletableFuture.failedFuture(new CancellationException(execution.abortReason));
+        }
+        return execution.track(rateLimiter.acquireAsync())
+            .thenCompose(ignored -> {
+                if (execution.isAborted()) {
+                    return CompletableFuture.failedFuture(new CancellationException(execution.abortReason));
+                }
+                circuitBreaker.acquirePermission();
+                long started = System.currentTimeMillis();
+                return execution.track(httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream()))
+                    .whenComplete((response, error) -> {
+                        if (error instanceof CancellationException) {
+                            // Cancelled by fail-fast: no signal about Judge0's health
+                            circuitBreaker.releasePermission();
+                        } else {
+                            circuitBreaker.onResult(System.currentTimeMillis() - started,
+                                error != null || isServerError(response));
+                        }
+                    });
+            })
+            .thenCompose(response -> {
+                if (!isThrottled(response)) {
+                    rateLimiter.onSuccess();
+                    return CompletableFuture.completedFuture(response);
+                }
+                rateLimiter.onThrottled(retryAfterMs(response));
+                if (attempt >= judge0Properties.getMaxRetries()) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                closeQuietly(response.body());
+                return sendWithRetryAsync(httpRequest, attempt + 1, execution);
+            });
+    }
+
+    private static boolean isThrottled(HttpResponse<?> response) {
+        return response.statusCode() == 429 || response.statusCode() == 503;
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static boolean isServerError(HttpResponse<?> response) {
+        return response.statusCode() >= 500;
+    }
+
+    /**
+     * Parse a delta-seconds {@code Retry-After} header; 0 when absent or not a number.
+     */
+    private static long retryAfterMs(HttpResponse<?> response) {
+        String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+        if (retryAfter != null) {
+            try {
+                return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000L);
+            } catch (NumberFormatException ignored) {
             }
+        }
+        return 0;
+    }
+
+    /**
+     * Map a finished Judge0 submission onto a test result, applying output truncation and size limits
+     */
+    private SubmissionJob.TestResult toTestResult(Integer languageId, SubmissionJob.TestCase testCase,
+                                                  Judge0Response response, OutputChecker checker) {
+        // Identified with the test by the caller, see TestResultCodec#identify
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
 
-            // Check for errors
-            String errorType = parseErrorType(responseMap);
-            if (errorType != null && !outputTruncated) {
-                result.setPassed(false);
-                result.setErrorType(errorType);
-                result.setErrorMessage(parseErrorMessage(responseMap));
-
-                // Observability: Log execution error
-                logger.warn("judge0_execution_error languageId={} errorType={} runtimeMs={} memoryBytes={} actualOutputSummary={}",
-                    languageId, errorType, runtime, memory, actualOutputSummary);
-            } else if (errorType == null && !outputTruncated) {
-                // Check if output matches expected
-                String expected = testCase.getExpectedOutput() != null ? testCase.getExpectedOutput().trim() : "";
-                boolean passed = actualOutput.equals(expected);
-                result.setPassed(passed);
-
-                // Observability: Log execution result
-                logger.info("judge0_execution_result languageId={} passed={} runtimeMs={} memoryBytes={} expectedSummary={} actualOutputSummary={}",
-                    languageId, passed, runtime, memory,
-                    expected.length() > 200 ? expected.substring(0, 200) + "..." : expected,
-                    actualOutputSummary);
+        // Extract execution details
+        Long runtime = null;
+        Long memory = response.getMemory();
+        if (response.getTime() != null) {
+            try {
+                runtime = Math.round(Double.parseDouble(response.getTime()) * 1000);
+            } catch (Exception e) {
+                logger.warn("Failed to parse runtime: {}", response.getTime());
             }
+        }
 
-        } catch (Exception e) {
-            logger.error("Failed to execute test case", e);
+        // Outputs arrive already trimmed and capped by the decoder; only the truncation marker is added here
+        Judge0Response.CappedText stdoutText = response.getStdout();
+        String stdout = stdoutText != null ? stdoutText.toString() : "";
+        boolean stdoutTruncated = stdoutText != null && stdoutText.isTruncated();
+        if (stdoutTruncated) {
+            logger.warn("stdout_truncated originalLength={} truncatedAt={}", stdoutText.getTrimmedLength(), limitsConfig.getMaxStdoutLength());
+            stdout = submissionValidator.truncateOutput(stdout, limitsConfig.getMaxStdoutLength());
+        }
+
+        Judge0Response.CappedText stderrText = response.getStderr();
+        String stderr = stderrText != null ? stderrText.toString() : "";
+        boolean stderrTruncated = stderrText != null && stderrText.isTruncated();
+        if (stderrTruncated) {
+            logger.warn("stderr_truncated originalLength={} truncatedAt={}", stderrText.getTrimmedLength(), limitsConfig.getMaxStderrLength());
+            stderr = submissionValidator.truncateOutput(stderr, limitsConfig.getMaxStderrLength());
+        }
+
+        Judge0Response.CappedText compileOutputText = response.getCompileOutput();
+        String compileOutput = compileOutputText != null ? compileOutputText.toString() : "";
+        boolean compileOutputTruncated = compileOutputText != null && compileOutputText.isTruncated();
+        if (compileOutputTruncated) {
+            logger.warn("compile_output_truncated originalLength={} truncatedAt={}", compileOutputText.getTrimmedLength(), limitsConfig.getMaxCompileOutputLength());
+            compileOutput = submissionValidator.truncateOutput(compileOutput, limitsConfig.getMaxCompileOutputLength());
+        }
+
+        // Determine actual output (prioritize stderr if present, then compile_output, then stdout)
+        String actualOutput = "";
+        boolean outputTruncated = false;
+        if (!stderr.isEmpty()) {
+            actualOutput = stderr;
+            outputTruncated = stderrTruncated;
+        } else if (!compileOutput.isEmpty()) {
+            actualOutput = compileOutput;
+            outputTruncated = compileOutputTruncated;
+        } else if (!stdout.isEmpty()) {
+            actualOutput = stdout;
+            outputTruncated = stdoutTruncated;
+        } else {
+            actualOutput = "No Output";
+        }
+
+        result.setActualOutput(actualOutput);
+        result.setRuntime(runtime);
+        result.setMemory(memory);
+        result.setExecutionDetails(validationService.sanitizeJudge0Response(response, stdout, stderr, compileOutput));
+
+        String actualOutputSummary = actualOutput;
+        if (actualOutputSummary.length() > 200) {
+            actualOutputSummary = actualOutputSummary.substring(0, 200) + "...";
+        }
+
+        // Mark as OUTPUT_LIMIT_EXCEEDED if outputs were truncated
+        if (outputTruncated) {
+            result.setErrorType("OUTPUT_LIMIT_EXCEEDED");
             result.setPassed(false);
-            result.setErrorType("Execution Error");
-            result.setErrorMessage("Failed to execute code: " + e.getMessage());
+            logger.warn("output_limit_exceeded_on_testcase languageId={} runtimeMs={} memoryBytes={} outputLength={}",
+                languageId, runtime, memory, actualOutput.length());
+        }
+
+        // Check for errors
+        String errorType = parseErrorType(response);
+        if (errorType != null && !outputTruncated) {
+            result.setPassed(false);
+            result.setErrorType(errorType);
+            result.setErrorMessage(parseErrorMessage(response, stderr, compileOutput));
+
+            // Observability: Log execution error
+            logger.warn("judge0_execution_error languageId={} errorType={} runtimeMs={} memoryBytes={} actualOutputSummary={}",
+                languageId, errorType, runtime, memory, actualOutputSummary);
+        } else if (errorType == null && !outputTruncated) {
+            // Check if output matches expected
+            String expected = testCase.getExpectedOutput() != null ? testCase.getExpectedOutput() : "";
+            OutputChecker.Result check = OutputCheckers.check(checker, expected, actualOutput);
+            boolean passed = check.isPassed();
+            result.setPassed(passed);
+            if (!passed) {
+                // Position only: the message may reach users, the expected output must not
+                result.setErrorMessage(check.getMessage());
+            }
+
+            // Observability: Log execution result
+            logger.info("judge0_execution_result languageId={} checker={} passed={} runtimeMs={} memoryBytes={} firstDifference={} actualOutputSummary={}",
+                languageId, checker.getName(), passed, runtime, memory,
+                passed ? null : check.getLine() + ":" + check.getColumn(), actualOutputSummary);
         }
 
         return result;
     }
 
+    private SubmissionJob.TestResult notRunResult(String reason) {
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setPassed(false);
+        result.setErrorType(SubmissionJob.TestResult.NOT_RUN);
+        result.setErrorMessage("Not run: " + reason);
+        return result;
+    }
+
+    private boolean isFailFastEnabled() {
+        return workerProperties.isFailFastOnCompilationError() || workerProperties.isFailFastOnHiddenFailure();
+    }
+
+    private SubmissionJob.TestResult executionErrorResult(String message) {
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setPassed(false);
+        result.setErrorType(SubmissionJob.TestResult.EXECUTION_ERROR);
+        result.setErrorMessage(message);
+        return result;
+    }
+
     /**
      * Parse error type from Judge0 response
      */
-    private String parseErrorType(Map<String, Object> response) {
+    private String parseErrorType(Judge0Response response) {
         if (response == null) return null;
 
-        Object status = response.get("status");
-        if (status instanceof Map<?, ?> statusMap) {
-            Integer id = (Integer) statusMap.get("id");
-            if (id != null) {
-                switch (id) {
-                    case 6: return "Compilation Error";
-                    case 7:
-                    case 8:
-                    case 9:
-                    case 10:
-                    case 11:
-                    case 12: return "Runtime Error";
-                    case 5: return "Time Limit Exceeded";
-                    case 4: return "Memory Limit Exceeded";
-                }
+        Integer id = response.getStatusId();
+        if (id != null) {
+            switch (id) {
+                case 6: return "Compilation Error";
+                case 7:
+                case 8:
+                case 9:
+                case 10:
+                case 11:
+                case 12: return "Runtime Error";
+                case 5: return "Time Limit Exceeded";
+                case 4: return "Memory Limit Exceeded";
+                // Internal Error, Exec Format Error: the judge failed, the code was not judged
+                case 13:
+                case 14: return SubmissionJob.TestResult.EXECUTION_ERROR;
             }
         }
 
         // Check for compile output as alternative indicator
-        if (response.get("compile_output") != null && !response.get("compile_output").toString().trim().isEmpty()) {
+        if (response.getCompileOutput() != null && !response.getCompileOutput().isEmpty()) {
             return "Compilation Error";
         }
 
@@ -280,29 +826,89 @@ public class Judge0ExecutionService {
     /**
      * Parse error message from Judge0 response
      */
-    private String parseErrorMessage(Map<String, Object> response) {
+    private String parseErrorMessage(Judge0Response response, String stderr, String compileOutput) {
         if (response == null) return null;
 
-        if (response.get("compile_output") != null && !response.get("compile_output").toString().trim().isEmpty()) {
-            return response.get("compile_output").toString();
+        if (!compileOutput.isEmpty()) {
+            return compileOutput;
         }
 
-        if (response.get("stderr") != null && !response.get("stderr").toString().trim().isEmpty()) {
-            return response.get("stderr").toString();
+        if (!stderr.isEmpty()) {
+            return stderr;
         }
 
-        if (response.get("message") != null) {
-            return response.get("message").toString();
+        if (response.getMessage() != null) {
+            return response.getMessage();
         }
 
-        Object status = response.get("status");
-        if (status instanceof Map<?, ?> statusMap) {
-            Object description = statusMap.get("description");
-            if (description != null) {
-                return description.toString();
-            }
+        if (response.getStatusDescription() != null) {
+            return response.getStatusDescription();
         }
 
         return "Unknown error";
     }
-}
\ No newline at end of file
+
+    /**
+     * Per-job fail-fast state: decides when to abort and cancels the job's in-flight requests.
+     */
+    private final class JobExecution {
+        private final List<SubmissionJob.TestCase> testCases;
+        private final int publicCount;
+        private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        private volatile boolean aborted;
+        private volatile String abortReason;
+        private final OutputChecker checker;
+        private final ResultListener listener;
+        // Position in the full test list of each dispatched test, when only some are dispatched
+        private List<Integer> positions;
+
+        private JobExecution(List<SubmissionJob.TestCase> testCases, int publicCount, OutputChecker checker,
+                             ResultListener listener) {
+            this.testCases = testCases;
+            this.publicCount = publicCount;
+            this.checker = checker != null ? checker : OutputCheckers.exact();
+            this.listener = listener != null ? listener : ResultListener.NONE;
+        }
+
+        boolean isAborted() {
+            return aborted;
+        }
+
+        void record(int index, SubmissionJob.TestResult result) {
+            recordAt(positions != null ? positions.get(index) : index, result);
+        }
+
+        void recordAt(int index, SubmissionJob.TestResult result) {
+            TestResultCodec.identify(result, testCases, index, publicCount);
+            listener.onResult(index, result);
+            if (aborted || result.isPassed() || result.isNotRun()) {
+                return;
+            }
+            if (workerProperties.isFailFastOnCompilationError() && "Compilation Error".equals(result.getErrorType())) {
+                abort("Compilation Error on test " + (index + 1));
+            } else if (workerProperties.isFailFastOnHiddenFailure() && index >= publicCount) {
+                abort("hidden test " + (index + 1) + " failed");
+            }
+        }
+
+        synchronized void abort(String reason) {
+            if (aborted) {
+                return;
+            }
+            abortReason = reason;
+            aborted = true;
+            for (CompletableFuture<?> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+
+        <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+            inFlight.add(future);
+            future.whenComplete((value, error) -> inFlight.remove(future));
+            if (aborted) {
+                future.cancel(true);
+            }
+            return future;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.Judge0Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide token bucket that every outbound Judge0 request goes through.
+ *
+ * The rate adapts AIMD-style: each successful response adds a small increment (about
+ * {@code rateLimitIncreasePerSecond} per second of sustained traffic), and a 429/503 cuts it by
+ * {@code rateLimitDecreaseFactor}. A {@code Retry-After} also closes the bucket until it expires.
+ * Callers reserve the next free slot on arrival, so waiters are admitted in FIFO order instead of
+ * all waking up at once.
+ */
+@Component
+public class Judge0RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(Judge0RateLimiter.class);
+
+    @Autowired
+    private Judge0Properties judge0Properties;
+
+    private double ratePerSecond;
+    private double storedPermits;
+    private long nextFreeNanos;
+    private long blockedUntilNanos;
+    private long lastDecreaseNanos;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong throttledCount = new AtomicLong();
+    private final AtomicLong succeededCount = new AtomicLong();
+
+    @PostConstruct
+    public synchronized void init() {
+        ratePerSecond = clamp(judge0Properties.getRateLimitPerSecond());
+        storedPermits = judge0Properties.getRateLimitBurst();
+        nextFreeNanos = System.nanoTime();
+        blockedUntilNanos = nextFreeNanos;
+        lastDecreaseNanos = nextFreeNanos - TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Block until the caller may send one request.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        waiting.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #acquire()}: completes once the caller may send one request.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        waiting.incrementAndGet();
+        // Complete a separate future so the queue length stays right even if the caller cancels
+        CompletableFuture<Void> admitted = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            waiting.decrementAndGet();
+            admitted.complete(null);
+        });
+        return admitted;
+    }
+
+    /**
+     * Additive increase after a response that was not throttled.
+     */
+    public synchronized void onSuccess() {
+        succeededCount.incrementAndGet();
+        ratePerSecond = clamp(ratePerSecond + judge0Properties.getRateLimitIncreasePerSecond() / ratePerSecond);
+    }
+
+    /**
+     * Multiplicative decrease after a 429/503. A burst of throttled responses from the same window
+     * only cuts the rate once per second; {@code retryAfterMs > 0} also pauses the bucket.
+     */
+    public synchronized void onThrottled(long retryAfterMs) {
+        throttledCount.incrementAndGet();
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            double previous = ratePerSecond;
+            ratePerSecond = clamp(ratePerSecond * judge0Properties.getRateLimitDecreaseFactor());
+            lastDecreaseNanos = now;
+            logger.warn("judge0_rate_limit_decrease fromPerSec={} toPerSec={} retryAfterMs={}",
+                String.format("%.2f", previous), String.format("%.2f", ratePerSecond), retryAfterMs);
+        }
+        storedPermits = 0;
+        if (retryAfterMs > 0) {
+            blockedUntilNanos = Math.max(blockedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMs));
+        }
+    }
+
+    public synchronized double getCurrentRate() {
+        return ratePerSecond;
+    }
+
+    public int getQueueLength() {
+        return waiting.get();
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    public long getSucceededCount() {
+        return succeededCount.get();
+    }
+
+    /**
+     * Claim the next free slot and return how long the caller has to wait for it.
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        if (now > nextFreeNanos) {
+            // Idle time refills the bucket up to the burst size
+            double refill = (now - nextFreeNanos) * ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            storedPermits = Math.min(judge0Properties.getRateLimitBurst(), storedPermits + refill);
+            nextFreeNanos = now;
+        }
+        if (blockedUntilNanos > nextFreeNanos) {
+            nextFreeNanos = blockedUntilNanos;
+        }
+
+        long waitNanos = nextFreeNanos - now;
+        double fromStored = Math.min(1.0, storedPermits);
+        storedPermits -= fromStored;
+        nextFreeNanos += (long) ((1.0 - fromStored) * TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        return waitNanos;
+    }
+
+    private double clamp(double rate) {
+        return Math.max(judge0Properties.getRateLimitMinPerSecond(),
+            Math.min(judge0Properties.getRateLimitMaxPerSecond(), rate));
+    }
+}
@@ -0,0 +1,248 @@
+package com.coderzclub.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed Judge0 submission decoded straight from the HTTP body stream.
+ *
+ * stdout, stderr and compile_output are streamed through {@link CappedText}, which keeps at most
+ * {@code limit + 1} characters of the trimmed value and counts the rest, so an oversized output is
+ * never materialized as a String (nor copied again by trim/substring) on the worker's heap.
+ */
+public class Judge0Response {
+
+    private String token;
+    private Integer statusId;
+    private String statusDescription;
+    private String time;
+    private Long memory;
+    private String message;
+    private CappedText stdout;
+    private CappedText stderr;
+    private CappedText compileOutput;
+
+    public String getToken() { return token; }
+    public Integer getStatusId() { return statusId; }
+    public String getStatusDescription() { return statusDescription; }
+    public String getTime() { return time; }
+    public Long getMemory() { return memory; }
+    public String getMessage() { return message; }
+    public CappedText getStdout() { return stdout; }
+    public CappedText getStderr() { return stderr; }
+    public CappedText getCompileOutput() { return compileOutput; }
+
+    /**
+     * Output limits applied while decoding.
+     */
+    public static final class Limits {
+        private final int stdout;
+        private final int stderr;
+        private final int compileOutput;
+
+        public Limits(int stdout, int stderr, int compileOutput) {
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.compileOutput = compileOutput;
+        }
+    }
+
+    /**
+     * Decode a single submission object, e.g. the body of {@code POST /submissions?wait=true}.
+     */
+    public static Judge0Response decode(JsonFactory jsonFactory, InputStream body, Limits limits) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a Judge0 submission object");
+            }
+            return read(parser, limits);
+        }
+    }
+
+    /**
+     * Decode the {@code {"submissions": [...]}} body of a batch poll. Entries Judge0 could not find
+     * come back as null.
+     */
+    public static List<Judge0Response> decodeBatch(JsonFactory jsonFactory, InputStream body, Limits limits) throws IOException {
+        List<Judge0Response> submissions = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a Judge0 batch object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"submissions".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (element == JsonToken.START_OBJECT) {
+                        submissions.add(read(parser, limits));
+                    } else {
+                        parser.skipChildren();
+                        submissions.add(null);
+                    }
+                }
+            }
+        }
+        return submissions;
+    }
+
+    private static Judge0Response read(JsonParser parser, Limits limits) throws IOException {
+        Judge0Response response = new Judge0Response();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "token":
+                    response.token = parser.getText();
+                    break;
+                case "time":
+                    response.time = parser.getText();
+                    break;
+                case "memory":
+                    response.memory = value.isNumeric() ? parser.getLongValue() : parseLong(parser.getText());
+                    break;
+                case "message":
+                    response.message = parser.getText();
+                    break;
+                case "stdout":
+                    response.stdout = CappedText.read(parser, limits.stdout);
+                    break;
+                case "stderr":
+                    response.stderr = CappedText.read(parser, limits.stderr);
+                    break;
+                case "compile_output":
+                    response.compileOutput = CappedText.read(parser, limits.compileOutput);
+                    break;
+                case "status":
+                    readStatus(parser, response);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return response;
+    }
+
+    private static void readStatus(JsonParser parser, Judge0Response response) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value.isNumeric()) {
+                response.statusId = parser.getIntValue();
+            } else if ("description".equals(field) && value == JsonToken.VALUE_STRING) {
+                response.statusDescription = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Long parseLong(String text) {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A string value with surrounding whitespace trimmed (as {@link String#trim()} would) and
+     * capped at {@code limit + 1} characters; anything beyond that is only counted.
+     */
+    public static final class CappedText extends Writer {
+        private final int limit;
+        private final StringBuilder kept = new StringBuilder();
+        private boolean started;
+        private long length;
+        private long trimmedLength;
+
+        CappedText(int limit) {
+            this.limit = Math.max(0, limit);
+        }
+
+        static CappedText read(JsonParser parser, int limit) throws IOException {
+            CappedText text = new CappedText(limit);
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                parser.getText(text);
+            } else {
+                text.write(parser.getText());
+            }
+            return text;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int count) {
+            for (int i = offset; i < offset + count; i++) {
+                char c = buffer[i];
+                boolean whitespace = c <= ' ';
+                if (!started) {
+                    if (whitespace) {
+                        continue;
+                    }
+                    started = true;
+                }
+                if (length <= limit) {
+                    kept.append(c);
+                }
+                length++;
+                if (!whitespace) {
+                    trimmedLength = length;
+                }
+            }
+        }
+
+        @Override
+        public void write(String value) {
+            write(value.toCharArray(), 0, value.length());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Length of the full trimmed value, including any part that was not kept.
+         */
+        public long getTrimmedLength() {
+            return trimmedLength;
+        }
+
+        public boolean isTruncated() {
+            return trimmedLength > limit;
+        }
+
+        public boolean isEmpty() {
+            return trimmedLength == 0;
+        }
+
+        /**
+         * The trimmed value, or its first {@code limit + 1} characters when truncated.
+         */
+        @Override
+        public String toString() {
+            return kept.substring(0, (int) Math.min(kept.length(), trimmedLength));
+        }
+    }
+}
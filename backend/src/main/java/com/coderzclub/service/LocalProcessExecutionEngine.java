@@ -0,0 +1,412 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.SubmissionLimitsConfig;
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Execution engine that compiles and runs submissions in child processes on this node.
+ *
+ * Each job gets its own temporary working directory. Every run is wrapped in a shell that applies
+ * {@code ulimit} CPU-time, address-space and file-size limits from {@link SubmissionLimitsConfig};
+ * wall-clock and output limits are enforced by this class. Children start with an empty
+ * environment (only a fixed PATH and HOME), so they cannot read the backend's secrets from it, and
+ * nothing runs if the limits cannot be applied.
+ *
+ * The engine does not isolate the network or filesystem, so it is only available with the
+ * {@code dev} profile: development, offline testing and nodes that already run inside a
+ * locked-down container.
+ */
+@Service
+@Profile("dev")
+public class LocalProcessExecutionEngine implements ExecutionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalProcessExecutionEngine.class);
+
+    // Exit status of a process killed by SIGXCPU (ulimit -t) or SIGKILL
+    private static final int EXIT_SIGXCPU = 128 + 24;
+    private static final int EXIT_SIGKILL = 128 + 9;
+
+    private static final Path SHELL = Paths.get("/bin/sh");
+    private static final String CHILD_PATH = "/usr/local/bin:/usr/bin:/bin";
+
+    private static final Map<Integer, LanguageSpec> LANGUAGES = Map.ofEntries(
+        Map.entry(50, LanguageSpec.compiled("main.c", List.of("gcc", "-O2", "-o", "main", "main.c", "-lm"), List.of("./main"))),
+        Map.entry(54, LanguageSpec.compiled("main.cpp", List.of("g++", "-O2", "-o", "main", "main.cpp"), List.of("./main"))),
+        Map.entry(62, LanguageSpec.jvm("Main.java", List.of("javac", "Main.java"), List.of("java", "-cp", ".", "Main"))),
+        Map.entry(91, LanguageSpec.jvm("Main.java", List.of("javac", "Main.java"), List.of("java", "-cp", ".", "Main"))),
+        Map.entry(63, LanguageSpec.node("main.js", List.of("node", "main.js"))),
+        Map.entry(93, LanguageSpec.node("main.js", List.of("node", "main.js"))),
+        Map.entry(71, LanguageSpec.interpreted("main.py", List.of("python3", "main.py"))),
+        Map.entry(92, LanguageSpec.interpreted("main.py", List.of("python3", "main.py")))
+    );
+
+    private final ExecutorService ioExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "local-engine-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private SubmissionLimitsConfig limitsConfig;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public List<SubmissionJob.TestResult> executeTestCases(String code, Integer languageId,
+                                                          List<SubmissionJob.TestCase> publicTestCases,
+                                                          List<SubmissionJob.TestCase> hiddenTestCases,
+                                                          OutputChecker checker,
+                                                          ResultListener listener) {
+        List<SubmissionJob.TestCase> testCases = ExecutionEngine.inOrder(publicTestCases, hiddenTestCases);
+        int publicCount = publicTestCases != null ? publicTestCases.size() : 0;
+
+        List<SubmissionJob.TestResult> results = new ArrayList<>(testCases.size());
+        LanguageSpec spec = LANGUAGES.get(languageId);
+        if (spec == null) {
+            for (int i = 0; i < testCases.size(); i++) {
+                results.add(errorResult("Execution Error", "Language " + languageId + " is not supported by the local engine"));
+            }
+            return identify(results, testCases, publicCount);
+        }
+
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("coderzclub-job-");
+            Files.writeString(workDir.resolve(spec.sourceFile), code != null ? code : "", StandardCharsets.UTF_8);
+
+            String compileError = null;
+            if (spec.compileCommand != null) {
+                ProcessOutcome compiled = run(spec.compileCommand, workDir, null, false,
+                    limitsConfig.getMaxWallTimeSeconds(), limitsConfig.getMaxCompileOutputLength());
+                if (compiled.exitCode != 0 || compiled.timedOut) {
+                    compileError = compiled.timedOut ? "Compilation timed out" : joinOutput(compiled);
+                }
+            }
+
+            String abortReason = null;
+            for (int i = 0; i < testCases.size(); i++) {
+                if (abortReason != null) {
+                    results.add(errorResult(SubmissionJob.TestResult.NOT_RUN, "Not run: " + abortReason));
+                    continue;
+                }
+
+                SubmissionJob.TestResult result = compileError != null
+                    ? errorResult("Compilation Error", compileError)
+                    : runTest(spec, workDir, testCases.get(i), languageId, checker != null ? checker : OutputCheckers.exact());
+                TestResultCodec.identify(result, testCases, i, publicCount);
+                results.add(result);
+                if (listener != null) {
+                    listener.onResult(i, result);
+                }
+
+                if (!result.isPassed()) {
+                    if (workerProperties.isFailFastOnCompilationError() && "Compilation Error".equals(result.getErrorType())) {
+                        abortReason = "Compilation Error on test " + (i + 1);
+                    } else if (workerProperties.isFailFastOnHiddenFailure() && i >= publicCount) {
+                        abortReason = "hidden test " + (i + 1) + " failed";
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Local engine failed to prepare job workspace", e);
+            for (int i = results.size(); i < testCases.size(); i++) {
+                results.add(errorResult("Execution Error", "Failed to execute code: " + e.getMessage()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (int i = results.size(); i < testCases.size(); i++) {
+                results.add(errorResult("Execution Error", "Execution interrupted"));
+            }
+        } finally {
+            deleteQuietly(workDir);
+        }
+        return identify(results, testCases, publicCount);
+    }
+
+    /**
+     * Identify the results that were not reported while running, see {@link TestResultCodec#identify}.
+     */
+    private static List<SubmissionJob.TestResult> identify(List<SubmissionJob.TestResult> results,
+                                                           List<SubmissionJob.TestCase> testCases, int publicCount) {
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).getIndex() == null) {
+                TestResultCodec.identify(results.get(i), testCases, i, publicCount);
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ioExecutor.shutdownNow();
+    }
+
+    private SubmissionJob.TestResult runTest(LanguageSpec spec, Path workDir, SubmissionJob.TestCase testCase,
+                                             Integer languageId, OutputChecker checker) throws IOException, InterruptedException {
+        Path stdinFile = workDir.resolve("stdin.txt");
+        Files.writeString(stdinFile, testCase.getInput() != null ? testCase.getInput() : "", StandardCharsets.UTF_8);
+
+        ProcessOutcome outcome = run(spec.runCommand(limitsConfig.getMaxMemoryKb()), workDir, stdinFile.toFile(),
+            spec.runtime == Runtime.NATIVE, limitsConfig.getMaxWallTimeSeconds(), limitsConfig.getMaxStdoutLength());
+
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setRuntime(outcome.wallTimeMs);
+
+        String stdout = outcome.stdout.trim();
+        String stderr = outcome.stderr.trim();
+        String errorType = null;
+        if (outcome.timedOut || outcome.exitCode == EXIT_SIGXCPU || outcome.exitCode == EXIT_SIGKILL && !outcome.outputLimitExceeded) {
+            errorType = "Time Limit Exceeded";
+        } else if (outcome.outputLimitExceeded) {
+            errorType = "OUTPUT_LIMIT_EXCEEDED";
+        } else if (stderr.contains("OutOfMemoryError") || stderr.contains("MemoryError") || stderr.contains("std::bad_alloc")) {
+            errorType = "Memory Limit Exceeded";
+        } else if (outcome.exitCode != 0) {
+            errorType = "Runtime Error";
+        }
+
+        result.setActualOutput(!stderr.isEmpty() && errorType != null ? stderr : stdout.isEmpty() ? "No Output" : stdout);
+        if (errorType != null) {
+            result.setPassed(false);
+            result.setErrorType(errorType);
+            result.setErrorMessage(!stderr.isEmpty() ? stderr : "Exit code " + outcome.exitCode);
+        } else {
+            OutputChecker.Result check = OutputCheckers.check(checker, testCase.getExpectedOutput(), stdout);
+            result.setPassed(check.isPassed());
+            if (!check.isPassed()) {
+                result.setErrorMessage(check.getMessage());
+            }
+        }
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("engine", getName());
+        details.put("exitCode", outcome.exitCode);
+        details.put("time", outcome.wallTimeMs / 1000.0);
+        details.put("stdout", stdout);
+        details.put("stderr", stderr);
+        result.setExecutionDetails(details);
+
+        logger.info("local_execution_result languageId={} passed={} errorType={} runtimeMs={} exitCode={}",
+            languageId, result.isPassed(), errorType, outcome.wallTimeMs, outcome.exitCode);
+        return result;
+    }
+
+    /**
+     * Run a command in {@code workDir} under CPU, memory and file-size rlimits, capturing at most
+     * {@code maxOutput} characters of stdout and stderr. The process is killed when it exceeds the
+     * wall-clock limit or the output limit.
+     */
+    private ProcessOutcome run(List<String> command, Path workDir, java.io.File stdin, boolean limitMemory,
+                               long wallTimeSeconds, int maxOutput) throws IOException, InterruptedException {
+        if (!Files.isExecutable(SHELL)) {
+            // Without the wrapper the code would run with no CPU, memory or file-size limits
+            logger.error("local_execution_refused reason=no_shell shell={}", SHELL);
+            throw new IOException("Resource limits cannot be applied: " + SHELL + " is not available");
+        }
+        StringBuilder limits = new StringBuilder();
+        limits.append("ulimit -t ").append(Math.max(1, limitsConfig.getMaxExecutionTimeSeconds())).append(" && ");
+        limits.append("ulimit -f ").append(Math.max(1, limitsConfig.getMaxStdoutLength() / 512)).append(" && ");
+        if (limitMemory) {
+            limits.append("ulimit -v ").append(Math.max(1, limitsConfig.getMaxMemoryKb())).append(" && ");
+        }
+        limits.append("exec \"$@\"");
+        List<String> wrapped = new ArrayList<>(List.of(SHELL.toString(), "-c", limits.toString(), "sandbox"));
+        wrapped.addAll(command);
+
+        ProcessBuilder builder = new ProcessBuilder(wrapped).directory(workDir.toFile());
+        // Nothing is inherited from the backend's environment (database URI, JWT and Judge0 secrets)
+        Map<String, String> env = builder.environment();
+        env.clear();
+        env.put("PATH", CHILD_PATH);
+        env.put("HOME", workDir.toString());
+        if (stdin != null) {
+            builder.redirectInput(stdin);
+        }
+
+        long started = System.nanoTime();
+        Process process = builder.start();
+        if (stdin == null) {
+            process.getOutputStream().close();
+        }
+        CappedReader stdoutReader = new CappedReader(process, process.getInputStream(), maxOutput);
+        CappedReader stderrReader = new CappedReader(process, process.getErrorStream(), maxOutput);
+        CompletableFuture<String> stdoutFuture = CompletableFuture.supplyAsync(stdoutReader::read, ioExecutor);
+        CompletableFuture<String> stderrFuture = CompletableFuture.supplyAsync(stderrReader::read, ioExecutor);
+
+        boolean finished = process.waitFor(wallTimeSeconds, TimeUnit.SECONDS);
+        if (!finished) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+            process.waitFor(5, TimeUnit.SECONDS);
+        }
+        long wallTimeMs = (System.nanoTime() - started) / 1_000_000;
+
+        ProcessOutcome outcome = new ProcessOutcome();
+        outcome.timedOut = !finished;
+        outcome.exitCode = finished ? process.exitValue() : -1;
+        outcome.wallTimeMs = wallTimeMs;
+        outcome.stdout = stdoutFuture.join();
+        outcome.stderr = stderrFuture.join();
+        outcome.outputLimitExceeded = stdoutReader.exceeded || stderrReader.exceeded;
+        return outcome;
+    }
+
+    private String joinOutput(ProcessOutcome outcome) {
+        String output = (outcome.stdout + "\n" + outcome.stderr).trim();
+        return output.isEmpty() ? "Compilation failed with exit code " + outcome.exitCode : output;
+    }
+
+    private SubmissionJob.TestResult errorResult(String errorType, String message) {
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setPassed(false);
+        result.setErrorType(errorType);
+        result.setErrorMessage(message);
+        if (!SubmissionJob.TestResult.NOT_RUN.equals(errorType)) {
+            result.setActualOutput(message);
+        }
+        return result;
+    }
+
+    private void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Failed to clean up local engine workspace {}", dir, e);
+        }
+    }
+
+    /**
+     * Drains a process stream, keeping at most {@code limit} characters; kills the process
+     * once the limit is exceeded.
+     */
+    private static final class CappedReader {
+        private final Process process;
+        private final InputStream stream;
+        private final int limit;
+        private volatile boolean exceeded;
+
+        CappedReader(Process process, InputStream stream, int limit) {
+            this.process = process;
+            this.stream = stream;
+            this.limit = limit;
+        }
+
+        String read() {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            try (InputStream in = stream) {
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    int room = limit - buffer.size();
+                    if (read > room) {
+                        buffer.write(chunk, 0, Math.max(0, room));
+                        exceeded = true;
+                        process.descendants().forEach(ProcessHandle::destroyForcibly);
+                        process.destroyForcibly();
+                        break;
+                    }
+                    buffer.write(chunk, 0, read);
+                }
+            } catch (IOException ignored) {
+                // Stream closed because the process was killed
+            }
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class ProcessOutcome {
+        private int exitCode;
+        private boolean timedOut;
+        private boolean outputLimitExceeded;
+        private long wallTimeMs;
+        private String stdout;
+        private String stderr;
+    }
+
+    /**
+     * How a language's memory is limited: NATIVE processes with ulimit -v; the JVM and Node reserve
+     * far more address space than they use (Node fails to start at all under a small -v limit), so
+     * their heap size is capped with a runtime flag instead.
+     */
+    private enum Runtime {
+        NATIVE,
+        JVM,
+        NODE
+    }
+
+    private static final class LanguageSpec {
+        private final String sourceFile;
+        private final List<String> compileCommand;
+        private final List<String> runCommand;
+        private final Runtime runtime;
+
+        private LanguageSpec(String sourceFile, List<String> compileCommand, List<String> runCommand, Runtime runtime) {
+            this.sourceFile = sourceFile;
+            this.compileCommand = compileCommand;
+            this.runCommand = runCommand;
+            this.runtime = runtime;
+        }
+
+        static LanguageSpec compiled(String sourceFile, List<String> compileCommand, List<String> runCommand) {
+            return new LanguageSpec(sourceFile, compileCommand, runCommand, Runtime.NATIVE);
+        }
+
+        static LanguageSpec interpreted(String sourceFile, List<String> runCommand) {
+            return new LanguageSpec(sourceFile, null, runCommand, Runtime.NATIVE);
+        }
+
+        static LanguageSpec jvm(String sourceFile, List<String> compileCommand, List<String> runCommand) {
+            return new LanguageSpec(sourceFile, compileCommand, runCommand, Runtime.JVM);
+        }
+
+        static LanguageSpec node(String sourceFile, List<String> runCommand) {
+            return new LanguageSpec(sourceFile, null, runCommand, Runtime.NODE);
+        }
+
+        List<String> runCommand(int maxMemoryKb) {
+            List<String> command = new ArrayList<>(runCommand);
+            switch (runtime) {
+                case JVM -> command.add(1, "-Xmx" + maxMemoryKb + "k");
+                case NODE -> command.add(1, "--max-old-space-size=" + Math.max(16, maxMemoryKb / 1024));
+                default -> {
+                    return runCommand;
+                }
+            }
+            return command;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.coderzclub.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Decides whether a program's output is accepted for a test case. Implementations compare the two
+ * character streams incrementally, without building normalized copies, and report where the
+ * actual output first diverges. Built-in checkers come from {@link OutputCheckers}.
+ */
+public interface OutputChecker {
+
+    /**
+     * Stable description including any parameters, e.g. "TOKEN" or "FLOAT(1.0E-6)". Part of the
+     * result cache key, since the same output can pass one checker and fail another.
+     */
+    String getName();
+
+    Result check(Reader expected, Reader actual) throws IOException;
+
+    /**
+     * Outcome of a check; for a mismatch, the 1-based line and column in the actual output.
+     */
+    final class Result {
+        private static final Result ACCEPTED = new Result(true, 0, 0, null);
+
+        private final boolean passed;
+        private final int line;
+        private final int column;
+        private final String message;
+
+        private Result(boolean passed, int line, int column, String message) {
+            this.passed = passed;
+            this.line = line;
+            this.column = column;
+            this.message = message;
+        }
+
+        public static Result accepted() {
+            return ACCEPTED;
+        }
+
+        public static Result differsAt(int line, int column, String reason) {
+            return new Result(false, line, column, reason + " at line " + line + ", column " + column);
+        }
+
+        public boolean isPassed() { return passed; }
+        public int getLine() { return line; }
+        public int getColumn() { return column; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,384 @@
+package com.coderzclub.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Built-in {@link OutputChecker}s, selected per problem with {@code Problem.checker}:
+ * <ul>
+ *   <li>EXACT: character-for-character, ignoring leading and trailing whitespace of the whole output (the default)</li>
+ *   <li>TOKEN: whitespace-separated tokens must match; amount and kind of whitespace is ignored</li>
+ *   <li>LINE: line by line, ignoring trailing whitespace on each line and trailing blank lines</li>
+ *   <li>FLOAT: like TOKEN, but numeric tokens match within an absolute or relative epsilon</li>
+ * </ul>
+ */
+public final class OutputCheckers {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutputCheckers.class);
+
+    public static final double DEFAULT_EPSILON = 1e-6;
+
+    private static final int EOF = -1;
+    // Longest token still parsed as a number by FLOAT; longer tokens are compared as text
+    private static final int MAX_NUMBER_LENGTH = 64;
+
+    private static final OutputChecker EXACT = new ExactChecker();
+    private static final OutputChecker TOKEN = new TokenChecker();
+    private static final OutputChecker LINE = new LineChecker();
+
+    private OutputCheckers() {
+    }
+
+    public static OutputChecker exact() {
+        return EXACT;
+    }
+
+    public static OutputChecker token() {
+        return TOKEN;
+    }
+
+    public static OutputChecker line() {
+        return LINE;
+    }
+
+    public static OutputChecker floatingPoint(double epsilon) {
+        return new FloatChecker(epsilon);
+    }
+
+    /**
+     * Resolve a problem's checker setting; blank or unknown names fall back to EXACT.
+     */
+    public static OutputChecker forName(String name, Double epsilon) {
+        if (name == null || name.isBlank()) {
+            return EXACT;
+        }
+        switch (name.trim().toUpperCase()) {
+            case "EXACT":
+                return EXACT;
+            case "TOKEN":
+                return TOKEN;
+            case "LINE":
+                return LINE;
+            case "FLOAT":
+                return floatingPoint(epsilon != null && epsilon > 0 ? epsilon : DEFAULT_EPSILON);
+            default:
+                logger.warn("Unknown output checker {}; falling back to EXACT", name);
+                return EXACT;
+        }
+    }
+
+    /**
+     * Convenience for callers holding both outputs as strings; null is treated as empty.
+     */
+    public static OutputChecker.Result check(OutputChecker checker, String expected, String actual) {
+        try {
+            return checker.check(new StringReader(expected != null ? expected : ""),
+                new StringReader(actual != null ? actual : ""));
+        } catch (IOException e) {
+            // StringReader does not throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c != EOF && c <= ' ';
+    }
+
+    private static boolean isLineBlank(int c) {
+        return c != EOF && c != '\n' && c <= ' ';
+    }
+
+    private static final class ExactChecker implements OutputChecker {
+        @Override
+        public String getName() {
+            return "EXACT";
+        }
+
+        @Override
+        public Result check(Reader expected, Reader actual) throws IOException {
+            CharCursor a = new CharCursor(expected);
+            CharCursor b = new CharCursor(actual);
+            a.skipWhitespace();
+            b.skipWhitespace();
+            while (true) {
+                int ca = a.peek();
+                int cb = b.peek();
+                if (ca == EOF && cb == EOF) {
+                    return Result.accepted();
+                }
+                if (ca == cb) {
+                    a.next();
+                    b.next();
+                    continue;
+                }
+                int line = b.line;
+                int column = b.column;
+                // Differences confined to trailing whitespace are not differences
+                if (a.skipWhitespace() == EOF && b.skipWhitespace() == EOF) {
+                    return Result.accepted();
+                }
+                return Result.differsAt(line, column, cb == EOF ? "Output ended early" : "Output differs");
+            }
+        }
+    }
+
+    private static final class TokenChecker implements OutputChecker {
+        @Override
+        public String getName() {
+            return "TOKEN";
+        }
+
+        @Override
+        public Result check(Reader expected, Reader actual) throws IOException {
+            CharCursor a = new CharCursor(expected);
+            CharCursor b = new CharCursor(actual);
+            while (true) {
+                a.skipWhitespace();
+                b.skipWhitespace();
+                Result missing = endOfTokens(a, b);
+                if (missing != null) {
+                    return missing;
+                }
+                int line = b.line;
+                int column = b.column;
+                if (!sameTokenRemainder(a, b)) {
+                    return Result.differsAt(line, column, "Token differs");
+                }
+            }
+        }
+    }
+
+    private static final class FloatChecker implements OutputChecker {
+        private final double epsilon;
+
+        private FloatChecker(double epsilon) {
+            this.epsilon = epsilon;
+        }
+
+        @Override
+        public String getName() {
+            return "FLOAT(" + epsilon + ")";
+        }
+
+        @Override
+        public Result check(Reader expected, Reader actual) throws IOException {
+            CharCursor a = new CharCursor(expected);
+            CharCursor b = new CharCursor(actual);
+            StringBuilder tokenA = new StringBuilder(MAX_NUMBER_LENGTH);
+            StringBuilder tokenB = new StringBuilder(MAX_NUMBER_LENGTH);
+            while (true) {
+                a.skipWhitespace();
+                b.skipWhitespace();
+                Result missing = endOfTokens(a, b);
+                if (missing != null) {
+                    return missing;
+                }
+                int line = b.line;
+                int column = b.column;
+                boolean completeA = a.readToken(tokenA, MAX_NUMBER_LENGTH);
+                boolean completeB = b.readToken(tokenB, MAX_NUMBER_LENGTH);
+                boolean same;
+                if (completeA && completeB) {
+                    same = numbersClose(tokenA, tokenB) || tokenA.toString().contentEquals(tokenB);
+                } else {
+                    // Too long to be a number: compare the buffered prefixes, then stream the rest
+                    same = completeA == completeB && tokenA.toString().contentEquals(tokenB) && sameTokenRemainder(a, b);
+                }
+                if (!same) {
+                    return Result.differsAt(line, column, "Token differs");
+                }
+            }
+        }
+
+        private boolean numbersClose(CharSequence expected, CharSequence actual) {
+            double x;
+            double y;
+            try {
+                x = Double.parseDouble(expected.toString());
+                y = Double.parseDouble(actual.toString());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                return false;
+            }
+            return Math.abs(x - y) <= epsilon * Math.max(1.0, Math.abs(x));
+        }
+    }
+
+    private static final class LineChecker implements OutputChecker {
+        @Override
+        public String getName() {
+            return "LINE";
+        }
+
+        @Override
+        public Result check(Reader expected, Reader actual) throws IOException {
+            CharCursor a = new CharCursor(expected);
+            CharCursor b = new CharCursor(actual);
+            while (true) {
+                while (true) {
+                    int ca = a.peek();
+                    int cb = b.peek();
+                    boolean endA = ca == EOF || ca == '\n';
+                    boolean endB = cb == EOF || cb == '\n';
+                    if (endA && endB) {
+                        break;
+                    }
+                    if (ca == cb) {
+                        a.next();
+                        b.next();
+                        continue;
+                    }
+                    int line = b.line;
+                    int column = b.column;
+                    // Trailing whitespace (including '\r') on a line is ignored
+                    if (a.skipLineBlanks() && b.skipLineBlanks()) {
+                        break;
+                    }
+                    return Result.differsAt(line, column, cb == EOF ? "Output ended early" : "Line differs");
+                }
+                boolean eofA = a.peek() == EOF;
+                boolean eofB = b.peek() == EOF;
+                if (eofA && eofB) {
+                    return Result.accepted();
+                }
+                if (eofA || eofB) {
+                    int line = b.line;
+                    int column = b.column;
+                    // Trailing blank lines are ignored
+                    if (a.skipWhitespace() == EOF && b.skipWhitespace() == EOF) {
+                        return Result.accepted();
+                    }
+                    return Result.differsAt(line, column, eofB ? "Output ended early" : "Unexpected extra output");
+                }
+                a.next();
+                b.next();
+            }
+        }
+    }
+
+    /**
+     * After skipping whitespace: null if both sides still have a token, otherwise the final result.
+     */
+    private static OutputChecker.Result endOfTokens(CharCursor a, CharCursor b) throws IOException {
+        boolean eofA = a.peek() == EOF;
+        boolean eofB = b.peek() == EOF;
+        if (eofA && eofB) {
+            return OutputChecker.Result.accepted();
+        }
+        if (eofA) {
+            return OutputChecker.Result.differsAt(b.line, b.column, "Unexpected extra output");
+        }
+        if (eofB) {
+            return OutputChecker.Result.differsAt(b.line, b.column, "Output ended early");
+        }
+        return null;
+    }
+
+    /**
+     * Consume the rest of the current token on both sides; true if they were identical.
+     */
+    private static boolean sameTokenRemainder(CharCursor a, CharCursor b) throws IOException {
+        while (true) {
+            int ca = a.peek();
+            int cb = b.peek();
+            boolean endA = ca == EOF || isWhitespace(ca);
+            boolean endB = cb == EOF || isWhitespace(cb);
+            if (endA || endB) {
+                return endA && endB;
+            }
+            if (ca != cb) {
+                return false;
+            }
+            a.next();
+            b.next();
+        }
+    }
+
+    /**
+     * Buffered one-character lookahead over a Reader, tracking the 1-based line and column of the
+     * next character.
+     */
+    private static final class CharCursor {
+        private final Reader reader;
+        private final char[] buffer = new char[4096];
+        private int position;
+        private int limit;
+        private int line = 1;
+        private int column = 1;
+
+        private CharCursor(Reader reader) {
+            this.reader = reader;
+        }
+
+        int peek() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return EOF;
+                }
+            }
+            return buffer[position];
+        }
+
+        void next() throws IOException {
+            int c = peek();
+            if (c == EOF) {
+                return;
+            }
+            position++;
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+
+        /**
+         * Skip whitespace and return the next character (or EOF).
+         */
+        int skipWhitespace() throws IOException {
+            int c;
+            while (isWhitespace(c = peek())) {
+                next();
+            }
+            return c;
+        }
+
+        /**
+         * Skip blanks up to the end of the line; true if nothing else was left on it.
+         */
+        boolean skipLineBlanks() throws IOException {
+            int c;
+            while (isLineBlank(c = peek())) {
+                next();
+            }
+            return c == EOF || c == '\n';
+        }
+
+        /**
+         * Read the current token into {@code into} (cleared first), up to {@code max} characters.
+         * Returns true if the whole token fit.
+         */
+        boolean readToken(StringBuilder into, int max) throws IOException {
+            into.setLength(0);
+            int c;
+            while ((c = peek()) != EOF && !isWhitespace(c)) {
+                if (into.length() == max) {
+                    return false;
+                }
+                into.append((char) c);
+                next();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leader election for cluster-wide scheduled tasks. Each task has one document in
+ * {@code scheduler_locks}; a node runs the task only while it holds that document's lease. The
+ * holder extends the lease on every run, and any node takes over once it has expired.
+ */
+@Service
+public class SchedulerLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    static final String COLLECTION = "scheduler_locks";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    private final Map<String, Boolean> held = new ConcurrentHashMap<>();
+
+    /**
+     * Acquire or extend the lock {@code name} for {@code leaseDuration}. Returns false while
+     * another node holds an unexpired lease, or when MongoDB cannot be reached.
+     */
+    public boolean tryAcquire(String name, Duration leaseDuration) {
+        String owner = workerProperties.getNodeId();
+        Date now = new Date();
+        Query free = Query.query(Criteria.where("_id").is(name)
+            .orOperator(Criteria.where("lockedUntil").lte(now), Criteria.where("owner").is(owner)));
+        Update update = new Update()
+            .set("owner", owner)
+            .set("lockedAt", now)
+            .set("lockedUntil", new Date(now.getTime() + leaseDuration.toMillis()));
+        boolean acquired;
+        try {
+            // No match inserts a new document with the same _id, which fails while someone else holds it
+            mongoTemplate.upsert(free, update, COLLECTION);
+            acquired = true;
+        } catch (DuplicateKeyException e) {
+            acquired = false;
+        } catch (Exception e) {
+            logger.warn("scheduler_lock_failed lock={} owner={} error={}", name, owner, e.getMessage());
+            acquired = false;
+        }
+        if (!Boolean.valueOf(acquired).equals(held.put(name, acquired))) {
+            logger.info("scheduler_lock_{} lock={} owner={}", acquired ? "acquired" : "not_held", name, owner);
+        }
+        return acquired;
+    }
+}
@@ -0,0 +1,250 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.ArchiveProperties;
+import com.coderzclub.model.ArchivedSubmissionJob;
+import com.coderzclub.model.SubmissionJob;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Moves finished submission jobs out of {@code submission_jobs}, so that the collection the queue,
+ * recovery and stats queries work on holds only recent jobs. Jobs that finished more than
+ * {@code archive.afterHours} ago are copied, whole and compressed, to
+ * {@code submission_jobs_archive} and marked {@code archivedAt}; the TTL index on that field then
+ * removes them from the hot collection {@code archive.hotRetentionSeconds} later, in the
+ * background. Until then a job can be read from either place.
+ *
+ * Sweeps run on a single elected node, in at most {@code archive.maxBatchesPerRun} batches of
+ * {@code archive.batchSize}. Lookups by id, a
+ * user's job history and the queue stats also read the archive, see {@link SubmissionJobService}.
+ */
+@Service
+public class SubmissionJobArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionJobArchiveService.class);
+
+    static final String ARCHIVE_LOCK = "submission-job-archive";
+    static final String HOT_TTL_INDEX = "archivedAt_ttl_idx";
+
+    private static final List<SubmissionJob.JobStatus> FINISHED = List.of(
+        SubmissionJob.JobStatus.COMPLETED, SubmissionJob.JobStatus.FAILED,
+        SubmissionJob.JobStatus.TIMEOUT, SubmissionJob.JobStatus.CANCELLED);
+
+    private static final DocumentCodec CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ArchiveProperties archiveProperties;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    /**
+     * Create the TTL index that removes archived jobs from {@code submission_jobs}, or move an
+     * existing one to the configured expiry.
+     */
+    @PostConstruct
+    public void ensureHotTtlIndex() {
+        long ttlSeconds = Math.max(0, archiveProperties.getHotRetentionSeconds());
+        try {
+            mongoTemplate.indexOps(SubmissionJob.class).ensureIndex(new Index()
+                .on("archivedAt", Sort.Direction.ASC)
+                .named(HOT_TTL_INDEX)
+                .expire(Duration.ofSeconds(ttlSeconds)));
+        } catch (Exception e) {
+            // Same keys, other expiry or name: change the expiry of the index in place
+            try {
+                mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(SubmissionJob.class))
+                    .append("index", new Document("keyPattern", new Document("archivedAt", 1))
+                        .append("expireAfterSeconds", ttlSeconds)));
+            } catch (Exception collModFailure) {
+                logger.warn("job_archive_ttl_index_failed ttlSeconds={} error={}", ttlSeconds, collModFailure.getMessage());
+                return;
+            }
+        }
+        logger.info("job_archive_ttl_index ttlSeconds={}", ttlSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${archive.intervalSeconds:300}000")
+    public void archiveFinishedJobs() {
+        if (!archiveProperties.isEnabled()) {
+            return;
+        }
+        Duration lockLease = Duration.ofSeconds(Math.max(60, archiveProperties.getIntervalSeconds() * 3));
+        if (!schedulerLockService.tryAcquire(ARCHIVE_LOCK, lockLease)) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            Date cutoff = new Date(startedAt - archiveProperties.getAfterHours() * 3600 * 1000);
+            int archived = archiveBefore(cutoff);
+            if (archived > 0) {
+                logger.info("job_archive_sweep archived={} cutoff={} durationMs={}",
+                    archived, cutoff, System.currentTimeMillis() - startedAt);
+            }
+        } catch (Exception e) {
+            logger.warn("job_archive_sweep_failed error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archive finished jobs completed before {@code cutoff}, oldest first, up to
+     * {@code archive.maxBatchesPerRun} batches; later sweeps continue from there. Returns the number
+     * archived.
+     */
+    int archiveBefore(Date cutoff) {
+        int batchSize = Math.max(1, archiveProperties.getBatchSize());
+        int maxBatches = Math.max(1, archiveProperties.getMaxBatchesPerRun());
+        int archived = 0;
+        for (int round = 0; round < maxBatches; round++) {
+            Query query = Query.query(Criteria.where("status").in(FINISHED)
+                .and("completedAt").lt(cutoff)
+                .and("archivedAt").is(null));
+            query.with(Sort.by(Sort.Direction.ASC, "completedAt"));
+            query.limit(batchSize);
+            List<SubmissionJob> batch = mongoTemplate.find(query, SubmissionJob.class);
+            if (batch.isEmpty()) {
+                return archived;
+            }
+
+            List<String> ids = new ArrayList<>();
+            for (SubmissionJob job : batch) {
+                ids.add(job.getId());
+            }
+            // Jobs copied by a sweep that stopped before marking them
+            Query existing = Query.query(Criteria.where("id").in(ids));
+            existing.fields().include("id");
+            Set<String> copied = new HashSet<>();
+            for (ArchivedSubmissionJob archivedJob : mongoTemplate.find(existing, ArchivedSubmissionJob.class)) {
+                copied.add(archivedJob.getId());
+            }
+
+            Date now = new Date();
+            List<ArchivedSubmissionJob> copies = new ArrayList<>();
+            for (SubmissionJob job : batch) {
+                if (!copied.contains(job.getId())) {
+                    copies.add(toArchived(job, now));
+                }
+            }
+            if (!copies.isEmpty()) {
+                mongoTemplate.insert(copies, ArchivedSubmissionJob.class);
+            }
+            // Marked only once the copies are stored; the TTL index deletes them from here later
+            mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids).and("archivedAt").is(null)),
+                new Update().set("archivedAt", now), SubmissionJob.class);
+            archived += batch.size();
+            if (batch.size() < batchSize) {
+                return archived;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * The archived copy of a job, if it was archived.
+     */
+    public Optional<SubmissionJob> find(String jobId) {
+        ArchivedSubmissionJob archived = mongoTemplate.findById(jobId, ArchivedSubmissionJob.class);
+        return archived != null ? Optional.of(decode(archived.getData())) : Optional.empty();
+    }
+
+    /**
+     * The {@code limit} most recently created archived jobs of a user, newest first.
+     */
+    public List<SubmissionJob> findByUser(String userId, int limit) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        query.limit(Math.max(1, limit));
+        List<SubmissionJob> jobs = new ArrayList<>();
+        for (ArchivedSubmissionJob archived : mongoTemplate.find(query, ArchivedSubmissionJob.class)) {
+            jobs.add(decode(archived.getData()));
+        }
+        return jobs;
+    }
+
+    /**
+     * Number of archived jobs with the given status.
+     */
+    public long countByStatus(SubmissionJob.JobStatus status) {
+        return mongoTemplate.count(Query.query(Criteria.where("status").is(status)), ArchivedSubmissionJob.class);
+    }
+
+    ArchivedSubmissionJob toArchived(SubmissionJob job, Date archivedAt) {
+        ArchivedSubmissionJob archived = new ArchivedSubmissionJob();
+        archived.setId(job.getId());
+        archived.setUserId(job.getUserId());
+        archived.setProblemId(job.getProblemId());
+        archived.setStatus(job.getStatus());
+        archived.setFinalResult(job.getFinalResult());
+        archived.setCreatedAt(job.getCreatedAt());
+        archived.setCompletedAt(job.getCompletedAt());
+        archived.setArchivedAt(archivedAt);
+        archived.setData(encode(job));
+        return archived;
+    }
+
+    /**
+     * The job as MongoDB stores it, in BSON, deflate-compressed.
+     */
+    byte[] encode(SubmissionJob job) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(job, document);
+        BasicOutputBuffer bson = new BasicOutputBuffer();
+        CODEC.encode(new BsonBinaryWriter(bson), document, EncoderContext.builder().build());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            bson.pipe(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    SubmissionJob decode(byte[] data) {
+        byte[] bson;
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            bson = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived job", e);
+        }
+        Document document = CODEC.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+        return mongoTemplate.getConverter().read(SubmissionJob.class, document);
+    }
+}
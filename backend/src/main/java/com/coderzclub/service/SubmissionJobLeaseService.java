@@ -3,7 +3,9 @@ package com.coderzclub.service;
 import com.coderzclub.model.SubmissionJob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.mongodb.client.result.UpdateResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -11,8 +13,13 @@ import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class SubmissionJobLeaseService {
@@ -50,7 +57,9 @@ public class SubmissionJobLeaseService {
         update.set("nextRetryAt", null);
         update.inc("attemptCount", 1);
 
-        SubmissionJob job = mongoTemplate.findAndModify(query, update, SubmissionJob.class);
+        // The claimed state, so attemptCount is this attempt's lease epoch (see finishJob)
+        SubmissionJob job = mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), SubmissionJob.class);
         if (job == null) {
             return Optional.empty();
         }
@@ -59,19 +68,114 @@ public class SubmissionJobLeaseService {
         return Optional.of(job);
     }
 
-    public void heartbeat(String jobId, String workerId, long leaseDurationSeconds) {
+    /**
+     * Renew every lease in {@code jobIds} held by {@code workerId} with a single write. Returns the
+     * ids whose lease is still held; the rest were lost (expired and reclaimed, or finished elsewhere).
+     */
+    public Set<String> renewLeases(String workerId, Collection<String> jobIds, long leaseDurationSeconds) {
+        if (jobIds.isEmpty()) {
+            return Collections.emptySet();
+        }
         Date now = new Date();
         Date leaseUntil = new Date(now.getTime() + leaseDurationSeconds * 1000);
-        Query query = new Query();
-        query.addCriteria(Criteria.where("id").is(jobId));
-        query.addCriteria(Criteria.where("status").is(SubmissionJob.JobStatus.RUNNING));
-        query.addCriteria(Criteria.where("lockedBy").is(workerId));
+        Query query = heldBy(workerId, jobIds);
 
         Update update = new Update();
         update.set("heartbeatAt", now);
         update.set("lockedUntil", leaseUntil);
 
-        mongoTemplate.updateFirst(query, update, SubmissionJob.class);
-        logger.debug("Heartbeat job {} by worker {} leaseRenewedUntil={}", jobId, workerId, leaseUntil);
+        UpdateResult result = mongoTemplate.updateMulti(query, update, SubmissionJob.class);
+        logger.debug("Renewed {}/{} leases of worker {} until {}", result.getMatchedCount(), jobIds.size(), workerId, leaseUntil);
+        if (result.getMatchedCount() == jobIds.size()) {
+            return new HashSet<>(jobIds);
+        }
+
+        // Only look up which leases are gone when some did not match
+        Query stillHeld = heldBy(workerId, jobIds);
+        stillHeld.fields().include("id");
+        Set<String> held = new HashSet<>();
+        for (SubmissionJob job : mongoTemplate.find(stillHeld, SubmissionJob.class)) {
+            held.add(job.getId());
+        }
+        return held;
+    }
+
+    /**
+     * Persist the results of tests {@code completedBefore} onwards, appended after the ones
+     * already saved, while {@code workerId} still holds attempt {@code attemptCount} of the job.
+     * Like {@link #finishJob}, the write is fenced on the attempt, so an attempt that lost its lease
+     * cannot write into the next one even when that runs on the same node; it is also fenced on
+     * {@code completedTests} so an out-of-order checkpoint cannot leave gaps. Returns false if
+     * nothing was written.
+     */
+    public boolean checkpointTestResults(String jobId, String workerId, Integer attemptCount, int completedBefore,
+                                         List<SubmissionJob.TestResult> results) {
+        if (results.isEmpty()) {
+            return true;
+        }
+        Query query = heldBy(workerId, List.of(jobId));
+        query.addCriteria(Criteria.where("attemptCount").is(attemptCount));
+        if (completedBefore == 0) {
+            query.addCriteria(Criteria.where("completedTests").in(0, null));
+        } else {
+            query.addCriteria(Criteria.where("completedTests").is(completedBefore));
+        }
+
+        Update update = new Update();
+        if (completedBefore == 0) {
+            // Replaces whatever an earlier attempt left behind; $push would fail on a null field
+            update.set("testResults", results);
+        } else {
+            update.push("testResults").each(results.toArray());
+        }
+        update.set("completedTests", completedBefore + results.size());
+
+        boolean written = mongoTemplate.updateFirst(query, update, SubmissionJob.class).getModifiedCount() > 0;
+        logger.debug("Checkpointed job {} tests {}-{} written={}", jobId, completedBefore + 1,
+            completedBefore + results.size(), written);
+        return written;
+    }
+
+    /**
+     * Write the outcome of an attempt (status, results and the fields that go with them) and
+     * release the lease, while {@code workerId} still holds the job in the same attempt. Only
+     * these fields are written; code and test cases are left as they are. {@code attemptCount} is
+     * the fencing token: claimJob increments it, so a worker whose lease expired cannot overwrite
+     * a later attempt, even one claimed again under the same worker id. Returns false, writing
+     * nothing, if the lease was lost.
+     */
+    public boolean finishJob(SubmissionJob job, String workerId) {
+        Query query = heldBy(workerId, List.of(job.getId()));
+        query.addCriteria(Criteria.where("attemptCount").is(job.getAttemptCount()));
+
+        Update update = new Update();
+        update.set("status", job.getStatus());
+        update.set("testResults", job.getTestResults());
+        update.set("resultDigest", job.getResultDigest());
+        update.set("completedTests", job.getCompletedTests());
+        update.set("finalResult", job.getFinalResult());
+        update.set("totalRuntime", job.getTotalRuntime());
+        update.set("totalMemory", job.getTotalMemory());
+        update.set("completedAt", job.getCompletedAt());
+        update.set("nextRetryAt", job.getNextRetryAt());
+        update.set("lastError", job.getLastError());
+        update.set("lockedBy", null);
+        update.set("lockedUntil", null);
+        update.set("heartbeatAt", null);
+
+        boolean written = mongoTemplate.updateFirst(query, update, SubmissionJob.class).getMatchedCount() > 0;
+        if (!written) {
+            logger.warn("Job {} outcome {} not written: worker {} no longer holds attempt {}",
+                job.getId(), job.getStatus(), workerId, job.getAttemptCount());
+        }
+        return written;
+    }
+
+    private static Query heldBy(String workerId, Collection<String> jobIds) {
+        Query query = new Query();
+        query.addCriteria(Criteria.where("id").in(jobIds));
+        query.addCriteria(Criteria.where("status").is(SubmissionJob.JobStatus.RUNNING));
+        query.addCriteria(Criteria.where("lockedBy").is(workerId));
+        return query;
     }
 }
@@ -6,6 +6,8 @@ import com.coderzclub.queue.SubmissionQueuePublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -13,14 +15,24 @@ import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+/**
+ * Recovers jobs stranded by lost workers. Sweeps run on a single elected node and work in bounded
+ * batches: an indexed read of job ids and attempt counts, then one bulk write per batch. A sweep
+ * does at most {@code worker.recoveryMaxBatchesPerRun} batches of each kind and leaves the rest to
+ * the next one.
+ */
 @Service
 public class SubmissionJobRecoveryService {
 
     private static final Logger logger = LoggerFactory.getLogger(SubmissionJobRecoveryService.class);
 
+    static final String RECOVERY_LOCK = "submission-job-recovery";
+
     @Autowired
     private MongoTemplate mongoTemplate;
 
@@ -30,52 +42,215 @@ public class SubmissionJobRecoveryService {
     @Autowired
     private SubmissionQueuePublisher publisher;
 
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
     @Scheduled(fixedDelayString = "${worker.recoveryIntervalSeconds:30}000")
     public void recoverStuckJobs() {
+        // One node sweeps for the whole cluster; the lease outlives a missed tick or two
+        Duration lockLease = Duration.ofSeconds(Math.max(30, workerProperties.getRecoveryIntervalSeconds() * 3));
+        if (!schedulerLockService.tryAcquire(RECOVERY_LOCK, lockLease)) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
         Date now = new Date();
-        Query runningQuery = new Query();
-        runningQuery.addCriteria(Criteria.where("status").is(SubmissionJob.JobStatus.RUNNING));
-        runningQuery.addCriteria(Criteria.where("lockedUntil").lte(now));
-
-        List<SubmissionJob> runningJobs = mongoTemplate.find(runningQuery, SubmissionJob.class);
-        for (SubmissionJob job : runningJobs) {
-            if (job.getAttemptCount() != null && job.getAttemptCount() >= job.getMaxAttempts()) {
-                Update update = new Update();
-                update.set("status", SubmissionJob.JobStatus.TIMEOUT);
-                update.set("lastError", "Lease expired after max attempts");
-                update.set("completedAt", now);
-                update.set("lockedBy", null);
-                update.set("lockedUntil", null);
-                update.set("heartbeatAt", null);
-                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(job.getId())), update, SubmissionJob.class);
-                logger.warn("Job {} lease expired and max attempts reached; marking TIMEOUT", job.getId());
-            } else {
-                Date retryAt = new Date(now.getTime() + workerProperties.getRetryDelaySeconds() * 1000);
-                Update update = new Update();
-                update.set("status", SubmissionJob.JobStatus.RETRYING);
-                update.set("lockedBy", null);
-                update.set("lockedUntil", null);
-                update.set("nextRetryAt", retryAt);
-                update.set("lastError", "Lease expired; retrying");
-                update.set("heartbeatAt", null);
-                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(job.getId())), update, SubmissionJob.class);
-                logger.warn("Job {} lease expired; moving to RETRYING until {}", job.getId(), retryAt);
+        int expired = releaseExpiredLeases(now);
+        int requeued = requeueDueRetries(now);
+        if (expired > 0 || requeued > 0) {
+            logger.info("job_recovery_sweep expiredLeases={} requeuedRetries={} durationMs={}",
+                expired, requeued, System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    /**
+     * RUNNING jobs whose lease expired move to RETRYING, or to TIMEOUT once out of attempts. Each
+     * batch is one indexed read of ids and attempt counts plus one bulk write.
+     */
+    int releaseExpiredLeases(Date now) {
+        Date retryAt = new Date(now.getTime() + workerProperties.getRetryDelaySeconds() * 1000);
+        int released = 0;
+        for (int round = 0; round < maxBatchesPerRun(); round++) {
+            Query expiredQuery = new Query();
+            expiredQuery.addCriteria(Criteria.where("status").is(SubmissionJob.JobStatus.RUNNING));
+            expiredQuery.addCriteria(Criteria.where("lockedUntil").lte(now));
+            List<SubmissionJob> batch = findBatch(expiredQuery, "lockedUntil");
+            if (batch.isEmpty()) {
+                return released;
+            }
+
+            List<String> exhausted = new ArrayList<>();
+            List<String> retryable = new ArrayList<>();
+            for (SubmissionJob job : batch) {
+                (attemptsExhausted(job) ? exhausted : retryable).add(job.getId());
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SubmissionJob.class);
+            if (!exhausted.isEmpty()) {
+                Update timeout = clearLease(new Update())
+                    .set("status", SubmissionJob.JobStatus.TIMEOUT)
+                    .set("lastError", "Lease expired after max attempts")
+                    .set("completedAt", now);
+                bulk.updateMulti(stillExpired(exhausted, now), timeout);
+            }
+            if (!retryable.isEmpty()) {
+                Update retry = clearLease(new Update())
+                    .set("status", SubmissionJob.JobStatus.RETRYING)
+                    .set("nextRetryAt", retryAt)
+                    .set("lastError", "Lease expired; retrying");
+                bulk.updateMulti(stillExpired(retryable, now), retry);
+            }
+            bulk.execute();
+            released += batch.size();
+            logger.warn("job_leases_expired timedOut={} retrying={} retryAt={}", exhausted.size(), retryable.size(), retryAt);
+
+            if (batch.size() < batchSize()) {
+                return released;
             }
         }
+        return released;
+    }
 
-        Query retryingQuery = new Query();
-        retryingQuery.addCriteria(Criteria.where("status").is(SubmissionJob.JobStatus.RETRYING));
-        retryingQuery.addCriteria(Criteria.where("nextRetryAt").lte(now));
+    /**
+     * RETRYING jobs whose retry window opened go back to QUEUED and are published in one batch.
+     */
+    int requeueDueRetries(Date now) {
+        int requeued = 0;
+        for (int round = 0; round < maxBatchesPerRun(); round++) {
+            Query dueQuery = new Query();
+            dueQuery.addCriteria(Criteria.where("status").is(SubmissionJob.JobStatus.RETRYING));
+            dueQuery.addCriteria(Criteria.where("nextRetryAt").lte(now));
+            List<SubmissionJob> batch = findBatch(dueQuery, "nextRetryAt");
+            if (batch.isEmpty()) {
+                return requeued;
+            }
 
-        List<SubmissionJob> retryingJobs = mongoTemplate.find(retryingQuery, SubmissionJob.class);
-        for (SubmissionJob job : retryingJobs) {
+            List<String> ids = batch.stream().map(SubmissionJob::getId).toList();
+            Query stillDue = Query.query(Criteria.where("id").in(ids)
+                .and("status").is(SubmissionJob.JobStatus.RETRYING));
             Update update = new Update();
             update.set("status", SubmissionJob.JobStatus.QUEUED);
             update.set("nextRetryAt", null);
             update.set("lastError", null);
-            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(job.getId())), update, SubmissionJob.class);
-            publisher.publishJob(job.getId());
-            logger.info("Job {} retry window opened; published back to queue", job.getId());
+            mongoTemplate.updateMulti(stillDue, update, SubmissionJob.class);
+            // A job that changed state in between is published anyway; the claim ignores it
+            publisher.publishJobs(batch);
+            requeued += ids.size();
+            logger.info("job_retries_requeued count={}", ids.size());
+
+            if (batch.size() < batchSize()) {
+                return requeued;
+            }
         }
+        return requeued;
+    }
+
+    /**
+     * Requeue the RUNNING jobs still locked by {@code workerId}, without waiting for their leases to
+     * expire. Used when that worker is known to be gone. Returns the number of jobs published.
+     */
+    public int requeueJobsOfWorker(String workerId, String reason) {
+        return requeueJobsOfWorker(workerId, reason, null);
+    }
+
+    /**
+     * Like {@link #requeueJobsOfWorker(String, String)}, but only for jobs claimed before
+     * {@code claimedBefore}, when not null. A restarted node passes its start time so that the
+     * jobs it has already claimed under the same id are left alone.
+     */
+    public int requeueJobsOfWorker(String workerId, String reason, Date claimedBefore) {
+        Date now = new Date();
+        int requeued = 0;
+        while (true) {
+            Query lockedQuery = new Query();
+            lockedQuery.addCriteria(Criteria.where("lockedBy").is(workerId));
+            lockedQuery.addCriteria(Criteria.where("status").is(SubmissionJob.JobStatus.RUNNING));
+            if (claimedBefore != null) {
+                lockedQuery.addCriteria(Criteria.where("startedAt").lt(claimedBefore));
+            }
+            List<SubmissionJob> batch = findBatch(lockedQuery, null);
+            if (batch.isEmpty()) {
+                return requeued;
+            }
+
+            List<String> exhausted = new ArrayList<>();
+            List<SubmissionJob> retryable = new ArrayList<>();
+            for (SubmissionJob job : batch) {
+                if (attemptsExhausted(job)) {
+                    exhausted.add(job.getId());
+                } else {
+                    retryable.add(job);
+                }
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SubmissionJob.class);
+            if (!exhausted.isEmpty()) {
+                Update timeout = clearLease(new Update())
+                    .set("lastError", reason)
+                    .set("status", SubmissionJob.JobStatus.TIMEOUT)
+                    .set("completedAt", now);
+                bulk.updateMulti(stillOwned(exhausted, workerId, claimedBefore), timeout);
+            }
+            if (!retryable.isEmpty()) {
+                Update requeue = clearLease(new Update())
+                    .set("lastError", reason)
+                    .set("status", SubmissionJob.JobStatus.QUEUED)
+                    .set("nextRetryAt", null);
+                bulk.updateMulti(stillOwned(retryable.stream().map(SubmissionJob::getId).toList(), workerId, claimedBefore), requeue);
+            }
+            bulk.execute();
+            publisher.publishJobs(retryable);
+            requeued += retryable.size();
+            logger.warn("worker_jobs_requeued workerId={} requeued={} timedOut={}", workerId, retryable.size(), exhausted.size());
+
+            if (batch.size() < batchSize()) {
+                return requeued;
+            }
+        }
+    }
+
+    private List<SubmissionJob> findBatch(Query query, String sortField) {
+        // Only what the transition and scheduling need; code and test cases stay in the database
+        query.fields().include("id").include("attemptCount").include("maxAttempts")
+            .include("userId").include("priority").include("totalTests");
+        if (sortField != null) {
+            query.with(Sort.by(Sort.Direction.ASC, sortField));
+        }
+        query.limit(batchSize());
+        return mongoTemplate.find(query, SubmissionJob.class);
+    }
+
+    private int batchSize() {
+        return Math.max(1, workerProperties.getRecoveryBatchSize());
+    }
+
+    private int maxBatchesPerRun() {
+        return Math.max(1, workerProperties.getRecoveryMaxBatchesPerRun());
+    }
+
+    private static boolean attemptsExhausted(SubmissionJob job) {
+        return job.getAttemptCount() != null && job.getMaxAttempts() != null
+            && job.getAttemptCount() >= job.getMaxAttempts();
+    }
+
+    private static Query stillExpired(List<String> ids, Date now) {
+        // A worker that renewed in the meantime keeps its job
+        return Query.query(Criteria.where("id").in(ids)
+            .and("status").is(SubmissionJob.JobStatus.RUNNING)
+            .and("lockedUntil").lte(now));
+    }
+
+    private static Query stillOwned(List<String> ids, String workerId, Date claimedBefore) {
+        Criteria owned = Criteria.where("id").in(ids)
+            .and("status").is(SubmissionJob.JobStatus.RUNNING)
+            .and("lockedBy").is(workerId);
+        if (claimedBefore != null) {
+            // A job reclaimed under the same id in the meantime is not requeued
+            owned.and("startedAt").lt(claimedBefore);
+        }
+        return Query.query(owned);
+    }
+
+    private static Update clearLease(Update update) {
+        return update.set("lockedBy", null).set("lockedUntil", null).set("heartbeatAt", null);
     }
 }
@@ -7,8 +7,11 @@ import com.coderzclub.repository.SubmissionJobRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,38 +29,29 @@ public class SubmissionJobService {
     @Autowired
     private WorkerProperties workerProperties;
 
+    @Autowired
+    private SubmissionJobArchiveService archiveService;
+
     /**
      * Create a new submission job
      */
     public SubmissionJob createJob(String userId, String problemId, String code, String language,
-                                   Integer languageId, List<com.coderzclub.model.TestCase> publicTestCases,
-                                   List<com.coderzclub.model.TestCase> hiddenTestCases) {
+                                   Integer languageId, String testSetId, int publicTestCount, int totalTests,
+                                   String checker, Double checkerEpsilon, SubmissionJob.Priority priority) {
         SubmissionJob job = new SubmissionJob();
         job.setUserId(userId);
         job.setProblemId(problemId);
         job.setCode(code);
         job.setLanguage(language);
         job.setLanguageId(languageId);
-        // Convert model.TestCase to SubmissionJob.TestCase
-        java.util.List<SubmissionJob.TestCase> jobPublic = new java.util.ArrayList<>();
-        if (publicTestCases != null) {
-            for (com.coderzclub.model.TestCase tc : publicTestCases) {
-                jobPublic.add(new SubmissionJob.TestCase(tc.getInput(), tc.getOutput(), tc.getExplanation()));
-            }
-        }
-
-        java.util.List<SubmissionJob.TestCase> jobHidden = new java.util.ArrayList<>();
-        if (hiddenTestCases != null) {
-            for (com.coderzclub.model.TestCase tc : hiddenTestCases) {
-                jobHidden.add(new SubmissionJob.TestCase(tc.getInput(), tc.getOutput(), tc.getExplanation()));
-            }
-        }
-
-        job.setPublicTestCases(jobPublic);
-        job.setHiddenTestCases(jobHidden);
+        job.setChecker(checker);
+        job.setCheckerEpsilon(checkerEpsilon);
+        job.setPriority(priority != null ? priority : SubmissionJob.Priority.STANDARD);
+        // Jobs reference the problem's published test cases instead of carrying a copy
+        job.setTestSetId(testSetId);
+        job.setPublicTestCount(publicTestCount);
         job.setStatus(SubmissionJob.JobStatus.QUEUED);
-        job.setTotalTests((publicTestCases != null ? publicTestCases.size() : 0) +
-                         (hiddenTestCases != null ? hiddenTestCases.size() : 0));
+        job.setTotalTests(totalTests);
         job.setAttemptCount(0);
         job.setMaxAttempts(workerProperties.getMaxAttempts());
         job.setNextRetryAt(null);
@@ -68,26 +62,33 @@ public class SubmissionJobService {
 
         job = jobRepository.save(job);
 
-        logger.info("submission_job_created id={} userId={} problemId={} language={} languageId={} totalTests={} codeLength={}",
-            job.getId(), userId, problemId, language, languageId, job.getTotalTests(), code != null ? code.length() : 0);
+        logger.info("submission_job_created id={} userId={} problemId={} language={} languageId={} totalTests={} codeLength={} priority={}",
+            job.getId(), userId, problemId, language, languageId, job.getTotalTests(), code != null ? code.length() : 0,
+            job.getPriority());
 
-        publisher.publishJob(job.getId());
+        publisher.publishJob(job);
 
         return job;
     }
 
     /**
-     * Get job by ID
+     * Get job by ID, from the archive once it has been moved there
      */
     public Optional<SubmissionJob> getJob(String jobId) {
-        return jobRepository.findById(jobId);
+        Optional<SubmissionJob> job = jobRepository.findById(jobId);
+        return job.isPresent() ? job : archiveService.find(jobId);
     }
 
     /**
-     * Get jobs for user
+     * Get the {@code limit} most recent jobs of a user, newest first, including archived ones
      */
-    public List<SubmissionJob> getUserJobs(String userId) {
-        return jobRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public List<SubmissionJob> getUserJobs(String userId, int limit) {
+        // The newest of each collection; a job copied to the archive is read from there only
+        List<SubmissionJob> jobs = new ArrayList<>(
+            jobRepository.findByUserIdAndArchivedAtIsNullOrderByCreatedAtDesc(userId, PageRequest.of(0, limit)));
+        jobs.addAll(archiveService.findByUser(userId, limit));
+        jobs.sort(Comparator.comparing(SubmissionJob::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return jobs.size() > limit ? jobs.subList(0, limit) : jobs;
     }
 
     /**
@@ -98,8 +99,11 @@ public class SubmissionJobService {
             + jobRepository.countByStatus(SubmissionJob.JobStatus.PENDING)
             + jobRepository.countByStatus(SubmissionJob.JobStatus.RETRYING);
         long running = jobRepository.countByStatus(SubmissionJob.JobStatus.RUNNING);
-        long completed = jobRepository.countByStatus(SubmissionJob.JobStatus.COMPLETED);
-        long failed = jobRepository.countByStatus(SubmissionJob.JobStatus.FAILED);
+        // Finished jobs are counted where they live: archived ones in the archive
+        long completed = jobRepository.countByStatusAndArchivedAtIsNull(SubmissionJob.JobStatus.COMPLETED)
+            + archiveService.countByStatus(SubmissionJob.JobStatus.COMPLETED);
+        long failed = jobRepository.countByStatusAndArchivedAtIsNull(SubmissionJob.JobStatus.FAILED)
+            + archiveService.countByStatus(SubmissionJob.JobStatus.FAILED);
 
         return new QueueStats(queued, running, completed, failed);
     }
@@ -62,7 +62,7 @@ public class SubmissionService {
             Problem problem = problemOpt.get();
 
             // Count passed test cases
-            long passedCount = job.getTestResults().stream()
+            long passedCount = TestResultCodec.expand(job).stream()
                 .filter(SubmissionJob.TestResult::isPassed)
                 .count();
 
@@ -104,22 +104,23 @@ public class SubmissionService {
      * Build output summary from job results
      */
     private String buildOutputSummary(SubmissionJob job) {
-        if (job.getTestResults() == null || job.getTestResults().isEmpty()) {
+        java.util.List<SubmissionJob.TestResult> results = TestResultCodec.expand(job);
+        if (results == null || results.isEmpty()) {
             return "No test results";
         }
-        long passed = job.getTestResults().stream().filter(SubmissionJob.TestResult::isPassed).count();
-        long total = job.getTestResults().size();
+        long passed = results.stream().filter(SubmissionJob.TestResult::isPassed).count();
+        long total = results.size();
 
         StringBuilder summary = new StringBuilder();
         summary.append(String.format("Passed %d/%d test cases", passed, total));
 
         // Add details for first failed public test only; do not reveal hidden test expected output
-        job.getTestResults().stream()
-            .filter(r -> !r.isPassed())
+        results.stream()
+            .filter(r -> !r.isPassed() && !r.isNotRun())
             .findFirst()
             .ifPresent(failed -> {
-                int failedIndex = job.getTestResults().indexOf(failed);
-                int publicCount = job.getPublicTestCases() != null ? job.getPublicTestCases().size() : 0;
+                int failedIndex = results.indexOf(failed);
+                int publicCount = job.countPublicTests();
                 if (failedIndex < publicCount) {
                     summary.append(". Failed case - Expected: ")
                            .append(failed.getExpectedOutput())
@@ -138,37 +139,47 @@ public class SubmissionService {
     }
 
     /**
-     * Build execution details map
+     * Build execution details map: the digest of every test, plus full results of the public tests
+     * and a pass/fail entry for each failed hidden test that was kept
      */
     private java.util.Map<String, Object> buildExecutionDetails(SubmissionJob job) {
         java.util.Map<String, Object> details = new java.util.HashMap<>();
         details.put("jobId", job.getId());
         details.put("completedAt", job.getCompletedAt());
 
+        // Finished jobs are compacted: their results are the public tests and the failed hidden
+        // tests kept in detail, each with its index
+        java.util.List<SubmissionJob.TestResult> results = job.getTestResults() != null
+            ? job.getTestResults() : java.util.List.of();
+        details.put("resultDigest", job.getResultDigest() != null
+            ? job.getResultDigest() : TestResultCodec.digest(results));
+
         // Sanitize test results for storage/return: never include hidden test input/expected
         java.util.List<java.util.Map<String, Object>> sanitized = new java.util.ArrayList<>();
-        int publicCount = job.getPublicTestCases() != null ? job.getPublicTestCases().size() : 0;
-        if (job.getTestResults() != null) {
-            for (int i = 0; i < job.getTestResults().size(); i++) {
-                SubmissionJob.TestResult r = job.getTestResults().get(i);
-                java.util.Map<String, Object> m = new java.util.HashMap<>();
-                if (i < publicCount) {
-                    m.put("input", r.getInput());
-                    m.put("expectedOutput", r.getExpectedOutput());
-                    m.put("actualOutput", r.getActualOutput());
-                    m.put("passed", r.isPassed());
-                    m.put("runtime", r.getRuntime());
-                    m.put("memory", r.getMemory());
-                    m.put("errorType", r.getErrorType());
-                    m.put("errorMessage", r.getErrorMessage());
-                } else {
-                    // Hidden tests: only record pass/fail summary
-                    m.put("type", "hidden");
-                    m.put("status", r.isPassed() ? "PASSED" : "FAILED");
-                    if (!r.isPassed()) m.put("message", "Failed on hidden testcase");
-                }
-                sanitized.add(m);
+        int publicCount = job.countPublicTests();
+        for (int position = 0; position < results.size(); position++) {
+            SubmissionJob.TestResult r = results.get(position);
+            int i = r.getIndex() != null ? r.getIndex() : position;
+            java.util.Map<String, Object> m = new java.util.HashMap<>();
+            if (i < publicCount) {
+                m.put("input", r.getInput());
+                m.put("expectedOutput", r.getExpectedOutput());
+                m.put("actualOutput", r.getActualOutput());
+                m.put("passed", r.isPassed());
+                m.put("runtime", r.getRuntime());
+                m.put("memory", r.getMemory());
+                m.put("errorType", r.getErrorType());
+                m.put("errorMessage", r.getErrorMessage());
+            } else if (!r.isPassed() && !r.isNotRun()) {
+                // Hidden tests: only failures, with a pass/fail summary; the rest is in the digest
+                m.put("type", "hidden");
+                m.put("index", i);
+                m.put("status", "FAILED");
+                m.put("message", "Failed on hidden testcase");
+            } else {
+                continue;
             }
+            sanitized.add(m);
         }
 
         details.put("testResults", sanitized);
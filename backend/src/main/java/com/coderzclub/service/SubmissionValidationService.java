@@ -97,6 +97,34 @@ public class SubmissionValidationService {
         return sanitized;
     }
 
+    /**
+     * Same shape as {@link #sanitizeJudge0Response(Map)} for a streamed response whose outputs were
+     * already trimmed and capped while decoding.
+     */
+    public Map<String, Object> sanitizeJudge0Response(Judge0Response response, String stdout, String stderr,
+                                                      String compileOutput) {
+        Map<String, Object> sanitized = new java.util.LinkedHashMap<>();
+        Map<String, Object> status = new java.util.LinkedHashMap<>();
+        if (response.getStatusId() != null) {
+            status.put("id", response.getStatusId());
+        }
+        if (response.getStatusDescription() != null) {
+            status.put("description", response.getStatusDescription());
+        }
+        sanitized.put("status", status);
+        if (response.getTime() != null) {
+            sanitized.put("time", response.getTime());
+        }
+        if (response.getMemory() != null) {
+            sanitized.put("memory", response.getMemory());
+        }
+        sanitized.put("stdout", response.getStdout() != null ? truncateOutput(stdout, maxStdoutLength) : null);
+        sanitized.put("stderr", response.getStderr() != null ? truncateOutput(stderr, maxStderrLength) : null);
+        sanitized.put("compile_output", response.getCompileOutput() != null
+            ? truncateOutput(compileOutput, maxCompileOutputLength) : null);
+        return sanitized;
+    }
+
     public String truncateOutput(Object value, int maxLength) {
         if (value == null) {
             return null;
@@ -0,0 +1,324 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.Problem;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.TestCase;
+import com.coderzclub.model.TestCaseSet;
+import com.coderzclub.repository.TestCaseSetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes and loads {@link TestCaseSet}s. A set's id is the SHA-256 of its test cases, so
+ * publishing is idempotent and a problem gets a new set only when its tests change. Problems are
+ * published when they are saved and keep the set id, which submissions reference; their hidden
+ * tests are stored in the set only. Test data goes
+ * to the {@link TestDataStore}; the set document only records the counts.
+ *
+ * Workers load sets through a node-local LRU bounded by {@code worker.testSetCacheMaxBytes}, so a
+ * set is read from MongoDB once per node rather than once per job. Concurrent misses for the same
+ * set share one read. Jobs go through {@link #acquire} and {@link #release}, which keep the set's
+ * test data on this node's disk while they read it. Sets stored inline by earlier versions are
+ * still loaded as they are.
+ */
+@Service
+public class TestCaseSetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestCaseSetService.class);
+
+    // Ids known to be stored, so publishing usually skips the existence check
+    private static final int PUBLISHED_IDS = 1024;
+
+    @Autowired
+    private TestCaseSetRepository testCaseSetRepository;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    @Autowired
+    private TestDataStore testDataStore;
+
+    private final Set<String> published = Collections.newSetFromMap(new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > PUBLISHED_IDS;
+        }
+    });
+
+    private final LinkedHashMap<String, CachedSet> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<TestCaseSet>> loading = new ConcurrentHashMap<>();
+    private long cachedBytes;
+
+    /**
+     * Store the set of these test cases unless it already exists, and return it.
+     */
+    public TestCaseSet publish(String problemId, List<SubmissionJob.TestCase> publicTestCases,
+                               List<SubmissionJob.TestCase> hiddenTestCases) {
+        TestCaseSet set = new TestCaseSet();
+        set.setId(hash(publicTestCases, hiddenTestCases));
+        set.setProblemId(problemId);
+        set.setPublicTestCount(size(publicTestCases));
+        set.setHiddenTestCount(size(hiddenTestCases));
+        set.setPublicTestCases(publicTestCases);
+        set.setHiddenTestCases(hiddenTestCases);
+
+        synchronized (published) {
+            if (published.contains(set.getId())) {
+                return set;
+            }
+        }
+        if (!testCaseSetRepository.existsById(set.getId())) {
+            store(set);
+        }
+        synchronized (published) {
+            published.add(set.getId());
+        }
+        return set;
+    }
+
+    /**
+     * Publish the problem's public and hidden test cases and record the set on the problem. The
+     * hidden tests are removed from the problem, so that it is saved without them; the public ones
+     * stay, since every view of the problem shows them.
+     */
+    public TestCaseSet publish(Problem problem) {
+        List<SubmissionJob.TestCase> publicTestCases = toJobTestCases(problem.getPublicTestCases());
+        List<SubmissionJob.TestCase> hiddenTestCases = toJobTestCases(problem.getHiddenTestCases());
+        TestCaseSet set = publish(problem.getId(), publicTestCases, hiddenTestCases);
+        problem.setTestSetId(set.getId());
+        problem.setPublicTestCount(publicTestCases.size());
+        problem.setHiddenTestCount(hiddenTestCases.size());
+        problem.setHiddenTestCases(null);
+        return set;
+    }
+
+    /**
+     * The hidden test cases of a published set, read into memory; for editing a problem, whose
+     * hidden tests are stored in its set only.
+     */
+    public List<TestCase> hiddenTestCases(String setId) {
+        TestCaseSet set = acquire(setId);
+        try {
+            List<TestCase> hidden = new ArrayList<>();
+            for (SubmissionJob.TestCase testCase : orEmpty(set.getHiddenTestCases())) {
+                hidden.add(new TestCase(testCase.getInput(), testCase.getExpectedOutput(), testCase.getExplanation()));
+            }
+            return hidden;
+        } finally {
+            release(setId);
+        }
+    }
+
+    /**
+     * The set with this id, from the node-local cache or MongoDB.
+     *
+     * @throws IllegalStateException if the set does not exist or its content does not match the id
+     */
+    public TestCaseSet load(String id) {
+        TestCaseSet cached = cached(id);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<TestCaseSet> mine = new CompletableFuture<>();
+        CompletableFuture<TestCaseSet> pending = loading.putIfAbsent(id, mine);
+        if (pending != null) {
+            return pending.join();
+        }
+        try {
+            TestCaseSet set = testCaseSetRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Test case set not found: " + id));
+            if (set.getStorage() == TestCaseSet.Storage.GRIDFS) {
+                // Checked against the id when downloaded; tests are read from disk as the engine needs them
+                Path dir = testDataStore.fetch(set);
+                int publicCount = count(set.getPublicTestCount());
+                set.setPublicTestCases(testDataStore.cases(dir, 0, publicCount));
+                set.setHiddenTestCases(testDataStore.cases(dir, publicCount, count(set.getHiddenTestCount())));
+            } else if (!id.equals(hash(set.getPublicTestCases(), set.getHiddenTestCases()))) {
+                throw new IllegalStateException("Test case set content does not match its id: " + id);
+            }
+            cache(set);
+            mine.complete(set);
+            return set;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, mine);
+        }
+    }
+
+    /**
+     * Like {@link #load}, for a job that reads the set's tests: the set's test data stays on disk
+     * until {@link #release} is called with the same id.
+     */
+    public TestCaseSet acquire(String id) {
+        // Pinned before the cache is checked, so the data cannot be evicted between the two
+        testDataStore.pin(id);
+        try {
+            return load(id);
+        } catch (RuntimeException e) {
+            testDataStore.unpin(id);
+            throw e;
+        }
+    }
+
+    public void release(String id) {
+        testDataStore.unpin(id);
+    }
+
+    /**
+     * Content hash of a set: public then hidden test cases, every field length-prefixed.
+     */
+    static String hash(List<SubmissionJob.TestCase> publicTestCases, List<SubmissionJob.TestCase> hiddenTestCases) {
+        MessageDigest digest = sha256();
+        for (List<SubmissionJob.TestCase> cases : List.of(orEmpty(publicTestCases), orEmpty(hiddenTestCases))) {
+            update(digest, String.valueOf(cases.size()));
+            for (SubmissionJob.TestCase testCase : cases) {
+                update(digest, testCase.getInput());
+                update(digest, testCase.getExpectedOutput());
+                update(digest, testCase.getExplanation());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Write the test data, then the set document: once the document exists, all of its data does.
+     */
+    private void store(TestCaseSet set) {
+        int index = 0;
+        for (SubmissionJob.TestCase testCase : orEmpty(set.getPublicTestCases())) {
+            testDataStore.write(set.getId(), index++, testCase);
+        }
+        for (SubmissionJob.TestCase testCase : orEmpty(set.getHiddenTestCases())) {
+            testDataStore.write(set.getId(), index++, testCase);
+        }
+        TestCaseSet stored = new TestCaseSet();
+        stored.setId(set.getId());
+        stored.setProblemId(set.getProblemId());
+        stored.setStorage(TestCaseSet.Storage.GRIDFS);
+        stored.setPublicTestCount(set.getPublicTestCount());
+        stored.setHiddenTestCount(set.getHiddenTestCount());
+        try {
+            testCaseSetRepository.insert(stored);
+            logger.info("test_case_set_published id={} problemId={} publicTests={} hiddenTests={}",
+                set.getId(), set.getProblemId(), set.getPublicTestCount(), set.getHiddenTestCount());
+        } catch (DuplicateKeyException e) {
+            // Published concurrently; the content is the same
+        }
+    }
+
+    private synchronized TestCaseSet cached(String id) {
+        CachedSet entry = cache.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.set.getStorage() == TestCaseSet.Storage.GRIDFS && !testDataStore.isCached(id)) {
+            // Its test data was evicted from disk; load it again
+            cache.remove(id);
+            cachedBytes -= entry.bytes;
+            return null;
+        }
+        return entry.set;
+    }
+
+    private synchronized void cache(TestCaseSet set) {
+        long bytes = estimateBytes(set);
+        long maxBytes = workerProperties.getTestSetCacheMaxBytes();
+        if (bytes > maxBytes) {
+            return;
+        }
+        CachedSet previous = cache.put(set.getId(), new CachedSet(set, bytes));
+        cachedBytes += bytes - (previous != null ? previous.bytes : 0);
+        Iterator<CachedSet> eldest = cache.values().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    private static long estimateBytes(TestCaseSet set) {
+        if (set.getStorage() == TestCaseSet.Storage.GRIDFS) {
+            // The test data stays on disk
+            return 1024;
+        }
+        long bytes = 0;
+        for (List<SubmissionJob.TestCase> cases : List.of(orEmpty(set.getPublicTestCases()), orEmpty(set.getHiddenTestCases()))) {
+            for (SubmissionJob.TestCase testCase : cases) {
+                // Latin-1 strings take a byte per char; good enough for a cache budget
+                bytes += 64 + length(testCase.getInput()) + length(testCase.getExpectedOutput())
+                    + length(testCase.getExplanation());
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static int count(Integer count) {
+        return count != null ? count : 0;
+    }
+
+    private static List<SubmissionJob.TestCase> toJobTestCases(List<TestCase> testCases) {
+        List<SubmissionJob.TestCase> converted = new ArrayList<>();
+        for (TestCase testCase : orEmpty(testCases)) {
+            converted.add(new SubmissionJob.TestCase(testCase.getInput(), testCase.getOutput(), testCase.getExplanation()));
+        }
+        return converted;
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Length-prefixed so that ("ab", "c") and ("a", "bc") hash differently
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        digest.update(Integer.toString(value != null ? bytes.length : -1).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static final class CachedSet {
+        private final TestCaseSet set;
+        private final long bytes;
+
+        private CachedSet(TestCaseSet set, long bytes) {
+            this.set = set;
+            this.bytes = bytes;
+        }
+    }
+}
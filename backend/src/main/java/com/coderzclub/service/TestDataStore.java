@@ -0,0 +1,306 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.TestCaseSet;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsCriteria;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Test data of {@link TestCaseSet}s, kept out of MongoDB documents. Each test case is one GridFS
+ * file ({@code <setId>/<index>}, split into GridFS chunks) holding its input, expected output and
+ * explanation, deflate-compressed.
+ *
+ * Worker nodes download a set once into {@code worker.testDataCacheDir}, one uncompressed file per
+ * test, and read tests from there through memory-mapped files only when the engine asks for them:
+ * the lists handed to the engine load each test on access, so a large set never has to be in
+ * memory at once. The disk cache is bounded by {@code worker.testDataCacheMaxBytes}, dropping the
+ * least recently used sets. Sets {@link #pin pinned} by running jobs are never dropped, since
+ * their tests are still being read.
+ */
+@Service
+public class TestDataStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestDataStore.class);
+
+    @Autowired
+    private GridFsTemplate gridFsTemplate;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    // Readers per set id; guards eviction too
+    private final Map<String, Integer> pins = new HashMap<>();
+
+    /**
+     * Store one test case of a set.
+     */
+    public void write(String setId, int index, SubmissionJob.TestCase testCase) {
+        Document metadata = new Document("setId", setId).append("index", index);
+        gridFsTemplate.store(new ByteArrayInputStream(compress(testCase)), fileName(setId, index), metadata);
+    }
+
+    /**
+     * Keep the set's test data on disk until {@link #unpin}; call before reading it.
+     */
+    public void pin(String setId) {
+        synchronized (pins) {
+            pins.merge(setId, 1, Integer::sum);
+        }
+    }
+
+    public void unpin(String setId) {
+        synchronized (pins) {
+            pins.computeIfPresent(setId, (id, readers) -> readers > 1 ? readers - 1 : null);
+        }
+    }
+
+    /**
+     * Whether this node has the set's test data on disk.
+     */
+    public boolean isCached(String setId) {
+        return Files.isDirectory(cacheRoot().resolve(setId));
+    }
+
+    /**
+     * Local directory with the set's test data, downloading it first if this node has not yet.
+     *
+     * @throws IllegalStateException if a test is missing or the content does not match the set id
+     */
+    public Path fetch(TestCaseSet set) {
+        Path dir = cacheRoot().resolve(set.getId());
+        if (Files.isDirectory(dir)) {
+            touch(dir);
+            return dir;
+        }
+        int count = count(set.getPublicTestCount()) + count(set.getHiddenTestCount());
+        Path staging = cacheRoot().resolve(set.getId() + ".tmp-" + UUID.randomUUID());
+        long bytes = 0;
+        try {
+            Files.createDirectories(staging);
+            for (int i = 0; i < count; i++) {
+                GridFSFile file = gridFsTemplate.findOne(
+                    Query.query(GridFsCriteria.whereFilename().is(fileName(set.getId(), i))));
+                if (file == null) {
+                    throw new IllegalStateException("Test data missing: " + fileName(set.getId(), i));
+                }
+                try (InputStream in = gridFsTemplate.getResource(file).getInputStream()) {
+                    bytes += writeCached(staging, i, in);
+                }
+            }
+            String hash = TestCaseSetService.hash(
+                cases(staging, 0, count(set.getPublicTestCount())),
+                cases(staging, count(set.getPublicTestCount()), count(set.getHiddenTestCount())));
+            if (!set.getId().equals(hash)) {
+                throw new IllegalStateException("Test case set content does not match its id: " + set.getId());
+            }
+            try {
+                Files.move(staging, dir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException | AtomicMoveNotSupportedException e) {
+                // Another process on this host downloaded it first
+                deleteQuietly(staging);
+            }
+            logger.info("test_data_downloaded setId={} tests={} bytes={}", set.getId(), count, bytes);
+        } catch (IOException e) {
+            deleteQuietly(staging);
+            throw new UncheckedIOException("Failed to download test data of set " + set.getId(), e);
+        } catch (RuntimeException e) {
+            deleteQuietly(staging);
+            throw e;
+        }
+        evict(dir);
+        return dir;
+    }
+
+    /**
+     * {@code count} test cases starting at {@code from}, each read from {@code dir} when accessed.
+     */
+    public List<SubmissionJob.TestCase> cases(Path dir, int from, int count) {
+        return new AbstractList<>() {
+            @Override
+            public SubmissionJob.TestCase get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return read(dir.resolve((from + index) + ".bin"));
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    static byte[] compress(SubmissionJob.TestCase testCase) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            writeString(out, testCase.getInput());
+            writeString(out, testCase.getExpectedOutput());
+            writeString(out, testCase.getExplanation());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Inflate one compressed test into {@code dir}; returns the bytes written.
+     */
+    static long writeCached(Path dir, int index, InputStream compressed) throws IOException {
+        Path file = dir.resolve(index + ".bin");
+        try (InputStream in = new InflaterInputStream(compressed);
+             OutputStream out = Files.newOutputStream(file)) {
+            return in.transferTo(out);
+        }
+    }
+
+    static SubmissionJob.TestCase read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SubmissionJob.TestCase(readString(buffer), readString(buffer), readString(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read test data " + file, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Drop least recently used sets until the cache fits its budget, keeping {@code keep}.
+     */
+    private void evict(Path keep) {
+        try (Stream<Path> entries = Files.list(cacheRoot())) {
+            List<Path> sets = new ArrayList<>(entries.filter(Files::isDirectory)
+                .filter(dir -> !dir.getFileName().toString().contains(".tmp-"))
+                .toList());
+            long total = 0;
+            List<Long> sizes = new ArrayList<>();
+            sets.sort(Comparator.comparing(TestDataStore::lastUsed));
+            for (Path dir : sets) {
+                long size = size(dir);
+                sizes.add(size);
+                total += size;
+            }
+            for (int i = 0; i < sets.size() && total > workerProperties.getTestDataCacheMaxBytes(); i++) {
+                if (sets.get(i).equals(keep)) {
+                    continue;
+                }
+                // Checked and deleted under the lock, so that a set is not pinned while it goes
+                synchronized (pins) {
+                    if (pins.containsKey(sets.get(i).getFileName().toString())) {
+                        continue;
+                    }
+                    deleteQuietly(sets.get(i));
+                }
+                total -= sizes.get(i);
+            }
+        } catch (IOException e) {
+            logger.warn("test_data_cache_evict_failed error={}", e.getMessage());
+        }
+    }
+
+    private Path cacheRoot() {
+        return Paths.get(workerProperties.getTestDataCacheDir());
+    }
+
+    private static String fileName(String setId, int index) {
+        return setId + "/" + index;
+    }
+
+    private static int count(Integer count) {
+        return count != null ? count : 0;
+    }
+
+    private static void touch(Path dir) {
+        try {
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects eviction order
+        }
+    }
+
+    private static FileTime lastUsed(Path dir) {
+        try {
+            return Files.getLastModifiedTime(dir);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long size(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            long size = 0;
+            for (Path file : files.toList()) {
+                size += Files.size(file);
+            }
+            return size;
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            logger.warn("test_data_cache_delete_failed path={} error={}", dir, e.getMessage());
+        }
+    }
+}
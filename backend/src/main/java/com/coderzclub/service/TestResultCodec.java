@@ -0,0 +1,176 @@
+package com.coderzclub.service;
+
+import com.coderzclub.model.SubmissionJob;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Compact storage of a finished job's test results. Every test is recorded in a
+ * {@link SubmissionJob.ResultDigest} (passed and not-run bits, runtime, memory); full
+ * {@link SubmissionJob.TestResult}s are kept only for public tests, which are shown to the user,
+ * and for the first few failing hidden tests, which are needed to look into a verdict. Those
+ * hidden results keep SHA-256 hashes of their input and expected output instead of the data,
+ * which is in the job's test case set.
+ *
+ * Engines build results without test data and call {@link #identify} on each, so that a running
+ * job holds the data of its public and failed tests only.
+ *
+ * Readers go through {@link #expand(SubmissionJob)}, which returns one result per test whether or
+ * not the job was compacted.
+ */
+public final class TestResultCodec {
+
+    private TestResultCodec() {
+    }
+
+    /**
+     * Replace the job's results by a digest plus the detailed results. Does nothing if the job has
+     * no results or is already compacted.
+     */
+    public static void compact(SubmissionJob job, int maxFailureDetails) {
+        List<SubmissionJob.TestResult> results = job.getTestResults();
+        if (results == null || job.getResultDigest() != null) {
+            return;
+        }
+        int publicCount = job.countPublicTests();
+        SubmissionJob.ResultDigest digest = digest(results);
+        List<SubmissionJob.TestResult> detailed = new ArrayList<>();
+        int failureDetails = 0;
+        for (int i = 0; i < results.size(); i++) {
+            SubmissionJob.TestResult result = results.get(i);
+            if (i < publicCount) {
+                result.setIndex(i);
+                detailed.add(result);
+            } else if (!result.isPassed() && !result.isNotRun() && failureDetails < maxFailureDetails) {
+                failureDetails++;
+                result.setIndex(i);
+                if (result.getInputHash() == null) {
+                    // Results saved before engines identified them
+                    result.setInputHash(hash(result.getInput()));
+                    result.setExpectedOutputHash(hash(result.getExpectedOutput()));
+                }
+                result.setInput(null);
+                result.setExpectedOutput(null);
+                detailed.add(result);
+            }
+        }
+
+        job.setResultDigest(digest);
+        job.setTestResults(detailed);
+    }
+
+    /**
+     * Tie a fresh result to test {@code index} of {@code testCases}, public tests first. Public
+     * results get the test's input and expected output, which are shown to the user; a failed
+     * hidden result gets their hashes; other hidden results only the index. The test is read from
+     * {@code testCases} only in the first two cases.
+     */
+    public static void identify(SubmissionJob.TestResult result, List<SubmissionJob.TestCase> testCases,
+                                int index, int publicCount) {
+        result.setIndex(index);
+        result.setInput(null);
+        result.setExpectedOutput(null);
+        result.setInputHash(null);
+        result.setExpectedOutputHash(null);
+        if (index < publicCount) {
+            SubmissionJob.TestCase testCase = testCases.get(index);
+            result.setInput(testCase.getInput());
+            result.setExpectedOutput(testCase.getExpectedOutput());
+        } else if (!result.isPassed() && !result.isNotRun()) {
+            SubmissionJob.TestCase testCase = testCases.get(index);
+            result.setInputHash(hash(testCase.getInput()));
+            result.setExpectedOutputHash(hash(testCase.getExpectedOutput()));
+        }
+    }
+
+    /**
+     * The digest of a full list of results, one per test in test order.
+     */
+    public static SubmissionJob.ResultDigest digest(List<SubmissionJob.TestResult> results) {
+        BitSet passed = new BitSet(results.size());
+        BitSet notRun = new BitSet(results.size());
+        List<Long> runtimes = new ArrayList<>(results.size());
+        List<Long> memory = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            SubmissionJob.TestResult result = results.get(i);
+            passed.set(i, result.isPassed());
+            notRun.set(i, result.isNotRun());
+            runtimes.add(result.getRuntime());
+            memory.add(result.getMemory());
+        }
+        SubmissionJob.ResultDigest digest = new SubmissionJob.ResultDigest();
+        digest.setCount(results.size());
+        digest.setPassed(encode(passed));
+        digest.setNotRun(encode(notRun));
+        digest.setRuntimes(runtimes);
+        digest.setMemory(memory);
+        return digest;
+    }
+
+    /**
+     * One result per test, in test order. Tests stored only in the digest come back with their
+     * pass/not-run state, runtime and memory.
+     */
+    public static List<SubmissionJob.TestResult> expand(SubmissionJob job) {
+        SubmissionJob.ResultDigest digest = job.getResultDigest();
+        if (digest == null) {
+            return job.getTestResults();
+        }
+        SubmissionJob.TestResult[] results = new SubmissionJob.TestResult[digest.getCount()];
+        if (job.getTestResults() != null) {
+            for (SubmissionJob.TestResult result : job.getTestResults()) {
+                if (result.getIndex() != null && result.getIndex() >= 0 && result.getIndex() < results.length) {
+                    results[result.getIndex()] = result;
+                }
+            }
+        }
+        BitSet passed = decode(digest.getPassed());
+        BitSet notRun = decode(digest.getNotRun());
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+            result.setIndex(i);
+            result.setPassed(passed.get(i));
+            result.setRuntime(valueAt(digest.getRuntimes(), i));
+            result.setMemory(valueAt(digest.getMemory(), i));
+            if (notRun.get(i)) {
+                result.setErrorType(SubmissionJob.TestResult.NOT_RUN);
+            }
+            results[i] = result;
+        }
+        return new ArrayList<>(List.of(results));
+    }
+
+    static String hash(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String encode(BitSet bits) {
+        return Base64.getEncoder().encodeToString(bits.toByteArray());
+    }
+
+    private static BitSet decode(String bits) {
+        return bits != null ? BitSet.valueOf(Base64.getDecoder().decode(bits)) : new BitSet();
+    }
+
+    private static Long valueAt(List<Long> values, int index) {
+        return values != null && index < values.size() ? values.get(index) : null;
+    }
+}
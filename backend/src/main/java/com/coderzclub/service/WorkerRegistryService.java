@@ -0,0 +1,201 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.WorkerNode;
+import com.coderzclub.repository.WorkerNodeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers this worker node in {@code worker_nodes} under its stable node id and heartbeats its
+ * capacity and load. Every node also watches its peers: a node silent for
+ * {@code worker.nodeDeadAfterSeconds} is marked DEAD by exactly one peer, which requeues that
+ * node's jobs straight away instead of waiting for their leases to expire. Heartbeats run on their
+ * own thread, every {@code worker.nodeHeartbeatSeconds}.
+ */
+@Service
+public class WorkerRegistryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerRegistryService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WorkerNodeRepository workerNodeRepository;
+
+    @Autowired
+    private WorkerProperties workerProperties;
+
+    @Autowired
+    private JobLeaseManager leaseManager;
+
+    @Autowired
+    private SubmissionJobRecoveryService recoveryService;
+
+    private final Date startedAt = new Date();
+    private volatile boolean registered;
+    // Set by the worker autoscaler; 0 until the pool is first sized
+    private volatile int reportedCapacity;
+
+    private ScheduledExecutorService heartbeats;
+
+    @PostConstruct
+    public void init() {
+        // Own thread, not the shared @Scheduled pool: a long sweep there must not make peers
+        // declare this node dead
+        long intervalMs = TimeUnit.SECONDS.toMillis(Math.max(1, workerProperties.getNodeHeartbeatSeconds()));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-node-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void heartbeat() {
+        if (!workerProperties.isEnabled()) {
+            return;
+        }
+        String nodeId = workerProperties.getNodeId();
+        try {
+            register();
+
+            Date now = new Date();
+            Update update = new Update();
+            update.set("hostname", hostname());
+            update.set("engine", workerProperties.getEngine());
+            update.set("threadModel", workerProperties.getThreadModel().name());
+            update.set("capacity", capacity());
+            update.set("jobsInFlight", leaseManager.getHeldCount());
+            update.set("avgJobMs", leaseManager.getAverageJobMillis());
+            update.set("status", WorkerNode.NodeStatus.ACTIVE);
+            update.set("startedAt", startedAt);
+            update.set("lastHeartbeatAt", now);
+            update.set("stoppedAt", null);
+            mongoTemplate.upsert(Query.query(Criteria.where("id").is(nodeId)), update, WorkerNode.class);
+
+            detectDeadNodes(now);
+        } catch (Exception e) {
+            logger.warn("worker_node_heartbeat_failed nodeId={} error={}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Requeue the jobs left running by a previous run of this node, once. Called by the worker
+     * before it starts claiming jobs; jobs claimed after this node started are never touched, so a
+     * late call from the first heartbeat cannot take back a job this run is working on.
+     */
+    public synchronized void register() {
+        if (registered || !workerProperties.isEnabled()) {
+            return;
+        }
+        String nodeId = workerProperties.getNodeId();
+        // Jobs still locked by this id belong to a previous run of this node, which is gone
+        int requeued = recoveryService.requeueJobsOfWorker(nodeId, "Worker node " + nodeId + " restarted", startedAt);
+        registered = true;
+        logger.info("worker_node_registered nodeId={} requeuedJobs={}", nodeId, requeued);
+    }
+
+    void detectDeadNodes(Date now) {
+        String nodeId = workerProperties.getNodeId();
+        Date cutoff = new Date(now.getTime() - workerProperties.getNodeDeadAfterSeconds() * 1000);
+        Query silent = new Query();
+        silent.addCriteria(Criteria.where("status").is(WorkerNode.NodeStatus.ACTIVE));
+        silent.addCriteria(Criteria.where("lastHeartbeatAt").lt(cutoff));
+        silent.addCriteria(Criteria.where("id").ne(nodeId));
+
+        for (WorkerNode node : mongoTemplate.find(silent, WorkerNode.class)) {
+            // Conditional transition: only one peer declares the node dead and requeues its jobs
+            Query stillSilent = Query.query(Criteria.where("id").is(node.getId())
+                .and("status").is(WorkerNode.NodeStatus.ACTIVE)
+                .and("lastHeartbeatAt").lt(cutoff));
+            Update markDead = new Update()
+                .set("status", WorkerNode.NodeStatus.DEAD)
+                .set("jobsInFlight", 0)
+                .set("stoppedAt", now);
+            if (mongoTemplate.updateFirst(stillSilent, markDead, WorkerNode.class).getModifiedCount() == 0) {
+                continue;
+            }
+            int requeued = recoveryService.requeueJobsOfWorker(node.getId(),
+                "Worker node " + node.getId() + " stopped heartbeating");
+            logger.warn("worker_node_dead nodeId={} lastHeartbeatAt={} requeuedJobs={} detectedBy={}",
+                node.getId(), node.getLastHeartbeatAt(), requeued, nodeId);
+        }
+    }
+
+    @PreDestroy
+    public void deregister() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        if (!workerProperties.isEnabled() || !registered) {
+            return;
+        }
+        try {
+            // Jobs interrupted by the shutdown are requeued by this id's next start or by lease expiry
+            Update update = new Update()
+                .set("status", WorkerNode.NodeStatus.STOPPED)
+                .set("stoppedAt", new Date());
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(workerProperties.getNodeId())), update, WorkerNode.class);
+        } catch (Exception e) {
+            logger.warn("worker_node_deregister_failed nodeId={} error={}", workerProperties.getNodeId(), e.getMessage());
+        }
+    }
+
+    /**
+     * All known nodes, most recently seen first.
+     */
+    public List<WorkerNode> listNodes() {
+        return workerNodeRepository.findAllByOrderByLastHeartbeatAtDesc();
+    }
+
+    /**
+     * Nodes currently heartbeating.
+     */
+    public List<WorkerNode> listActiveNodes() {
+        return workerNodeRepository.findByStatus(WorkerNode.NodeStatus.ACTIVE);
+    }
+
+    /**
+     * Record the number of jobs this node runs at once after the worker pool was resized.
+     */
+    public void reportCapacity(int capacity) {
+        reportedCapacity = capacity;
+    }
+
+    /**
+     * Jobs this node runs at once.
+     */
+    public int capacity() {
+        if (reportedCapacity > 0) {
+            return reportedCapacity;
+        }
+        return workerProperties.getThreadModel() == WorkerProperties.ThreadModel.ELASTIC
+            ? Math.max(1, workerProperties.getMaxJobsInFlight())
+            : Math.max(1, workerProperties.getConcurrency());
+    }
+
+    private static String hostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
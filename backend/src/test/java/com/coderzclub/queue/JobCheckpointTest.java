@@ -0,0 +1,115 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.TestCaseSet;
+import com.coderzclub.service.SubmissionJobLeaseService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobCheckpointTest {
+
+    @Test
+    void retriedJobOnlyRunsTestsAfterTheSavedPrefix() {
+        SubmissionJob job = job(2, 3);
+        job.setTestResults(new ArrayList<>(List.of(passed("0"), passed("1"), passed("2"))));
+        job.setCompletedTests(3);
+
+        JobCheckpoint checkpoint = JobCheckpoint.resumeFrom(job, "node-a", mock(SubmissionJobLeaseService.class), 0, Runnable::run);
+
+        assertEquals(3, checkpoint.getRestoredCount());
+        TestCaseSet testSet = testSet(job);
+        assertEquals(0, checkpoint.remainingPublic(testSet).size());
+        assertEquals(List.of("3", "4"), checkpoint.remainingHidden(testSet).stream().map(SubmissionJob.TestCase::getInput).toList());
+        assertEquals(5, checkpoint.merge(List.of(passed("3"), passed("4"))).size());
+    }
+
+    @Test
+    void savesOnlyTheFinishedPrefixAfterTheRestoredTests() {
+        SubmissionJobLeaseService leaseService = mock(SubmissionJobLeaseService.class);
+        when(leaseService.checkpointTestResults(eq("job-1"), eq("node-a"), eq(1), anyInt(), anyList())).thenReturn(true);
+        SubmissionJob job = job(1, 4);
+        job.setTestResults(new ArrayList<>(List.of(passed("0"))));
+        job.setCompletedTests(1);
+        JobCheckpoint checkpoint = JobCheckpoint.resumeFrom(job, "node-a", leaseService, 0, Runnable::run);
+
+        // Out of order: test 2 finishes first and is saved together with test 1
+        checkpoint.onResult(1, passed("2"));
+        verify(leaseService, never()).checkpointTestResults(eq("job-1"), eq("node-a"), eq(1), anyInt(), anyList());
+        checkpoint.onResult(0, passed("1"));
+        verify(leaseService).checkpointTestResults(eq("job-1"), eq("node-a"), eq(1), eq(1),
+            argThat(results -> results.stream().map(SubmissionJob.TestResult::getInput).toList().equals(List.of("1", "2"))));
+
+        // A judge failure is not a verdict: the test reruns on the next attempt
+        SubmissionJob.TestResult unreachable = passed("3");
+        unreachable.setPassed(false);
+        unreachable.setErrorType("Execution Error");
+        checkpoint.onResult(2, unreachable);
+        checkpoint.onResult(3, passed("4"));
+
+        assertEquals(3, checkpoint.finishedResults().size());
+    }
+
+    @Test
+    void resultsAreRecordedWhileACheckpointIsBeingWritten() throws Exception {
+        SubmissionJobLeaseService leaseService = mock(SubmissionJobLeaseService.class);
+        SubmissionJob job = job(0, 3);
+        JobCheckpoint checkpoint = JobCheckpoint.resumeFrom(job, "node-a", leaseService, 0, Runnable::run);
+        // A slow write: another result arrives from another thread before it returns
+        when(leaseService.checkpointTestResults(eq("job-1"), eq("node-a"), eq(1), eq(0), anyList())).thenAnswer(invocation -> {
+            Thread other = new Thread(() -> checkpoint.onResult(1, passed("1")));
+            other.start();
+            other.join(5000);
+            assertFalse(other.isAlive());
+            return true;
+        });
+
+        checkpoint.onResult(0, passed("0"));
+
+        assertEquals(2, checkpoint.finishedResults().size());
+        // Only one write at a time: the second result waits for the next one
+        verify(leaseService).checkpointTestResults(eq("job-1"), eq("node-a"), eq(1), anyInt(), anyList());
+    }
+
+    private static SubmissionJob job(int publicTests, int hiddenTests) {
+        SubmissionJob job = new SubmissionJob();
+        job.setId("job-1");
+        job.setAttemptCount(1);
+        List<SubmissionJob.TestCase> publicCases = new ArrayList<>();
+        List<SubmissionJob.TestCase> hiddenCases = new ArrayList<>();
+        for (int i = 0; i < publicTests + hiddenTests; i++) {
+            SubmissionJob.TestCase testCase = new SubmissionJob.TestCase(String.valueOf(i), String.valueOf(i), null);
+            (i < publicTests ? publicCases : hiddenCases).add(testCase);
+        }
+        job.setPublicTestCases(publicCases);
+        job.setHiddenTestCases(hiddenCases);
+        job.setTotalTests(publicTests + hiddenTests);
+        return job;
+    }
+
+    private static TestCaseSet testSet(SubmissionJob job) {
+        TestCaseSet testSet = new TestCaseSet();
+        testSet.setPublicTestCases(job.getPublicTestCases());
+        testSet.setHiddenTestCases(job.getHiddenTestCases());
+        return testSet;
+    }
+
+    private static SubmissionJob.TestResult passed(String input) {
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setInput(input);
+        result.setPassed(true);
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.QueueProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisStreamSubmissionQueueConsumerTest {
+
+    private static final String STREAM = "submission:jobs";
+    private static final String GROUP = "submission-workers";
+
+    private StreamOperations<String, Object, Object> streams;
+    private RedisStreamSubmissionQueueConsumer consumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        streams = mock(StreamOperations.class);
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        when(redis.opsForStream()).thenReturn(streams);
+        when(streams.pending(eq(STREAM), eq(GROUP), any(Range.class), anyLong()))
+            .thenReturn(new PendingMessages(GROUP, List.of()));
+
+        QueueProperties properties = new QueueProperties();
+        properties.setConsumerName("node-a");
+        consumer = new RedisStreamSubmissionQueueConsumer();
+        ReflectionTestUtils.setField(consumer, "redis", redis);
+        ReflectionTestUtils.setField(consumer, "queueProperties", properties);
+        ReflectionTestUtils.setField(consumer, "scheduler", new SubmissionScheduler(properties));
+        consumer.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsThroughConsumerGroupAndAcknowledgesCompletedJobs() {
+        when(streams.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset[].class)))
+            .thenReturn(List.of(record("1-0", "job-1")));
+
+        assertEquals("job-1", consumer.consumeJob(1));
+        verify(streams).read(eq(Consumer.from(GROUP, "node-a")), any(StreamReadOptions.class), any(StreamOffset[].class));
+
+        consumer.acknowledge("job-1");
+        consumer.acknowledge("job-1");
+        verify(streams, times(1)).acknowledge(STREAM, GROUP, RecordId.of("1-0"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claimsEntriesLeftPendingByCrashedConsumers() {
+        PendingMessage stale = new PendingMessage(RecordId.of("1-0"), Consumer.from(GROUP, "node-b"), Duration.ofMinutes(10), 1);
+        PendingMessage fresh = new PendingMessage(RecordId.of("2-0"), Consumer.from(GROUP, "node-c"), Duration.ofSeconds(5), 1);
+        PendingMessage poison = new PendingMessage(RecordId.of("3-0"), Consumer.from(GROUP, "node-b"), Duration.ofMinutes(10), 9);
+        when(streams.pending(eq(STREAM), eq(GROUP), any(Range.class), anyLong()))
+            .thenReturn(new PendingMessages(GROUP, List.of(stale, fresh, poison)));
+        when(streams.claim(eq(STREAM), eq(GROUP), eq("node-a"), any(Duration.class), any(RecordId[].class)))
+            .thenReturn(List.of(record("1-0", "job-1")));
+
+        assertEquals("job-1", consumer.consumeJob(1));
+
+        verify(streams).claim(STREAM, GROUP, "node-a", Duration.ofSeconds(180), RecordId.of("1-0"));
+        verify(streams).acknowledge(STREAM, GROUP, RecordId.of("3-0"));
+        verify(streams, never()).read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset[].class));
+
+        consumer.acknowledge("job-1");
+        verify(streams).acknowledge(STREAM, GROUP, RecordId.of("1-0"));
+    }
+
+    private static MapRecord<String, Object, Object> record(String id, String jobId) {
+        return StreamRecords.<String, Object, Object>mapBacked(Map.of(RedisStreamSubmissionQueuePublisher.JOB_ID_FIELD, jobId))
+            .withStreamKey(STREAM)
+            .withId(RecordId.of(id));
+    }
+}
@@ -0,0 +1,171 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.config.QueueProperties;
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.repository.SubmissionJobRepository;
+import com.coderzclub.service.ExecutionEngine;
+import com.coderzclub.service.JobLeaseManager;
+import com.coderzclub.service.Judge0CircuitBreaker;
+import com.coderzclub.service.Judge0RateLimiter;
+import com.coderzclub.service.SubmissionJobLeaseService;
+import com.coderzclub.service.SubmissionService;
+import com.coderzclub.service.WorkerRegistryService;
+import com.coderzclub.support.FakeJudge0Server;
+import com.coderzclub.support.Judge0ServiceFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives queue -> worker -> judge end to end against {@link FakeJudge0Server}, with the Mongo-backed
+ * collaborators mocked, and reports submissions/sec and latency percentiles.
+ */
+class SubmissionPipelineLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionPipelineLoadTest.class);
+
+    private static final int JOBS = 60;
+    private static final int TESTS_PER_JOB = 8;
+
+    private FakeJudge0Server judge0;
+    private WorkerProperties workerProperties;
+    private final Map<String, SubmissionJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Long> publishedAt = new ConcurrentHashMap<>();
+    private final List<Long> latenciesMs = Collections.synchronizedList(new ArrayList<>());
+    private CountDownLatch completed;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        judge0 = new FakeJudge0Server().latency(FakeJudge0Server.logNormalLatency(5, 0.5));
+        workerProperties = new WorkerProperties();
+        workerProperties.setConcurrency(4);
+        workerProperties.setPollTimeoutSeconds(1);
+        completed = new CountDownLatch(JOBS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerProperties.setEnabled(false);
+        judge0.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(WorkerProperties.ThreadModel.class)
+    void pipelineCompletesEveryJob(WorkerProperties.ThreadModel threadModel) throws Exception {
+        workerProperties.setThreadModel(threadModel);
+        workerProperties.setMaxJobsInFlight(32);
+        InMemorySubmissionQueuePublisher publisher = new InMemorySubmissionQueuePublisher(new SubmissionScheduler(new QueueProperties()));
+        SubmissionWorker worker = newWorker(publisher, Judge0Properties.Mode.PARALLEL);
+
+        long started = System.nanoTime();
+        worker.startWorkers();
+        for (int i = 0; i < JOBS; i++) {
+            SubmissionJob job = newJob("job-" + i);
+            jobs.put(job.getId(), job);
+            publishedAt.put(job.getId(), System.nanoTime());
+            publisher.publishJob(job);
+        }
+
+        assertTrue(completed.await(60, TimeUnit.SECONDS), "jobs left: " + completed.getCount());
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latenciesMs);
+        Collections.sort(sorted);
+        logger.info("pipeline_load threadModel={} jobs={} testsPerJob={} submissionsPerSec={} p50Ms={} p99Ms={} judgeRequests={}",
+            threadModel, JOBS, TESTS_PER_JOB, String.format("%.1f", JOBS / elapsedSeconds),
+            percentile(sorted, 0.50), percentile(sorted, 0.99), judge0.getRequestCount());
+
+        assertEquals(JOBS, sorted.size());
+        assertTrue(jobs.values().stream().allMatch(job -> "ACCEPTED".equals(job.getFinalResult())));
+    }
+
+    private SubmissionWorker newWorker(InMemorySubmissionQueuePublisher publisher, Judge0Properties.Mode mode) {
+        SubmissionJobLeaseService leaseService = mock(SubmissionJobLeaseService.class);
+        when(leaseService.claimJob(anyString(), anyString(), anyLong()))
+            .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        when(leaseService.checkpointTestResults(anyString(), anyString(), any(), anyInt(), anyList())).thenReturn(true);
+        when(leaseService.finishJob(any(SubmissionJob.class), anyString())).thenAnswer(invocation -> {
+            SubmissionJob job = invocation.getArgument(0);
+            if (job.getStatus() == SubmissionJob.JobStatus.COMPLETED) {
+                latenciesMs.add((System.nanoTime() - publishedAt.get(job.getId())) / 1_000_000);
+                completed.countDown();
+            }
+            return true;
+        });
+
+        SubmissionJobRepository jobRepository = mock(SubmissionJobRepository.class);
+
+        ExecutionEngine engine = Judge0ServiceFactory.create(judge0, mode, workerProperties);
+
+        SubmissionWorker worker = new SubmissionWorker();
+        ReflectionTestUtils.setField(worker, "consumer", new InMemorySubmissionQueueConsumer(publisher));
+        ReflectionTestUtils.setField(worker, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(worker, "leaseService", leaseService);
+        JobLeaseManager leaseManager = new JobLeaseManager();
+        ReflectionTestUtils.setField(leaseManager, "leaseService", leaseService);
+        ReflectionTestUtils.setField(leaseManager, "workerProperties", workerProperties);
+        ReflectionTestUtils.setField(worker, "leaseManager", leaseManager);
+        ReflectionTestUtils.setField(worker, "executionEngines", List.of(engine));
+        ReflectionTestUtils.setField(worker, "submissionService", mock(SubmissionService.class));
+        ReflectionTestUtils.setField(worker, "workerProperties", workerProperties);
+        Judge0Properties judge0Properties = new Judge0Properties();
+        judge0Properties.setMode(mode);
+        ReflectionTestUtils.setField(worker, "judge0Properties", judge0Properties);
+        ReflectionTestUtils.setField(worker, "workerRegistryService", mock(WorkerRegistryService.class));
+        ReflectionTestUtils.setField(worker, "judge0RateLimiter", mock(Judge0RateLimiter.class));
+        ReflectionTestUtils.setField(worker, "judge0CircuitBreaker", mock(Judge0CircuitBreaker.class));
+        return worker;
+    }
+
+    private SubmissionJob newJob(String id) {
+        SubmissionJob job = new SubmissionJob();
+        job.setId(id);
+        job.setUserId("user-" + id);
+        job.setProblemId("problem-1");
+        // Distinct source per job so the result cache does not short-circuit the judge
+        job.setCode("print(input())  # " + id);
+        job.setLanguageId(71);
+        List<SubmissionJob.TestCase> hidden = new ArrayList<>();
+        for (int i = 0; i < TESTS_PER_JOB; i++) {
+            hidden.add(new SubmissionJob.TestCase(String.valueOf(i), String.valueOf(i), null));
+        }
+        job.setPublicTestCases(List.of());
+        job.setHiddenTestCases(hidden);
+        job.setTotalTests(hidden.size());
+        job.setAttemptCount(1);
+        return job;
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.QueueProperties;
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionQueueRehydratorTest {
+
+    @Test
+    void queuesWaitingJobsPageByPageSkippingOnesAlreadyQueued() throws Exception {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(SubmissionJob.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.find(any(Query.class), eq(SubmissionJob.class)))
+            .thenReturn(List.of(job("j1", 1_000), job("j2", 2_000)))
+            .thenReturn(List.of(job("j3", 3_000)));
+        WorkerProperties workerProperties = new WorkerProperties();
+        workerProperties.setRecoveryBatchSize(2);
+        SubmissionScheduler scheduler = new SubmissionScheduler(new QueueProperties());
+        // Published by a submission while the rehydration was running
+        scheduler.offer("j2", "user-j2", SubmissionJob.Priority.STANDARD, 1, System.currentTimeMillis());
+
+        SubmissionQueueRehydrator rehydrator = new SubmissionQueueRehydrator();
+        ReflectionTestUtils.setField(rehydrator, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(rehydrator, "scheduler", scheduler);
+        ReflectionTestUtils.setField(rehydrator, "workerProperties", workerProperties);
+
+        assertEquals(2, rehydrator.rehydrate());
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(SubmissionJob.class));
+        assertEquals(3, scheduler.size());
+        for (int i = 0; i < 3; i++) {
+            scheduler.poll(0, TimeUnit.MILLISECONDS);
+        }
+        assertNull(scheduler.poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    private static SubmissionJob job(String id, long createdAtMs) {
+        SubmissionJob job = new SubmissionJob();
+        job.setId(id);
+        job.setUserId("user-" + id);
+        job.setTotalTests(1);
+        job.setCreatedAt(new Date(createdAtMs));
+        return job;
+    }
+}
@@ -0,0 +1,89 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.QueueProperties;
+import com.coderzclub.model.SubmissionJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionSchedulerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private SubmissionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new SubmissionScheduler(new QueueProperties(), now::get);
+    }
+
+    @Test
+    void burstFromOneUserIsInterleavedWithOtherUsers() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            offer("a" + i, "alice", SubmissionJob.Priority.STANDARD, 10);
+        }
+        offer("b1", "bob", SubmissionJob.Priority.STANDARD, 10);
+        offer("c1", "carol", SubmissionJob.Priority.STANDARD, 10);
+
+        assertEquals(List.of("a1", "b1", "c1", "a2", "a3", "a4"), drain());
+        assertTrue(scheduler.offer("a5", "alice", SubmissionJob.Priority.STANDARD, 10, now.get()));
+        assertFalse(scheduler.offer("a5", "alice", SubmissionJob.Priority.STANDARD, 10, now.get()));
+    }
+
+    @Test
+    void interactiveAndShortJobsGoFirstButLongJobsAge() throws Exception {
+        offer("huge", "alice", SubmissionJob.Priority.STANDARD, 500);
+        offer("small", "bob", SubmissionJob.Priority.STANDARD, 5);
+        offer("run", "carol", SubmissionJob.Priority.INTERACTIVE, 10);
+        offer("premium", "dave", SubmissionJob.Priority.PREMIUM, 10);
+        assertEquals(List.of("run", "premium", "small"), List.of(poll(), poll(), poll()));
+
+        // A minute later the long job has waited past its tag: newcomers no longer overtake it
+        now.addAndGet(60_000);
+        offer("late", "erin", SubmissionJob.Priority.STANDARD, 1);
+        assertEquals(List.of("huge", "late"), drain());
+    }
+
+    @Test
+    void recordsWaitTimePerClass() throws Exception {
+        offer("run", "carol", SubmissionJob.Priority.INTERACTIVE, 1);
+        offer("job", "alice", SubmissionJob.Priority.STANDARD, 1);
+        now.addAndGet(250);
+        drain();
+
+        Map<String, Object> stats = scheduler.getStats();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> interactive = (Map<String, Object>) stats.get("INTERACTIVE");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> premium = (Map<String, Object>) stats.get("PREMIUM");
+        assertEquals(1L, interactive.get("dispatched"));
+        assertEquals(250L, interactive.get("maxWaitMs"));
+        assertEquals(0L, premium.get("dispatched"));
+        assertNull(scheduler.poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    private void offer(String jobId, String userId, SubmissionJob.Priority priority, int totalTests) {
+        scheduler.offer(jobId, userId, priority, totalTests, now.get());
+    }
+
+    private String poll() throws InterruptedException {
+        return scheduler.poll(0, TimeUnit.MILLISECONDS);
+    }
+
+    private List<String> drain() throws InterruptedException {
+        List<String> order = new ArrayList<>();
+        for (String jobId = poll(); jobId != null; jobId = poll()) {
+            order.add(jobId);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,71 @@
+package com.coderzclub.queue;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.config.WorkerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkerAutoscalerTest {
+
+    @Test
+    void growsWithTheBacklogUpToWhatTheJudgeSustains() {
+        WorkerProperties properties = properties();
+        WorkerAutoscaler autoscaler = new WorkerAutoscaler(properties, judge0(Judge0Properties.Mode.PARALLEL), 0, 0);
+
+        // 2 running + 60 queued jobs of 2s, drained in 30s: 2 + 4 workers
+        assertEquals(6, autoscaler.decide(2, 2, 60, 2000, 0, 0, 0, 100));
+        // Judge at 10 req/s with 1.2s calls holds 12 calls, 4 per job: 3 jobs
+        assertEquals(3, autoscaler.decide(6, 2, 60, 2000, 10, 1200, 0, 200));
+        // Empty queue: close half the gap per decision, never below the floor
+        assertEquals(2, autoscaler.decide(3, 0, 0, 2000, 10, 1200, 0, 300));
+        assertEquals(1, autoscaler.decide(2, 0, 0, 2000, 10, 1200, 0, 400));
+        assertEquals(1, autoscaler.decide(1, 0, 0, 2000, 10, 1200, 0, 500));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> decisions = (List<Map<String, Object>>) autoscaler.getStats(1).get("recentDecisions");
+        assertEquals(List.of("queue_depth", "judge_capacity", "idle", "idle"),
+            decisions.stream().map(decision -> decision.get("reason")).toList());
+    }
+
+    @Test
+    void shrinksWhenTheJudgeThrottlesAndStaysWithinBounds() {
+        WorkerProperties properties = properties();
+        properties.setAutoscaleMax(10);
+        WorkerAutoscaler autoscaler = new WorkerAutoscaler(properties, judge0(Judge0Properties.Mode.PARALLEL), 5, 0);
+
+        assertEquals(10, autoscaler.decide(4, 4, 1000, 1000, 0, 0, 5, 50));
+        // 10 of the last 100 calls were throttled
+        assertEquals(8, autoscaler.decide(10, 10, 1000, 1000, 0, 0, 15, 140));
+        // No new throttling: back to the demand, capped at max
+        assertEquals(10, autoscaler.decide(8, 8, 1000, 1000, 0, 0, 15, 240));
+    }
+
+    @Test
+    void judgeCapCountsOneCallPerJobOutsideParallelMode() {
+        // Judge at 10 req/s with 1.2s calls holds 12 calls; one at a time per job: 12 jobs
+        WorkerAutoscaler sequential = new WorkerAutoscaler(properties(), judge0(Judge0Properties.Mode.SEQUENTIAL), 0, 0);
+        assertEquals(12, sequential.decide(6, 2, 600, 2000, 10, 1200, 0, 100));
+        // A batch submit or poll is one call, however many tests it carries
+        WorkerAutoscaler batch = new WorkerAutoscaler(properties(), judge0(Judge0Properties.Mode.BATCH), 0, 0);
+        assertEquals(12, batch.decide(6, 2, 600, 2000, 10, 1200, 0, 100));
+    }
+
+    private static Judge0Properties judge0(Judge0Properties.Mode mode) {
+        Judge0Properties properties = new Judge0Properties();
+        properties.setMode(mode);
+        return properties;
+    }
+
+    private static WorkerProperties properties() {
+        WorkerProperties properties = new WorkerProperties();
+        properties.setAutoscaleMin(1);
+        properties.setAutoscaleMax(64);
+        properties.setAutoscaleDrainSeconds(30);
+        properties.setMaxInFlightPerJob(4);
+        return properties;
+    }
+}
@@ -0,0 +1,89 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.AdmissionProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.WorkerNode;
+import com.coderzclub.repository.SubmissionJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlServiceTest {
+
+    private SubmissionJobRepository jobRepository;
+    private WorkerRegistryService workerRegistryService;
+    private AdmissionProperties properties;
+    private AdmissionControlService admission;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(SubmissionJobRepository.class);
+        workerRegistryService = mock(WorkerRegistryService.class);
+        properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.setSloSeconds(60);
+        properties.setRefreshMs(60_000);
+
+        admission = new AdmissionControlService();
+        ReflectionTestUtils.setField(admission, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(admission, "workerRegistryService", workerRegistryService);
+        ReflectionTestUtils.setField(admission, "admissionProperties", properties);
+    }
+
+    @Test
+    void estimatesWaitFromQueueDepthAndMeasuredJobTimes() {
+        when(jobRepository.countByStatus(SubmissionJob.JobStatus.QUEUED)).thenReturn(30L);
+        when(jobRepository.countByStatus(SubmissionJob.JobStatus.RETRYING)).thenReturn(10L);
+        // 8 slots; only node-a has finished jobs yet, 4s each
+        when(workerRegistryService.listActiveNodes()).thenReturn(List.of(node(4, 4000), node(4, 0)));
+
+        AdmissionDecision first = admission.tryAdmit();
+        assertTrue(first.isAdmitted());
+        assertEquals(20, first.getEstimatedWaitSeconds());
+        // The admitted job counts towards the cached depth until the next refresh
+        assertEquals(21, admission.tryAdmit().getEstimatedWaitSeconds());
+    }
+
+    @Test
+    void releasedJobsNoLongerCountTowardsTheWait() {
+        when(jobRepository.countByStatus(SubmissionJob.JobStatus.QUEUED)).thenReturn(30L);
+        when(jobRepository.countByStatus(SubmissionJob.JobStatus.RETRYING)).thenReturn(10L);
+        when(workerRegistryService.listActiveNodes()).thenReturn(List.of(node(4, 4000), node(4, 0)));
+
+        assertEquals(20, admission.tryAdmit().getEstimatedWaitSeconds());
+        admission.release();
+
+        assertEquals(20, admission.tryAdmit().getEstimatedWaitSeconds());
+    }
+
+    @Test
+    void rejectsWhenWaitExceedsSloAndFallsBackToLocalCapacity() {
+        when(jobRepository.countByStatus(SubmissionJob.JobStatus.QUEUED)).thenReturn(100L);
+        when(workerRegistryService.listActiveNodes()).thenReturn(List.of());
+        when(workerRegistryService.capacity()).thenReturn(5);
+
+        AdmissionDecision decision = admission.tryAdmit();
+
+        assertFalse(decision.isAdmitted());
+        assertEquals(100, decision.getEstimatedWaitSeconds());
+        assertEquals(40, decision.getRetryAfterSeconds());
+
+        properties.setEnabled(false);
+        assertTrue(admission.tryAdmit().isAdmitted());
+    }
+
+    private static WorkerNode node(int capacity, long avgJobMs) {
+        WorkerNode node = new WorkerNode();
+        node.setCapacity(capacity);
+        node.setAvgJobMs(avgJobMs);
+        return node;
+    }
+}
@@ -0,0 +1,120 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.support.Judge0ServiceFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionResultCacheTest {
+
+    private static final OutputChecker EXACT = OutputCheckers.exact();
+    private static final SubmissionJob.TestCase TEST_CASE = new SubmissionJob.TestCase("1 2", "3", null);
+
+    private Judge0Properties properties;
+    private ExecutionResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new Judge0Properties();
+        properties.setResultCacheMaxEntries(2);
+        cache = Judge0ServiceFactory.resultCache(properties);
+    }
+
+    @Test
+    void keyIgnoresLineEndingsButNotLimitsCheckerOrTestContent() {
+        String key = cache.key(71, "print(1)\n", TEST_CASE, "2s", EXACT);
+
+        assertEquals(key, cache.key(71, "print(1)\r\n\n", TEST_CASE, "2s", EXACT));
+        assertNotEquals(key, cache.key(71, "print(1)\n", TEST_CASE, "5s", EXACT));
+        assertNotEquals(key, cache.key(54, "print(1)\n", TEST_CASE, "2s", EXACT));
+        assertNotEquals(key, cache.key(71, "print(1)\n", new SubmissionJob.TestCase("1 2", "4", null), "2s", EXACT));
+        assertNotEquals(key, cache.key(71, "print(1)\n", TEST_CASE, "2s", OutputCheckers.token()));
+        assertNotEquals(cache.key(71, "print(1)\n", TEST_CASE, "2s", OutputCheckers.floatingPoint(1e-6)),
+            cache.key(71, "print(1)\n", TEST_CASE, "2s", OutputCheckers.floatingPoint(1e-3)));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        cache.put("a", passed());
+        cache.put("b", passed());
+        assertNotNull(cache.get("a"));
+
+        cache.put("c", passed());
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        properties.setResultCacheTtlSeconds(0);
+        cache.put("a", passed());
+
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void onlyDeterministicVerdictsAreStoredAndHitsAreCopies() {
+        SubmissionJob.TestResult timeout = passed();
+        timeout.setPassed(false);
+        timeout.setErrorType("Time Limit Exceeded");
+        cache.put("timeout", timeout);
+        assertNull(cache.get("timeout"));
+
+        SubmissionJob.TestResult result = passed();
+        cache.put("ok", result);
+        SubmissionJob.TestResult hit = cache.get("ok");
+        assertNotSame(result, hit);
+        assertEquals("3", hit.getActualOutput());
+    }
+
+    @Test
+    void redisEntriesCarryNoTestData() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        ReflectionTestUtils.setField(cache, "redis", redis);
+        properties.setResultCacheRedisEnabled(true);
+        SubmissionJob.TestResult result = passed();
+        result.setInputHash("abc");
+
+        cache.put("ok", result);
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(values).set(eq("judge0:result:ok"), json.capture(), any(Duration.class));
+        assertFalse(json.getValue().contains("1 2"));
+        assertFalse(json.getValue().contains("abc"));
+        assertTrue(json.getValue().contains("\"actualOutput\":\"3\""));
+    }
+
+    private static SubmissionJob.TestResult passed() {
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setInput("1 2");
+        result.setExpectedOutput("3");
+        result.setActualOutput("3");
+        result.setPassed(true);
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobLeaseManagerTest {
+
+    private SubmissionJobLeaseService leaseService;
+    private JobLeaseManager leaseManager;
+
+    @BeforeEach
+    void setUp() {
+        leaseService = mock(SubmissionJobLeaseService.class);
+        leaseManager = new JobLeaseManager();
+        ReflectionTestUtils.setField(leaseManager, "leaseService", leaseService);
+        ReflectionTestUtils.setField(leaseManager, "workerProperties", new WorkerProperties());
+    }
+
+    @Test
+    void renewsAllHeldLeasesWithOneCall() {
+        when(leaseService.renewLeases(eq(leaseManager.getWorkerId()), anyCollection(), anyLong()))
+            .thenAnswer(invocation -> new HashSet<>(invocation.<Collection<String>>getArgument(1)));
+        for (int i = 0; i < 50; i++) {
+            leaseManager.track("job-" + i, null);
+        }
+
+        leaseManager.renewAll();
+
+        verify(leaseService, times(1)).renewLeases(eq(leaseManager.getWorkerId()), anyCollection(), eq(60L));
+        assertEquals(50, leaseManager.getHeldCount());
+    }
+
+    @Test
+    void lostLeaseIsReportedToItsJobOnce() {
+        when(leaseService.renewLeases(eq(leaseManager.getWorkerId()), anyCollection(), anyLong()))
+            .thenReturn(Set.of("job-1"));
+        AtomicInteger aborted = new AtomicInteger();
+        JobLeaseManager.Lease kept = leaseManager.track("job-1", aborted::incrementAndGet);
+        JobLeaseManager.Lease lost = leaseManager.track("job-2", aborted::incrementAndGet);
+        JobLeaseManager.Lease finished = leaseManager.track("job-3", aborted::incrementAndGet);
+        leaseManager.release(finished);
+
+        leaseManager.renewAll();
+        leaseManager.renewAll();
+
+        assertTrue(lost.isLost());
+        assertFalse(kept.isLost());
+        assertFalse(finished.isLost());
+        assertEquals(1, aborted.get());
+        assertEquals(1, leaseManager.getHeldCount());
+    }
+}
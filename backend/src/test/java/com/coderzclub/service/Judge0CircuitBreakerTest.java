@@ -0,0 +1,85 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.support.Judge0ServiceFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Judge0CircuitBreakerTest {
+
+    private Judge0Properties properties;
+    private Judge0CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new Judge0Properties();
+        properties.setCircuitWindowSize(10);
+        properties.setCircuitMinimumCalls(4);
+        properties.setCircuitFailureRateThreshold(50);
+        properties.setCircuitSlowCallThresholdMs(1000);
+        properties.setCircuitSlowCallRateThreshold(75);
+        properties.setCircuitOpenDurationMs(100);
+        properties.setCircuitHalfOpenProbes(2);
+        breaker = Judge0ServiceFactory.circuitBreaker(properties);
+    }
+
+    @Test
+    void opensOnceFailureRateCrossesThreshold() {
+        record(10, false);
+        record(10, true);
+        record(10, false);
+        assertEquals(Judge0CircuitBreaker.State.CLOSED, breaker.getState());
+
+        record(10, true);
+
+        assertEquals(Judge0CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertThrows(Judge0CircuitBreaker.CallNotPermittedException.class, breaker::acquirePermission);
+    }
+
+    @Test
+    void opensOnSlowCalls() {
+        for (int i = 0; i < 4; i++) {
+            record(5000, false);
+        }
+
+        assertEquals(Judge0CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbesCloseOrReopenTheCircuit() throws Exception {
+        tripOpen();
+        Thread.sleep(150);
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(Judge0CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission(), "only two probes are allowed");
+        breaker.onResult(10, false);
+        breaker.onResult(10, false);
+        assertEquals(Judge0CircuitBreaker.State.CLOSED, breaker.getState());
+
+        tripOpen();
+        Thread.sleep(150);
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(10, true);
+        assertEquals(Judge0CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) {
+            record(10, true);
+        }
+        assertEquals(Judge0CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void record(long durationMs, boolean failed) {
+        breaker.acquirePermission();
+        breaker.onResult(durationMs, failed);
+    }
+}
@@ -0,0 +1,229 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.support.FakeJudge0Server;
+import com.coderzclub.support.Judge0ServiceFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Judge0ExecutionServiceTest {
+
+    private FakeJudge0Server judge0;
+    private WorkerProperties workerProperties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        judge0 = new FakeJudge0Server().requireApiKey(Judge0ServiceFactory.API_KEY);
+        workerProperties = new WorkerProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        judge0.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Judge0Properties.Mode.class)
+    void resultsMapBackToTestCasesInOrder(Judge0Properties.Mode mode) {
+        judge0.latency(FakeJudge0Server.uniformLatency(1, 10)).verdicts(submission -> switch (submission.stdin) {
+            case "crash" -> FakeJudge0Server.Verdict.runtimeError("Traceback");
+            case "wrong" -> FakeJudge0Server.Verdict.accepted("nope");
+            default -> FakeJudge0Server.Verdict.accepted(submission.stdin);
+        });
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, mode, workerProperties);
+
+        List<SubmissionJob.TestResult> results = service.executeTestCases("code", 71,
+            List.of(testCase("1"), testCase("wrong")),
+            List.of(testCase("crash"), testCase("4")));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isPassed());
+        assertFalse(results.get(1).isPassed());
+        assertEquals("nope", results.get(1).getActualOutput());
+        assertEquals("Runtime Error", results.get(2).getErrorType());
+        assertTrue(results.get(3).isPassed());
+        // Results carry test data for public tests only; hidden ones are identified by index and hash
+        assertEquals("wrong", results.get(1).getInput());
+        assertEquals(TestResultCodec.hash("crash"), results.get(2).getInputHash());
+        assertNull(results.get(2).getInput());
+        assertEquals(3, results.get(3).getIndex());
+        assertNull(results.get(3).getInput());
+        assertNull(results.get(3).getInputHash());
+    }
+
+    @Test
+    void batchModeUsesFarFewerRequests() {
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, Judge0Properties.Mode.BATCH, workerProperties);
+
+        List<SubmissionJob.TestResult> results = service.executeTestCases("code", 71, testCases(45), null);
+
+        assertEquals(45, results.size());
+        assertTrue(results.stream().allMatch(SubmissionJob.TestResult::isPassed));
+        // 3 batch submissions plus at least one bulk poll per chunk
+        assertTrue(judge0.getRequestCount() <= 10, "requests=" + judge0.getRequestCount());
+    }
+
+    @Test
+    void parallelModeRespectsPerJobInFlightCap() {
+        workerProperties.setMaxInFlightPerJob(3);
+        judge0.latency(FakeJudge0Server.fixedLatency(30));
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, Judge0Properties.Mode.PARALLEL, workerProperties);
+
+        List<SubmissionJob.TestResult> results = service.executeTestCases("code", 71, testCases(12), null);
+
+        assertTrue(results.stream().allMatch(SubmissionJob.TestResult::isPassed));
+        assertTrue(judge0.getMaxInFlight() <= 3, "maxInFlight=" + judge0.getMaxInFlight());
+        assertTrue(judge0.getMaxInFlight() > 1, "requests were not fanned out");
+    }
+
+    @Test
+    void throttledRequestsAreRetried() {
+        judge0.storm(2, 429, 0);
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, Judge0Properties.Mode.SEQUENTIAL, workerProperties);
+
+        List<SubmissionJob.TestResult> results = service.executeTestCases("code", 71, testCases(2), null);
+
+        assertTrue(results.stream().allMatch(SubmissionJob.TestResult::isPassed));
+        assertEquals(2, judge0.getThrottledCount());
+    }
+
+    @Test
+    void judgeInternalErrorIsNotAVerdict() {
+        judge0.verdicts(submission -> FakeJudge0Server.Verdict.internalError());
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, Judge0Properties.Mode.SEQUENTIAL, workerProperties);
+
+        List<SubmissionJob.TestResult> results = service.executeTestCases("code", 71, testCases(1), null);
+
+        assertEquals(SubmissionJob.TestResult.EXECUTION_ERROR, results.get(0).getErrorType());
+        assertFalse(ExecutionResultCache.isCacheable(results.get(0)));
+    }
+
+    @Test
+    void playgroundRunsShareTheRetryingClient() throws Exception {
+        judge0.storm(2, 429, 0);
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, Judge0Properties.Mode.SEQUENTIAL, workerProperties);
+
+        java.net.http.HttpResponse<java.io.InputStream> response = service.submitAndWait(
+            java.util.Map.of("language_id", 71, "source_code", "code", "stdin", "7"));
+        response.body().close();
+
+        assertEquals(201, response.statusCode());
+        assertEquals(2, judge0.getThrottledCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Judge0Properties.Mode.class)
+    void compilationErrorSkipsRemainingTests(Judge0Properties.Mode mode) {
+        workerProperties.setMaxInFlightPerJob(1);
+        judge0.verdicts(submission -> FakeJudge0Server.Verdict.compilationError("error: expected ';'"));
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, mode, workerProperties);
+
+        List<SubmissionJob.TestResult> results = service.executeTestCases("code", 54, testCases(2), testCases(40));
+
+        assertEquals(42, results.size());
+        assertEquals("Compilation Error", results.get(0).getErrorType());
+        assertTrue(results.get(41).isNotRun());
+        assertTrue(judge0.getExecutionCount() <= 20, "executions=" + judge0.getExecutionCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Judge0Properties.Mode.class)
+    void openCircuitFailsTheJobInsteadOfRecordingVerdicts(Judge0Properties.Mode mode) {
+        workerProperties.setMaxInFlightPerJob(1);
+        judge0.storm(1000, 500, 0);
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, mode, workerProperties, properties -> {
+            properties.setCircuitMinimumCalls(3);
+            properties.setBatchSize(1);
+        });
+
+        assertThrows(Judge0CircuitBreaker.CallNotPermittedException.class,
+            () -> service.executeTestCases("code", 71, testCases(10), null));
+        assertFalse(service.isAvailable());
+        assertTrue(judge0.getRequestCount() <= 4, "requests=" + judge0.getRequestCount());
+    }
+
+    @Test
+    void identicalResubmissionIsServedFromCache() {
+        judge0.verdicts(submission -> submission.stdin.equals("slow")
+            ? FakeJudge0Server.Verdict.timeLimitExceeded()
+            : FakeJudge0Server.Verdict.accepted(submission.stdin));
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, Judge0Properties.Mode.PARALLEL, workerProperties);
+        List<SubmissionJob.TestCase> hidden = new ArrayList<>(testCases(5));
+        hidden.add(testCase("slow"));
+
+        service.executeTestCases("print(input())\n", 71, testCases(2), hidden);
+        int requestsAfterFirstRun = judge0.getRequestCount();
+        List<SubmissionJob.TestResult> results = service.executeTestCases("print(input())\r\n", 71, testCases(2), hidden);
+
+        assertEquals(8, results.size());
+        assertTrue(results.subList(0, 7).stream().allMatch(SubmissionJob.TestResult::isPassed));
+        assertEquals("Time Limit Exceeded", results.get(7).getErrorType());
+        // Only the time-limited test is judged again
+        assertEquals(requestsAfterFirstRun + 1, judge0.getRequestCount());
+
+        service.executeTestCases("print(input() )", 71, testCases(2), null);
+        assertEquals(requestsAfterFirstRun + 3, judge0.getRequestCount());
+    }
+
+    @Test
+    void outputsAreJudgedWithTheProblemChecker() {
+        judge0.verdicts(submission -> FakeJudge0Server.Verdict.accepted(
+            submission.stdin.equals("wrong") ? "1.0\n2.5" : "0.3333334\n"));
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, Judge0Properties.Mode.BATCH, workerProperties);
+        List<SubmissionJob.TestCase> tests = List.of(
+            new SubmissionJob.TestCase("ok", "0.333333333", null),
+            new SubmissionJob.TestCase("wrong", "1.0\n2.0", null));
+
+        List<SubmissionJob.TestResult> exact = service.executeTestCases("code", 71, tests, null);
+        List<SubmissionJob.TestResult> tolerant = service.executeTestCases("code", 71, tests, null,
+            OutputCheckers.forName("FLOAT", 1e-6));
+
+        assertFalse(exact.get(0).isPassed());
+        assertTrue(tolerant.get(0).isPassed());
+        assertFalse(tolerant.get(1).isPassed());
+        assertEquals("Token differs at line 2, column 1", tolerant.get(1).getErrorMessage());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Judge0Properties.Mode.class)
+    void oversizedOutputIsCappedWhileDecoding(Judge0Properties.Mode mode) {
+        // Default submission.maxStdoutLength is 1 MB
+        String huge = "x".repeat(3_000_000);
+        judge0.verdicts(submission -> FakeJudge0Server.Verdict.accepted(huge));
+        Judge0ExecutionService service = Judge0ServiceFactory.create(judge0, mode, workerProperties);
+
+        List<SubmissionJob.TestResult> results = service.executeTestCases("code", 71, testCases(2), null);
+
+        SubmissionJob.TestResult result = results.get(0);
+        assertEquals("OUTPUT_LIMIT_EXCEEDED", result.getErrorType());
+        assertFalse(result.isPassed());
+        assertTrue(result.getActualOutput().length() < 1_100_000, "length=" + result.getActualOutput().length());
+        assertTrue(result.getActualOutput().endsWith("bytes]"));
+    }
+
+    private static SubmissionJob.TestCase testCase(String input) {
+        return new SubmissionJob.TestCase(input, input, null);
+    }
+
+    private static List<SubmissionJob.TestCase> testCases(int count) {
+        List<SubmissionJob.TestCase> testCases = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            testCases.add(testCase(String.valueOf(i)));
+        }
+        return testCases;
+    }
+}
@@ -0,0 +1,93 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.support.Judge0ServiceFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Judge0RateLimiterTest {
+
+    private Judge0Properties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new Judge0Properties();
+        properties.setRateLimitPerSecond(20);
+        properties.setRateLimitMinPerSecond(1);
+        properties.setRateLimitMaxPerSecond(40);
+        properties.setRateLimitBurst(1);
+    }
+
+    @Test
+    void throttlingHalvesRateOncePerWindowAndSuccessGrowsItBack() {
+        Judge0RateLimiter limiter = Judge0ServiceFactory.rateLimiter(properties);
+
+        limiter.onThrottled(0);
+        limiter.onThrottled(0);
+        assertEquals(10.0, limiter.getCurrentRate(), 0.001);
+        assertEquals(2, limiter.getThrottledCount());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess();
+        }
+        assertTrue(limiter.getCurrentRate() > 10.9 && limiter.getCurrentRate() < 11.1,
+            "rate=" + limiter.getCurrentRate());
+    }
+
+    @Test
+    void rateNeverLeavesConfiguredBounds() {
+        Judge0RateLimiter limiter = Judge0ServiceFactory.rateLimiter(properties);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(40.0, limiter.getCurrentRate(), 0.001);
+    }
+
+    @Test
+    void callersArePacedAtTheCurrentRate() throws Exception {
+        Judge0RateLimiter limiter = Judge0ServiceFactory.rateLimiter(properties);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire();
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        // One burst permit, then 5 more at 20/s
+        assertTrue(elapsedMs >= 200, "elapsedMs=" + elapsedMs);
+    }
+
+    @Test
+    void retryAfterPausesQueuedCallersInArrivalOrder() {
+        Judge0RateLimiter limiter = Judge0ServiceFactory.rateLimiter(properties);
+        limiter.onThrottled(300);
+
+        long started = System.nanoTime();
+        List<Integer> admitted = new ArrayList<>();
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int caller = i;
+            waiters.add(limiter.acquireAsync().thenRun(() -> {
+                synchronized (admitted) {
+                    admitted.add(caller);
+                }
+            }));
+        }
+        assertEquals(3, limiter.getQueueLength());
+
+        CompletableFuture.allOf(waiters.toArray(new CompletableFuture[0])).join();
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMs >= 300, "elapsedMs=" + elapsedMs);
+        assertEquals(List.of(0, 1, 2), admitted);
+        assertEquals(0, limiter.getQueueLength());
+    }
+}
@@ -0,0 +1,70 @@
+package com.coderzclub.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Judge0ResponseTest {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Judge0Response.Limits LIMITS = new Judge0Response.Limits(10, 10, 10);
+
+    @Test
+    void decodesTypedFieldsAndSkipsUnknownOnes() throws IOException {
+        Judge0Response response = decode("{\"token\":\"t1\",\"extra\":{\"nested\":[1,2]},\"time\":\"0.012\","
+            + "\"memory\":2048,\"stdout\":\"  42\\n\",\"stderr\":null,\"message\":\"ok\","
+            + "\"status\":{\"id\":3,\"description\":\"Accepted\"}}");
+
+        assertEquals("t1", response.getToken());
+        assertEquals("0.012", response.getTime());
+        assertEquals(2048L, response.getMemory());
+        assertEquals(3, response.getStatusId());
+        assertEquals("Accepted", response.getStatusDescription());
+        assertEquals("42", response.getStdout().toString());
+        assertFalse(response.getStdout().isTruncated());
+        assertNull(response.getStderr());
+    }
+
+    @Test
+    void outputsAreCappedWhileParsingWithStringTrimSemantics() throws IOException {
+        // Trailing whitespace does not count towards the limit, as with String.trim()
+        Judge0Response fits = decode("{\"stdout\":\"\\n0123456789\\n\\n\\n\\n\\n\"}");
+        assertEquals("0123456789", fits.getStdout().toString());
+        assertFalse(fits.getStdout().isTruncated());
+
+        String big = "y".repeat(1_000_000);
+        Judge0Response capped = decode("{\"stdout\":\"" + big + "\",\"compile_output\":\"  \"}");
+        assertTrue(capped.getStdout().isTruncated());
+        assertEquals(1_000_000, capped.getStdout().getTrimmedLength());
+        assertEquals(11, capped.getStdout().toString().length());
+        assertTrue(capped.getCompileOutput().isEmpty());
+    }
+
+    @Test
+    void decodesBatchPollKeepingPositionsOfMissingEntries() throws IOException {
+        List<Judge0Response> submissions = Judge0Response.decodeBatch(JSON, stream(
+            "{\"submissions\":[{\"token\":\"a\",\"status\":{\"id\":2}},null,{\"token\":\"c\",\"stdout\":\"1\"}]}"), LIMITS);
+
+        assertEquals(3, submissions.size());
+        assertEquals(2, submissions.get(0).getStatusId());
+        assertNull(submissions.get(1));
+        assertEquals("1", submissions.get(2).getStdout().toString());
+    }
+
+    private static Judge0Response decode(String json) throws IOException {
+        return Judge0Response.decode(JSON, stream(json), LIMITS);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.SubmissionLimitsConfig;
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LocalProcessExecutionEngineTest {
+
+    private static final int PYTHON = 71;
+    private static final int C = 50;
+    private static final int JAVASCRIPT = 63;
+
+    private LocalProcessExecutionEngine engine;
+    private WorkerProperties workerProperties;
+
+    @BeforeEach
+    void setUp() {
+        SubmissionLimitsConfig limitsConfig = new SubmissionLimitsConfig();
+        limitsConfig.setMaxExecutionTimeSeconds(2);
+        limitsConfig.setMaxWallTimeSeconds(3);
+        limitsConfig.setMaxStdoutLength(4096);
+
+        workerProperties = new WorkerProperties();
+
+        engine = new LocalProcessExecutionEngine();
+        ReflectionTestUtils.setField(engine, "limitsConfig", limitsConfig);
+        ReflectionTestUtils.setField(engine, "workerProperties", workerProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void pythonSubmissionIsJudgedPerTestCase() {
+        assumeTrue(onPath("python3"));
+
+        List<SubmissionJob.TestResult> results = engine.executeTestCases(
+            "a, b = map(int, input().split())\nprint(a + b)\n", PYTHON,
+            List.of(new SubmissionJob.TestCase("1 2", "3", null)),
+            List.of(new SubmissionJob.TestCase("2 2", "5", null)));
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isPassed());
+        assertFalse(results.get(1).isPassed());
+        assertEquals("4", results.get(1).getActualOutput());
+    }
+
+    @Test
+    void javascriptSubmissionRunsUnderTheMemoryLimit() {
+        assumeTrue(onPath("node"));
+
+        List<SubmissionJob.TestResult> results = engine.executeTestCases(
+            "const [a, b] = require('fs').readFileSync(0, 'utf8').trim().split(' ').map(Number);\nconsole.log(a + b);\n",
+            JAVASCRIPT,
+            List.of(new SubmissionJob.TestCase("1 2", "3", null)),
+            List.of(new SubmissionJob.TestCase("20 22", "42", null)));
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isPassed(), results.get(0).getErrorMessage());
+        assertTrue(results.get(1).isPassed(), results.get(1).getErrorMessage());
+    }
+
+    @Test
+    void submissionsDoNotInheritTheBackendEnvironment() {
+        assumeTrue(onPath("python3"));
+
+        // The shell adds PWD, and Python may add LC_CTYPE (locale coercion)
+        List<SubmissionJob.TestResult> results = engine.executeTestCases(
+            "import os\nprint(' '.join(sorted(k for k in os.environ if k not in ('LC_CTYPE', 'PWD'))))\n", PYTHON,
+            List.of(new SubmissionJob.TestCase("", "HOME PATH", null)), null);
+
+        assertTrue(results.get(0).isPassed(), results.get(0).getActualOutput());
+    }
+
+    @Test
+    void runtimeErrorsAndTimeoutsAreClassified() {
+        assumeTrue(onPath("python3"));
+
+        List<SubmissionJob.TestResult> crash = engine.executeTestCases(
+            "raise ValueError('boom')\n", PYTHON, List.of(new SubmissionJob.TestCase("", "", null)), null);
+        assertEquals("Runtime Error", crash.get(0).getErrorType());
+
+        List<SubmissionJob.TestResult> spin = engine.executeTestCases(
+            "while True:\n    pass\n", PYTHON, List.of(new SubmissionJob.TestCase("", "", null)), null);
+        assertEquals("Time Limit Exceeded", spin.get(0).getErrorType());
+    }
+
+    @Test
+    void outputLimitIsEnforced() {
+        assumeTrue(onPath("python3"));
+
+        List<SubmissionJob.TestResult> results = engine.executeTestCases(
+            "print('x' * 100000)\n", PYTHON, List.of(new SubmissionJob.TestCase("", "", null)), null);
+
+        assertEquals("OUTPUT_LIMIT_EXCEEDED", results.get(0).getErrorType());
+    }
+
+    @Test
+    void compilationErrorSkipsRemainingTests() {
+        assumeTrue(onPath("gcc"));
+
+        List<SubmissionJob.TestResult> results = engine.executeTestCases(
+            "int main( { return 0; }", C,
+            List.of(new SubmissionJob.TestCase("", "", null)),
+            List.of(new SubmissionJob.TestCase("", "", null), new SubmissionJob.TestCase("", "", null)));
+
+        assertEquals("Compilation Error", results.get(0).getErrorType());
+        assertTrue(results.get(1).isNotRun());
+        assertTrue(results.get(2).isNotRun());
+    }
+
+    private static boolean onPath(String binary) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return false;
+        }
+        for (String dir : path.split(java.io.File.pathSeparator)) {
+            if (Files.isExecutable(Paths.get(dir, binary))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package com.coderzclub.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputCheckersTest {
+
+    @Test
+    void exactIgnoresOnlySurroundingWhitespace() {
+        OutputChecker exact = OutputCheckers.exact();
+
+        assertTrue(check(exact, "1 2\n3", "\n1 2\n3  \n\n").isPassed());
+
+        OutputChecker.Result result = check(exact, "1 2\n3 4", "1 2\n3  4");
+        assertFalse(result.isPassed());
+        assertEquals(2, result.getLine());
+        assertEquals(3, result.getColumn());
+        assertEquals("Output differs at line 2, column 3", result.getMessage());
+
+        OutputChecker.Result early = check(exact, "1 2 3", "1 2");
+        assertFalse(early.isPassed());
+        assertEquals("Output ended early at line 1, column 4", early.getMessage());
+    }
+
+    @Test
+    void tokenIgnoresAmountAndKindOfWhitespace() {
+        OutputChecker token = OutputCheckers.token();
+
+        assertTrue(check(token, "1 2\n3", "1\t\t2 3\r\n").isPassed());
+
+        OutputChecker.Result result = check(token, "1 2 3", "1\n2 30");
+        assertFalse(result.isPassed());
+        assertEquals(2, result.getLine());
+        assertEquals(3, result.getColumn());
+
+        assertEquals("Unexpected extra output at line 2, column 1", check(token, "1", "1\n2").getMessage());
+    }
+
+    @Test
+    void lineIgnoresTrailingWhitespaceAndBlankLinesOnly() {
+        OutputChecker line = OutputCheckers.line();
+
+        assertTrue(check(line, "a b\nc", "a b  \r\nc\n\n\n").isPassed());
+        assertFalse(check(line, "a b\nc", "a  b\nc").isPassed());
+
+        OutputChecker.Result joined = check(line, "a\nb", "a b");
+        assertFalse(joined.isPassed());
+        assertEquals(1, joined.getLine());
+        assertEquals(2, joined.getColumn());
+
+        OutputChecker.Result missing = check(line, "a\nb\nc", "a\nb\n");
+        assertEquals("Output ended early at line 3, column 1", missing.getMessage());
+    }
+
+    @Test
+    void floatAcceptsAbsoluteOrRelativeErrorWithinEpsilon() {
+        OutputChecker checker = OutputCheckers.floatingPoint(1e-6);
+
+        assertTrue(check(checker, "0.333333333 YES", "0.3333334 YES").isPassed());
+        assertTrue(check(checker, "1e12", "1000000000000.5").isPassed());
+        assertFalse(check(checker, "0.5", "0.51").isPassed());
+        assertFalse(check(checker, "YES", "yes").isPassed());
+
+        String longToken = "9".repeat(200);
+        assertTrue(check(checker, longToken, longToken).isPassed());
+        assertFalse(check(checker, longToken + "8", longToken + "7").isPassed());
+    }
+
+    @Test
+    void forNameResolvesProblemSettingsAndFallsBackToExact() {
+        assertSame(OutputCheckers.exact(), OutputCheckers.forName(null, null));
+        assertSame(OutputCheckers.exact(), OutputCheckers.forName("bogus", null));
+        assertSame(OutputCheckers.token(), OutputCheckers.forName("token", null));
+        assertSame(OutputCheckers.line(), OutputCheckers.forName("LINE", null));
+        assertEquals("FLOAT(1.0E-6)", OutputCheckers.forName("FLOAT", null).getName());
+        assertEquals("FLOAT(0.001)", OutputCheckers.forName("FLOAT", 1e-3).getName());
+    }
+
+    private static OutputChecker.Result check(OutputChecker checker, String expected, String actual) {
+        return OutputCheckers.check(checker, expected, actual);
+    }
+}
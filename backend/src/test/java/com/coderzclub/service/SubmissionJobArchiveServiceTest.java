@@ -0,0 +1,113 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.ArchiveProperties;
+import com.coderzclub.model.ArchivedSubmissionJob;
+import com.coderzclub.model.SubmissionJob;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionJobArchiveServiceTest {
+
+    @Test
+    void archivedJobReadsBackAsStored() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        SubmissionJobArchiveService archiveService = new SubmissionJobArchiveService();
+        ReflectionTestUtils.setField(archiveService, "mongoTemplate", mongoTemplate);
+
+        SubmissionJob job = new SubmissionJob();
+        job.setId("job-1");
+        job.setUserId("user-1");
+        job.setCode("print(input())\n".repeat(50));
+        job.setStatus(SubmissionJob.JobStatus.COMPLETED);
+        job.setCompletedAt(new Date(1_700_000_000_000L));
+        job.setTotalRuntime(42L);
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setActualOutput("7");
+        result.setPassed(true);
+        job.setTestResults(List.of(result));
+
+        ArchivedSubmissionJob archived = archiveService.toArchived(job, new Date());
+        assertTrue(archived.getData().length < job.getCode().length());
+        when(mongoTemplate.findById("job-1", ArchivedSubmissionJob.class)).thenReturn(archived);
+
+        SubmissionJob restored = archiveService.find("job-1").orElseThrow();
+        assertEquals(job.getCode(), restored.getCode());
+        assertEquals(SubmissionJob.JobStatus.COMPLETED, restored.getStatus());
+        assertEquals(job.getCompletedAt(), restored.getCompletedAt());
+        assertEquals(42L, restored.getTotalRuntime());
+        assertEquals("7", restored.getTestResults().get(0).getActualOutput());
+        assertEquals("user-1", archived.getUserId());
+    }
+
+    @Test
+    void hotTtlIndexUsesTheConfiguredRetention() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(SubmissionJob.class)).thenReturn(indexOps);
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setHotRetentionSeconds(86_400);
+        SubmissionJobArchiveService archiveService = new SubmissionJobArchiveService();
+        ReflectionTestUtils.setField(archiveService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(archiveService, "archiveProperties", properties);
+
+        archiveService.ensureHotTtlIndex();
+
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps).ensureIndex(index.capture());
+        assertEquals(new Document("archivedAt", 1), index.getValue().getIndexKeys());
+        assertEquals(86_400L, ((Number) index.getValue().getIndexOptions().get("expireAfterSeconds")).longValue());
+    }
+
+    @Test
+    void aSweepStopsAfterItsBatchLimit() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        // Always a full batch, as with a large backlog
+        when(mongoTemplate.find(any(Query.class), eq(SubmissionJob.class)))
+            .thenAnswer(invocation -> List.of(finishedJob("a"), finishedJob("b")));
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setBatchSize(2);
+        properties.setMaxBatchesPerRun(3);
+        SubmissionJobArchiveService archiveService = new SubmissionJobArchiveService();
+        ReflectionTestUtils.setField(archiveService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(archiveService, "archiveProperties", properties);
+
+        assertEquals(6, archiveService.archiveBefore(new Date()));
+
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(SubmissionJob.class));
+    }
+
+    private static SubmissionJob finishedJob(String id) {
+        SubmissionJob job = new SubmissionJob();
+        job.setId(id);
+        job.setStatus(SubmissionJob.JobStatus.COMPLETED);
+        job.setCompletedAt(new Date(1_700_000_000_000L));
+        return job;
+    }
+}
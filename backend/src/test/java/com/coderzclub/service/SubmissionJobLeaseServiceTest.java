@@ -0,0 +1,83 @@
+package com.coderzclub.service;
+
+import com.coderzclub.model.SubmissionJob;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionJobLeaseServiceTest {
+
+    @Test
+    void finishWritesOnlyOutcomeFieldsFencedOnLeaseAndAttempt() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SubmissionJob.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        SubmissionJobLeaseService leaseService = new SubmissionJobLeaseService();
+        ReflectionTestUtils.setField(leaseService, "mongoTemplate", mongoTemplate);
+
+        SubmissionJob job = new SubmissionJob();
+        job.setId("job-1");
+        job.setCode("print(1)");
+        job.setAttemptCount(2);
+        job.setStatus(SubmissionJob.JobStatus.COMPLETED);
+        job.setFinalResult("ACCEPTED");
+
+        // Re-leased since: nothing matches, and the worker is told so
+        assertFalse(leaseService.finishJob(job, "node-a-1"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(SubmissionJob.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertEquals("node-a-1", criteria.get("lockedBy"));
+        assertEquals(2, criteria.get("attemptCount"));
+        assertEquals(SubmissionJob.JobStatus.RUNNING, criteria.get("status"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("ACCEPTED", set.get("finalResult"));
+        assertTrue(set.containsKey("lockedBy"));
+        assertFalse(set.containsKey("code"));
+        assertFalse(set.containsKey("hiddenTestCases"));
+    }
+
+    @Test
+    void checkpointFromAStaleAttemptIsRejected() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        // The job was re-leased to attempt 3 on the same node: only that attempt's writes match
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SubmissionJob.class)))
+            .thenAnswer(invocation -> {
+                Document criteria = invocation.<Query>getArgument(0).getQueryObject();
+                long matched = Integer.valueOf(3).equals(criteria.get("attemptCount")) ? 1 : 0;
+                return UpdateResult.acknowledged(matched, matched, null);
+            });
+        SubmissionJobLeaseService leaseService = new SubmissionJobLeaseService();
+        ReflectionTestUtils.setField(leaseService, "mongoTemplate", mongoTemplate);
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setPassed(true);
+
+        assertFalse(leaseService.checkpointTestResults("job-1", "node-a-1", 2, 0, List.of(result)));
+        assertTrue(leaseService.checkpointTestResults("job-1", "node-a-1", 3, 0, List.of(result)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), any(Update.class), eq(SubmissionJob.class));
+        Document stale = query.getAllValues().get(0).getQueryObject();
+        assertEquals("node-a-1", stale.get("lockedBy"));
+        assertEquals(2, stale.get("attemptCount"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.queue.SubmissionQueuePublisher;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SubmissionJobRecoveryServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private SubmissionQueuePublisher publisher;
+    private SchedulerLockService schedulerLockService;
+    private SubmissionJobRecoveryService recoveryService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        publisher = mock(SubmissionQueuePublisher.class);
+        schedulerLockService = mock(SchedulerLockService.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(SubmissionJob.class))).thenReturn(bulk);
+        WorkerProperties workerProperties = new WorkerProperties();
+        workerProperties.setRecoveryBatchSize(3);
+        workerProperties.setRecoveryMaxBatchesPerRun(2);
+
+        recoveryService = new SubmissionJobRecoveryService();
+        ReflectionTestUtils.setField(recoveryService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(recoveryService, "workerProperties", workerProperties);
+        ReflectionTestUtils.setField(recoveryService, "publisher", publisher);
+        ReflectionTestUtils.setField(recoveryService, "schedulerLockService", schedulerLockService);
+    }
+
+    @Test
+    void onlyTheLockHolderSweeps() {
+        when(schedulerLockService.tryAcquire(anyString(), any(Duration.class))).thenReturn(false);
+
+        recoveryService.recoverStuckJobs();
+
+        verifyNoInteractions(mongoTemplate, publisher);
+    }
+
+    @Test
+    void expiredLeasesAreReleasedInBatchesWithOneBulkWriteEach() {
+        // Four expired jobs with a batch size of three: two round trips, the last one partial
+        when(mongoTemplate.find(argThat(queryOn("lockedUntil")), eq(SubmissionJob.class)))
+            .thenReturn(List.of(job("j1", 3), job("j2", 0), job("j3", 1)), List.of(job("j4", 0)));
+
+        recoveryService.releaseExpiredLeases(new Date());
+
+        verify(mongoTemplate, times(2)).find(argThat(query -> query != null
+            && query.getLimit() == 3
+            && query.getFieldsObject().containsKey("attemptCount")
+            && !query.getFieldsObject().containsKey("code")), eq(SubmissionJob.class));
+        verify(bulk).updateMulti(argThat(idsIn("j1")), argThat(setsStatus(SubmissionJob.JobStatus.TIMEOUT)));
+        verify(bulk).updateMulti(argThat(idsIn("j2", "j3")), argThat(setsStatus(SubmissionJob.JobStatus.RETRYING)));
+        verify(bulk).updateMulti(argThat(idsIn("j4")), argThat(setsStatus(SubmissionJob.JobStatus.RETRYING)));
+        verify(bulk, times(2)).execute();
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(SubmissionJob.class));
+    }
+
+    @Test
+    void aSweepStopsAfterItsBatchLimit() {
+        // Full batches every time: the backlog is left to the next sweep after two
+        when(mongoTemplate.find(argThat(queryOn("nextRetryAt")), eq(SubmissionJob.class)))
+            .thenReturn(List.of(job("j1", 1), job("j2", 1), job("j3", 1)));
+
+        assertEquals(6, recoveryService.requeueDueRetries(new Date()));
+
+        verify(mongoTemplate, times(2)).find(argThat(queryOn("nextRetryAt")), eq(SubmissionJob.class));
+    }
+
+    @Test
+    void dueRetriesAreQueuedAndPublishedTogether() {
+        when(mongoTemplate.find(argThat(queryOn("nextRetryAt")), eq(SubmissionJob.class)))
+            .thenReturn(List.of(job("j1", 1), job("j2", 1)));
+
+        recoveryService.requeueDueRetries(new Date());
+
+        verify(mongoTemplate, times(1)).updateMulti(argThat(idsIn("j1", "j2")),
+            argThat(setsStatus(SubmissionJob.JobStatus.QUEUED)), eq(SubmissionJob.class));
+        verify(publisher).publishJobs(argThat(jobs -> jobs.stream().map(SubmissionJob::getId).toList().equals(List.of("j1", "j2"))));
+        verify(publisher, never()).publishJob(any(SubmissionJob.class));
+    }
+
+    @Test
+    void restartRequeueLeavesJobsClaimedSinceTheNodeStarted() {
+        Date nodeStartedAt = new Date(System.currentTimeMillis() - 1_000);
+        SubmissionJob leftByPreviousRun = job("j1", 1);
+        leftByPreviousRun.setStartedAt(new Date(nodeStartedAt.getTime() - 60_000));
+        // Claimed by this run's worker before the restart requeue got to run
+        SubmissionJob claimedByThisRun = job("j2", 1);
+        claimedByThisRun.setStartedAt(new Date());
+        when(mongoTemplate.find(argThat(queryOn("lockedBy")), eq(SubmissionJob.class))).thenAnswer(invocation -> {
+            Document startedAt = (Document) invocation.<Query>getArgument(0).getQueryObject().get("startedAt");
+            Date before = startedAt != null ? (Date) startedAt.get("$lt") : null;
+            return List.of(leftByPreviousRun, claimedByThisRun).stream()
+                .filter(job -> before == null || job.getStartedAt().before(before))
+                .toList();
+        });
+
+        int requeued = recoveryService.requeueJobsOfWorker("node-a", "restarted", nodeStartedAt);
+
+        assertEquals(1, requeued);
+        verify(bulk).updateMulti(argThat(query -> idsIn("j1").matches(query)
+            && nodeStartedAt.equals(((Document) query.getQueryObject().get("startedAt")).get("$lt"))),
+            argThat(setsStatus(SubmissionJob.JobStatus.QUEUED)));
+        verify(publisher).publishJobs(argThat(jobs -> jobs.stream().map(SubmissionJob::getId).toList().equals(List.of("j1"))));
+    }
+
+    private static SubmissionJob job(String id, int attemptCount) {
+        SubmissionJob job = new SubmissionJob();
+        job.setId(id);
+        job.setAttemptCount(attemptCount);
+        job.setMaxAttempts(3);
+        return job;
+    }
+
+    private static ArgumentMatcher<Query> queryOn(String field) {
+        return query -> query != null && query.getQueryObject().containsKey(field);
+    }
+
+    private static ArgumentMatcher<Query> idsIn(String... ids) {
+        return query -> {
+            if (query == null || !(query.getQueryObject().get("id") instanceof Document in)) {
+                return false;
+            }
+            return new ArrayList<>((Collection<?>) in.get("$in")).equals(List.of(ids));
+        };
+    }
+
+    private static ArgumentMatcher<Update> setsStatus(SubmissionJob.JobStatus status) {
+        return update -> update != null
+            && status.equals(((Document) update.getUpdateObject().get("$set")).get("status"));
+    }
+}
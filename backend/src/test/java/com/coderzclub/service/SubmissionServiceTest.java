@@ -2,6 +2,7 @@ package com.coderzclub.service;
 
 import com.coderzclub.model.Problem;
 import com.coderzclub.model.Submission;
+import com.coderzclub.model.SubmissionJob;
 import com.coderzclub.model.User;
 import com.coderzclub.model.UserSolvedProblem;
 import com.coderzclub.repository.SubmissionRepository;
@@ -21,6 +22,7 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
@@ -128,4 +130,42 @@ class SubmissionServiceTest {
         verify(userSolvedProblemRepository).insert(any(UserSolvedProblem.class));
         verify(mongoTemplate).updateFirst(any(), any(), any(Class.class));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submissionStoresTheDigestAndOnlyFailedHiddenTests() {
+        SubmissionJob job = new SubmissionJob();
+        job.setId("job-1");
+        job.setUserId(user.getId());
+        job.setProblemId(problem.getId());
+        job.setPublicTestCount(2);
+        job.setFinalResult("WRONG_ANSWER");
+        java.util.List<SubmissionJob.TestResult> results = new java.util.ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+            result.setInput("in" + i);
+            result.setExpectedOutput("out" + i);
+            result.setPassed(i != 40);
+            results.add(result);
+        }
+        job.setTestResults(results);
+        job.setTotalTests(results.size());
+        TestResultCodec.compact(job, 3);
+        when(userRepository.findById(user.getId())).thenReturn(java.util.Optional.of(user));
+        when(problemRepository.findById(problem.getId())).thenReturn(java.util.Optional.of(problem));
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        submissionService.createSubmissionFromJob(job);
+
+        ArgumentCaptor<Submission> saved = ArgumentCaptor.forClass(Submission.class);
+        verify(submissionRepository).save(saved.capture());
+        java.util.Map<String, Object> details = saved.getValue().getExecutionDetails();
+        assertEquals(100, ((SubmissionJob.ResultDigest) details.get("resultDigest")).getCount());
+        java.util.List<java.util.Map<String, Object>> stored = (java.util.List<java.util.Map<String, Object>>) details.get("testResults");
+        assertEquals(3, stored.size());
+        assertEquals("in0", stored.get(0).get("input"));
+        assertEquals(40, stored.get(2).get("index"));
+        assertNull(stored.get(2).get("input"));
+        assertEquals(99, saved.getValue().getPassedTestCases());
+    }
 }
@@ -0,0 +1,118 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.Problem;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.TestCase;
+import com.coderzclub.model.TestCaseSet;
+import com.coderzclub.repository.TestCaseSetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestCaseSetServiceTest {
+
+    private TestCaseSetRepository repository;
+    private TestDataStore testDataStore;
+    private TestCaseSetService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TestCaseSetRepository.class);
+        service = new TestCaseSetService();
+        ReflectionTestUtils.setField(service, "testCaseSetRepository", repository);
+        ReflectionTestUtils.setField(service, "workerProperties", new WorkerProperties());
+        testDataStore = mock(TestDataStore.class);
+        ReflectionTestUtils.setField(service, "testDataStore", testDataStore);
+    }
+
+    @Test
+    void publishingTheSameTestCasesStoresOneSet() {
+        TestCaseSet first = service.publish("p1", List.of(testCase("1", "2")), List.of(testCase("3", "4")));
+        TestCaseSet again = service.publish("p1", List.of(testCase("1", "2")), List.of(testCase("3", "4")));
+        // Moving a case from public to hidden is a different set
+        TestCaseSet moved = service.publish("p1", List.of(), List.of(testCase("1", "2"), testCase("3", "4")));
+
+        assertEquals(first.getId(), again.getId());
+        assertNotEquals(first.getId(), moved.getId());
+        verify(repository, times(2)).insert(argThat((TestCaseSet stored) ->
+            stored.getStorage() == TestCaseSet.Storage.GRIDFS && stored.getHiddenTestCases() == null));
+        verify(repository, times(2)).existsById(anyString());
+        verify(testDataStore, times(4)).write(anyString(), anyInt(), any(SubmissionJob.TestCase.class));
+    }
+
+    @Test
+    void loadsEachSetOnceAndRejectsTamperedContent() {
+        TestCaseSet stored = service.publish("p1", List.of(testCase("1", "2")), List.of());
+        when(repository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        TestCaseSet loaded = service.load(stored.getId());
+        assertSame(loaded, service.load(stored.getId()));
+        verify(repository, times(1)).findById(stored.getId());
+
+        TestCaseSet tampered = new TestCaseSet();
+        tampered.setId("0000");
+        tampered.setPublicTestCases(List.of(testCase("1", "2")));
+        when(repository.findById("0000")).thenReturn(Optional.of(tampered));
+        assertThrows(IllegalStateException.class, () -> service.load("0000"));
+        assertThrows(IllegalStateException.class, () -> service.load("missing"));
+    }
+
+    @Test
+    void publishingAProblemRecordsItsSetOnIt() {
+        Problem problem = new Problem();
+        problem.setId("p1");
+        problem.setPublicTestCases(List.of(new TestCase("1", "2", "sum")));
+        problem.setHiddenTestCases(List.of(new TestCase("3", "4"), new TestCase("5", "6")));
+
+        TestCaseSet set = service.publish(problem);
+
+        assertEquals(TestCaseSetService.hash(List.of(new SubmissionJob.TestCase("1", "2", "sum")),
+            List.of(testCase("3", "4"), testCase("5", "6"))), set.getId());
+        assertEquals(set.getId(), problem.getTestSetId());
+        assertEquals(1, problem.getPublicTestCount());
+        assertEquals(2, problem.getHiddenTestCount());
+        // Saved without the hidden tests, which are in the set only
+        assertNull(problem.getHiddenTestCases());
+        assertEquals(1, problem.getPublicTestCases().size());
+    }
+
+    @Test
+    void readsTheHiddenTestsOfASetForEditing() {
+        TestCaseSet stored = new TestCaseSet();
+        stored.setPublicTestCases(List.of(testCase("1", "2")));
+        stored.setHiddenTestCases(List.of(new SubmissionJob.TestCase("3", "4", "edge")));
+        stored.setId(TestCaseSetService.hash(stored.getPublicTestCases(), stored.getHiddenTestCases()));
+        when(repository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        List<TestCase> hidden = service.hiddenTestCases(stored.getId());
+
+        assertEquals(1, hidden.size());
+        assertEquals("3", hidden.get(0).getInput());
+        assertEquals("4", hidden.get(0).getOutput());
+        assertEquals("edge", hidden.get(0).getExplanation());
+        verify(testDataStore).pin(stored.getId());
+        verify(testDataStore).unpin(stored.getId());
+    }
+
+    private static SubmissionJob.TestCase testCase(String input, String expectedOutput) {
+        return new SubmissionJob.TestCase(input, expectedOutput, null);
+    }
+}
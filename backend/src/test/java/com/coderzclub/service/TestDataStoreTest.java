@@ -0,0 +1,131 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.SubmissionJob;
+import com.coderzclub.model.TestCaseSet;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestDataStoreTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void downloadsASetOnceAndReadsTestsFromDisk() throws Exception {
+        List<SubmissionJob.TestCase> publicCases = List.of(new SubmissionJob.TestCase("1 2\n", "3", "sum"));
+        List<SubmissionJob.TestCase> hiddenCases = List.of(new SubmissionJob.TestCase("x".repeat(100_000), "ünïcode", null));
+        GridFsTemplate gridFs = mock(GridFsTemplate.class);
+        GridFSFile file = mock(GridFSFile.class);
+        GridFsResource first = mock(GridFsResource.class);
+        GridFsResource second = mock(GridFsResource.class);
+        when(gridFs.findOne(any(Query.class))).thenReturn(file);
+        when(gridFs.getResource(file)).thenReturn(first, second);
+        when(first.getInputStream()).thenReturn(new ByteArrayInputStream(TestDataStore.compress(publicCases.get(0))));
+        when(second.getInputStream()).thenReturn(new ByteArrayInputStream(TestDataStore.compress(hiddenCases.get(0))));
+        TestDataStore store = store(gridFs);
+
+        TestCaseSet set = set(TestCaseSetService.hash(publicCases, hiddenCases));
+        Path dir = store.fetch(set);
+        assertEquals(dir, store.fetch(set));
+        verify(gridFs, times(2)).findOne(any(Query.class));
+        assertTrue(store.isCached(set.getId()));
+
+        List<SubmissionJob.TestCase> hidden = store.cases(dir, 1, 1);
+        assertEquals(100_000, hidden.get(0).getInput().length());
+        assertEquals("ünïcode", hidden.get(0).getExpectedOutput());
+        assertNull(hidden.get(0).getExplanation());
+        assertEquals("sum", store.cases(dir, 0, 1).get(0).getExplanation());
+    }
+
+    @Test
+    void rejectsDataThatDoesNotMatchTheSetId() throws Exception {
+        GridFsTemplate gridFs = mock(GridFsTemplate.class);
+        GridFSFile file = mock(GridFSFile.class);
+        GridFsResource resource = mock(GridFsResource.class);
+        when(gridFs.findOne(any(Query.class))).thenReturn(file);
+        when(gridFs.getResource(file)).thenReturn(resource);
+        when(resource.getInputStream()).thenAnswer(invocation ->
+            new ByteArrayInputStream(TestDataStore.compress(new SubmissionJob.TestCase("a", "b", null))));
+        TestDataStore store = store(gridFs);
+
+        assertThrows(IllegalStateException.class, () -> store.fetch(set("not-the-hash")));
+        assertFalse(store.isCached("not-the-hash"));
+    }
+
+    @Test
+    void evictionSkipsPinnedSets() throws Exception {
+        List<SubmissionJob.TestCase> a = List.of(new SubmissionJob.TestCase("a", "1", null));
+        List<SubmissionJob.TestCase> b = List.of(new SubmissionJob.TestCase("b", "2", null));
+        List<SubmissionJob.TestCase> c = List.of(new SubmissionJob.TestCase("c", "3", null));
+        GridFsTemplate gridFs = mock(GridFsTemplate.class);
+        GridFSFile file = mock(GridFSFile.class);
+        GridFsResource resource = mock(GridFsResource.class);
+        when(gridFs.findOne(any(Query.class))).thenReturn(file);
+        when(gridFs.getResource(file)).thenReturn(resource);
+        when(resource.getInputStream()).thenReturn(
+            new ByteArrayInputStream(TestDataStore.compress(a.get(0))),
+            new ByteArrayInputStream(TestDataStore.compress(b.get(0))),
+            new ByteArrayInputStream(TestDataStore.compress(c.get(0))));
+        TestDataStore store = store(gridFs);
+        // Over budget after every download
+        ((WorkerProperties) ReflectionTestUtils.getField(store, "workerProperties")).setTestDataCacheMaxBytes(1);
+
+        TestCaseSet setA = publicSet(a);
+        store.pin(setA.getId());
+        store.fetch(setA);
+        store.fetch(publicSet(b));
+        assertTrue(store.isCached(setA.getId()));
+
+        store.unpin(setA.getId());
+        store.fetch(publicSet(c));
+        assertFalse(store.isCached(setA.getId()));
+    }
+
+    private TestDataStore store(GridFsTemplate gridFs) {
+        WorkerProperties properties = new WorkerProperties();
+        properties.setTestDataCacheDir(cacheDir.toString());
+        TestDataStore store = new TestDataStore();
+        ReflectionTestUtils.setField(store, "gridFsTemplate", gridFs);
+        ReflectionTestUtils.setField(store, "workerProperties", properties);
+        return store;
+    }
+
+    private static TestCaseSet publicSet(List<SubmissionJob.TestCase> publicCases) {
+        TestCaseSet set = new TestCaseSet();
+        set.setId(TestCaseSetService.hash(publicCases, List.of()));
+        set.setStorage(TestCaseSet.Storage.GRIDFS);
+        set.setPublicTestCount(publicCases.size());
+        set.setHiddenTestCount(0);
+        return set;
+    }
+
+    private static TestCaseSet set(String id) {
+        TestCaseSet set = new TestCaseSet();
+        set.setId(id);
+        set.setStorage(TestCaseSet.Storage.GRIDFS);
+        set.setPublicTestCount(1);
+        set.setHiddenTestCount(1);
+        return set;
+    }
+}
@@ -0,0 +1,69 @@
+package com.coderzclub.service;
+
+import com.coderzclub.model.SubmissionJob;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestResultCodecTest {
+
+    @Test
+    void keepsPublicAndFirstFailingHiddenResultsAndRebuildsTheRest() {
+        SubmissionJob job = new SubmissionJob();
+        job.setPublicTestCount(2);
+        job.setTestResults(new ArrayList<>(List.of(
+            result(true, 10L), result(false, 11L),
+            result(true, 12L), result(false, 13L), result(false, 14L), notRun())));
+
+        TestResultCodec.compact(job, 1);
+
+        // Both public tests plus the first failing hidden one
+        assertEquals(List.of(0, 1, 3), job.getTestResults().stream().map(SubmissionJob.TestResult::getIndex).toList());
+        SubmissionJob.TestResult failedHidden = job.getTestResults().get(2);
+        assertNull(failedHidden.getInput());
+        assertNull(failedHidden.getExpectedOutput());
+        assertEquals(TestResultCodec.hash("in13"), failedHidden.getInputHash());
+        assertEquals("in11", job.getTestResults().get(1).getInput());
+
+        List<SubmissionJob.TestResult> expanded = TestResultCodec.expand(job);
+        assertEquals(6, expanded.size());
+        assertEquals(List.of(true, false, true, false, false, false),
+            expanded.stream().map(SubmissionJob.TestResult::isPassed).toList());
+        assertEquals(14L, expanded.get(4).getRuntime());
+        assertFalse(expanded.get(4).isNotRun());
+        assertTrue(expanded.get(5).isNotRun());
+        assertEquals("actual13", expanded.get(3).getActualOutput());
+    }
+
+    @Test
+    void jobsWithoutDigestAreReadAsStored() {
+        SubmissionJob job = new SubmissionJob();
+        List<SubmissionJob.TestResult> results = List.of(result(true, 1L));
+        job.setTestResults(results);
+
+        assertEquals(results, TestResultCodec.expand(job));
+    }
+
+    private static SubmissionJob.TestResult result(boolean passed, Long runtime) {
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setInput("in" + runtime);
+        result.setExpectedOutput("out" + runtime);
+        result.setActualOutput("actual" + runtime);
+        result.setPassed(passed);
+        result.setRuntime(runtime);
+        result.setMemory(1024L);
+        return result;
+    }
+
+    private static SubmissionJob.TestResult notRun() {
+        SubmissionJob.TestResult result = new SubmissionJob.TestResult();
+        result.setErrorType(SubmissionJob.TestResult.NOT_RUN);
+        return result;
+    }
+}
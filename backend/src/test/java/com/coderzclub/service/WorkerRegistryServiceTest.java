@@ -0,0 +1,93 @@
+package com.coderzclub.service;
+
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.model.WorkerNode;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkerRegistryServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private SubmissionJobRecoveryService recoveryService;
+    private WorkerRegistryService registry;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        recoveryService = mock(SubmissionJobRecoveryService.class);
+        WorkerProperties workerProperties = new WorkerProperties();
+        workerProperties.setNodeId("node-a");
+
+        registry = new WorkerRegistryService();
+        ReflectionTestUtils.setField(registry, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(registry, "workerProperties", workerProperties);
+        ReflectionTestUtils.setField(registry, "leaseManager", new JobLeaseManager());
+        ReflectionTestUtils.setField(registry, "recoveryService", recoveryService);
+    }
+
+    @Test
+    void firstHeartbeatRequeuesJobsLeftByPreviousRunAndRegistersNode() {
+        when(mongoTemplate.find(any(Query.class), eq(WorkerNode.class))).thenReturn(List.of());
+
+        registry.heartbeat();
+        registry.heartbeat();
+
+        verify(recoveryService, times(1)).requeueJobsOfWorker(eq("node-a"), anyString(), any(Date.class));
+        verify(mongoTemplate, times(2)).upsert(argThat(queryFor("node-a")), any(Update.class), eq(WorkerNode.class));
+    }
+
+    @Test
+    void registeringBeforeTheWorkersStartLeavesTheirJobsToThisRun() {
+        when(mongoTemplate.find(any(Query.class), eq(WorkerNode.class))).thenReturn(List.of());
+
+        registry.register();
+        // A worker loop claims a job here, before the first heartbeat
+        Date claimedAt = new Date();
+        registry.heartbeat();
+
+        verify(recoveryService, times(1)).requeueJobsOfWorker(eq("node-a"), anyString(),
+            argThat(claimedBefore -> !claimedBefore.after(claimedAt)));
+    }
+
+    @Test
+    void silentPeerIsDeclaredDeadOnceAndOnlyByTheWinner() {
+        WorkerNode silent = new WorkerNode();
+        silent.setId("node-b");
+        silent.setLastHeartbeatAt(new Date(System.currentTimeMillis() - 60_000));
+        WorkerNode alreadyHandled = new WorkerNode();
+        alreadyHandled.setId("node-c");
+        when(mongoTemplate.find(any(Query.class), eq(WorkerNode.class))).thenReturn(List.of(silent, alreadyHandled));
+        when(mongoTemplate.updateFirst(argThat(queryFor("node-b")), any(Update.class), eq(WorkerNode.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateFirst(argThat(queryFor("node-c")), any(Update.class), eq(WorkerNode.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        registry.detectDeadNodes(new Date());
+
+        verify(recoveryService).requeueJobsOfWorker(eq("node-b"), anyString());
+        verify(recoveryService, never()).requeueJobsOfWorker(eq("node-c"), anyString());
+    }
+
+    private static ArgumentMatcher<Query> queryFor(String nodeId) {
+        return query -> query != null && query.getQueryObject().toString().contains(nodeId);
+    }
+}
@@ -0,0 +1,383 @@
+package com.coderzclub.support;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process stand-in for the Judge0 CE API, for integration and load tests.
+ *
+ * Implements {@code POST /submissions?wait=true}, {@code POST /submissions/batch},
+ * {@code GET /submissions/batch?tokens=...} and {@code GET /submissions/{token}}. Latency,
+ * 429/503 storms, per-key quotas and verdicts are all scriptable. By default every submission
+ * is Accepted and echoes its stdin.
+ */
+public class FakeJudge0Server implements AutoCloseable {
+
+    static {
+        // Without TCP_NODELAY the JDK server's separate header/body writes hit ~40ms delayed-ACK stalls
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, PendingSubmission> submissions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestsByKey = new ConcurrentHashMap<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile LongSupplier latencyMs = () -> 0L;
+    private volatile Function<Submission, Verdict> verdicts = submission -> Verdict.accepted(submission.stdin);
+    private volatile String requiredApiKey;
+    private volatile int quotaPerKey = Integer.MAX_VALUE;
+
+    // Storm state: the next stormRemaining requests are answered with stormStatus
+    private final AtomicInteger stormRemaining = new AtomicInteger();
+    private volatile int stormStatus = 429;
+    private volatile long stormRetryAfterSeconds;
+    private final AtomicLong stormUntilNanos = new AtomicLong();
+
+    public FakeJudge0Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/submissions", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // ---- scripting ----
+
+    public FakeJudge0Server latency(LongSupplier latencyMs) {
+        this.latencyMs = latencyMs;
+        return this;
+    }
+
+    public FakeJudge0Server verdicts(Function<Submission, Verdict> verdicts) {
+        this.verdicts = verdicts;
+        return this;
+    }
+
+    /**
+     * Reject requests whose {@code X-RapidAPI-Key} differs from {@code apiKey} with 401.
+     */
+    public FakeJudge0Server requireApiKey(String apiKey) {
+        this.requiredApiKey = apiKey;
+        return this;
+    }
+
+    /**
+     * Answer 429 once a single {@code X-RapidAPI-Key} has made {@code quota} requests.
+     */
+    public FakeJudge0Server quotaPerKey(int quota) {
+        this.quotaPerKey = quota;
+        return this;
+    }
+
+    /**
+     * Answer the next {@code count} requests with {@code status} and a {@code Retry-After} header.
+     */
+    public FakeJudge0Server storm(int count, int status, long retryAfterSeconds) {
+        this.stormStatus = status;
+        this.stormRetryAfterSeconds = retryAfterSeconds;
+        this.stormRemaining.set(count);
+        return this;
+    }
+
+    /**
+     * Answer every request for {@code durationMs} with {@code status} and a {@code Retry-After} header.
+     */
+    public FakeJudge0Server stormFor(long durationMs, int status, long retryAfterSeconds) {
+        this.stormStatus = status;
+        this.stormRetryAfterSeconds = retryAfterSeconds;
+        this.stormUntilNanos.set(System.nanoTime() + durationMs * 1_000_000);
+        return this;
+    }
+
+    public static LongSupplier fixedLatency(long ms) {
+        return () -> ms;
+    }
+
+    public static LongSupplier uniformLatency(long minMs, long maxMs) {
+        return () -> ThreadLocalRandom.current().nextLong(minMs, maxMs + 1);
+    }
+
+    /**
+     * Log-normal latency with the given median; {@code sigma} controls the tail (0.5 is moderate).
+     */
+    public static LongSupplier logNormalLatency(long medianMs, double sigma) {
+        return () -> Math.round(medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    // ---- observation ----
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public int getExecutionCount() {
+        return executions.get();
+    }
+
+    public int getThrottledCount() {
+        return throttled.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public int getRequestCount(String apiKey) {
+        AtomicInteger count = requestsByKey.get(apiKey);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ---- protocol ----
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        requests.incrementAndGet();
+        try {
+            String apiKey = exchange.getRequestHeaders().getFirst("X-RapidAPI-Key");
+            if (requiredApiKey != null && !requiredApiKey.equals(apiKey)) {
+                send(exchange, 401, Map.of("message", "Invalid API key"));
+                return;
+            }
+            int used = requestsByKey.computeIfAbsent(String.valueOf(apiKey), key -> new AtomicInteger()).incrementAndGet();
+            if (used > quotaPerKey) {
+                throttle(exchange, 429, 1);
+                return;
+            }
+            if (stormRemaining.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0 || System.nanoTime() < stormUntilNanos.get()) {
+                throttle(exchange, stormStatus, stormRetryAfterSeconds);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if ("POST".equals(method) && "/submissions".equals(path)) {
+                Submission submission = readSubmission(objectMapper.readValue(exchange.getRequestBody(), new TypeReference<>() {}));
+                if ("true".equals(query.get("wait"))) {
+                    sleep(latencyMs.getAsLong());
+                    send(exchange, 201, render(verdicts.apply(submission), null));
+                } else {
+                    send(exchange, 201, Map.of("token", enqueue(submission)));
+                }
+            } else if ("POST".equals(method) && "/submissions/batch".equals(path)) {
+                Map<String, List<Map<String, Object>>> body = objectMapper.readValue(exchange.getRequestBody(), new TypeReference<>() {});
+                List<Map<String, Object>> tokens = new ArrayList<>();
+                for (Map<String, Object> payload : body.getOrDefault("submissions", List.of())) {
+                    tokens.add(Map.of("token", enqueue(readSubmission(payload))));
+                }
+                send(exchange, 201, tokens);
+            } else if ("GET".equals(method) && "/submissions/batch".equals(path)) {
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (String token : query.getOrDefault("tokens", "").split(",")) {
+                    results.add(poll(token));
+                }
+                send(exchange, 200, Map.of("submissions", results));
+            } else if ("GET".equals(method) && path.startsWith("/submissions/")) {
+                Map<String, Object> result = poll(path.substring("/submissions/".length()));
+                send(exchange, result != null ? 200 : 404, result != null ? result : Map.of("error", "Not found"));
+            } else {
+                send(exchange, 404, Map.of("error", "Not found"));
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private String enqueue(Submission submission) {
+        String token = UUID.randomUUID().toString();
+        long readyAt = System.nanoTime() + latencyMs.getAsLong() * 1_000_000;
+        submissions.put(token, new PendingSubmission(submission, readyAt));
+        return token;
+    }
+
+    private Map<String, Object> poll(String token) {
+        PendingSubmission pending = submissions.get(token);
+        if (pending == null) {
+            return null;
+        }
+        if (System.nanoTime() < pending.readyAtNanos) {
+            Map<String, Object> processing = new LinkedHashMap<>();
+            processing.put("token", token);
+            processing.put("status", Map.of("id", 2, "description", "Processing"));
+            return processing;
+        }
+        if (pending.verdict == null) {
+            pending.verdict = verdicts.apply(pending.submission);
+        }
+        return render(pending.verdict, token);
+    }
+
+    private Submission readSubmission(Map<String, Object> payload) {
+        executions.incrementAndGet();
+        Object languageId = payload.get("language_id");
+        Object stdin = payload.get("stdin");
+        return new Submission(
+            languageId instanceof Number number ? number.intValue() : null,
+            String.valueOf(payload.get("source_code")),
+            stdin != null ? stdin.toString() : "");
+    }
+
+    private Map<String, Object> render(Verdict verdict, String token) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (token != null) {
+            body.put("token", token);
+        }
+        body.put("stdout", verdict.stdout);
+        body.put("stderr", verdict.stderr);
+        body.put("compile_output", verdict.compileOutput);
+        body.put("message", null);
+        body.put("time", verdict.time);
+        body.put("memory", verdict.memory);
+        body.put("status", Map.of("id", verdict.statusId, "description", verdict.description));
+        return body;
+    }
+
+    private void throttle(HttpExchange exchange, int status, long retryAfterSeconds) throws IOException {
+        throttled.incrementAndGet();
+        exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+        send(exchange, status, Map.of("message", "Too many requests"));
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A submission as received by the fake server.
+     */
+    public static final class Submission {
+        public final Integer languageId;
+        public final String sourceCode;
+        public final String stdin;
+
+        Submission(Integer languageId, String sourceCode, String stdin) {
+            this.languageId = languageId;
+            this.sourceCode = sourceCode;
+            this.stdin = stdin;
+        }
+    }
+
+    /**
+     * Scripted Judge0 outcome for a submission.
+     */
+    public static final class Verdict {
+        private final int statusId;
+        private final String description;
+        private final String stdout;
+        private final String stderr;
+        private final String compileOutput;
+        private final String time;
+        private final Integer memory;
+
+        private Verdict(int statusId, String description, String stdout, String stderr, String compileOutput) {
+            this.statusId = statusId;
+            this.description = description;
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.compileOutput = compileOutput;
+            this.time = "0.010";
+            this.memory = 1024;
+        }
+
+        public static Verdict accepted(String stdout) {
+            return new Verdict(3, "Accepted", stdout, null, null);
+        }
+
+        public static Verdict compilationError(String compileOutput) {
+            return new Verdict(6, "Compilation Error", null, null, compileOutput);
+        }
+
+        public static Verdict runtimeError(String stderr) {
+            return new Verdict(11, "Runtime Error (NZEC)", null, stderr, null);
+        }
+
+        public static Verdict internalError() {
+            return new Verdict(13, "Internal Error", null, null, null);
+        }
+
+        public static Verdict timeLimitExceeded() {
+            return new Verdict(5, "Time Limit Exceeded", null, null, null);
+        }
+    }
+
+    private static final class PendingSubmission {
+        private final Submission submission;
+        private final long readyAtNanos;
+        private volatile Verdict verdict;
+
+        PendingSubmission(Submission submission, long readyAtNanos) {
+            this.submission = submission;
+            this.readyAtNanos = readyAtNanos;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.coderzclub.support;
+
+import com.coderzclub.config.Judge0Properties;
+import com.coderzclub.config.SubmissionLimitsConfig;
+import com.coderzclub.config.WorkerProperties;
+import com.coderzclub.service.ExecutionResultCache;
+import com.coderzclub.service.Judge0CircuitBreaker;
+import com.coderzclub.service.Judge0ExecutionService;
+import com.coderzclub.service.Judge0RateLimiter;
+import com.coderzclub.service.SubmissionValidationService;
+import com.coderzclub.service.SubmissionValidator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.Consumer;
+
+/**
+ * Builds a {@link Judge0ExecutionService} wired against a {@link FakeJudge0Server} without a Spring context.
+ */
+public final class Judge0ServiceFactory {
+
+    public static final String API_KEY = "test-key";
+
+    private Judge0ServiceFactory() {
+    }
+
+    public static Judge0ExecutionService create(FakeJudge0Server server, Judge0Properties.Mode mode,
+                                                WorkerProperties workerProperties) {
+        return create(server, mode, workerProperties, properties -> { });
+    }
+
+    public static Judge0ExecutionService create(FakeJudge0Server server, Judge0Properties.Mode mode,
+                                                WorkerProperties workerProperties,
+                                                Consumer<Judge0Properties> customizer) {
+        Judge0Properties judge0Properties = new Judge0Properties();
+        judge0Properties.setBaseUrl(server.getBaseUrl());
+        judge0Properties.setMode(mode);
+        judge0Properties.setBatchPollIntervalMs(10);
+        // Keep the shared limiter out of the way unless a test is exercising it
+        judge0Properties.setRateLimitPerSecond(10_000);
+        judge0Properties.setRateLimitMaxPerSecond(10_000);
+        judge0Properties.setRateLimitBurst(100);
+        customizer.accept(judge0Properties);
+
+        SubmissionLimitsConfig limitsConfig = new SubmissionLimitsConfig();
+
+        SubmissionValidator submissionValidator = new SubmissionValidator();
+        ReflectionTestUtils.setField(submissionValidator, "limitsConfig", limitsConfig);
+
+        SubmissionValidationService validationService = new SubmissionValidationService();
+        ReflectionTestUtils.setField(validationService, "maxStdoutLength", 64000);
+        ReflectionTestUtils.setField(validationService, "maxStderrLength", 64000);
+        ReflectionTestUtils.setField(validationService, "maxCompileOutputLength", 32000);
+        ReflectionTestUtils.setField(validationService, "maxMemoryKb", 512000);
+
+        Judge0ExecutionService service = new Judge0ExecutionService();
+        ReflectionTestUtils.setField(service, "judge0ApiKey", API_KEY);
+        ReflectionTestUtils.setField(service, "judge0Properties", judge0Properties);
+        ReflectionTestUtils.setField(service, "workerProperties", workerProperties);
+        ReflectionTestUtils.setField(service, "limitsConfig", limitsConfig);
+        ReflectionTestUtils.setField(service, "submissionValidator", submissionValidator);
+        ReflectionTestUtils.setField(service, "validationService", validationService);
+        ReflectionTestUtils.setField(service, "rateLimiter", rateLimiter(judge0Properties));
+        ReflectionTestUtils.setField(service, "circuitBreaker", circuitBreaker(judge0Properties));
+        ReflectionTestUtils.setField(service, "resultCache", resultCache(judge0Properties));
+        service.init();
+        return service;
+    }
+
+    public static Judge0RateLimiter rateLimiter(Judge0Properties judge0Properties) {
+        Judge0RateLimiter rateLimiter = new Judge0RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "judge0Properties", judge0Properties);
+        rateLimiter.init();
+        return rateLimiter;
+    }
+
+    public static Judge0CircuitBreaker circuitBreaker(Judge0Properties judge0Properties) {
+        Judge0CircuitBreaker circuitBreaker = new Judge0CircuitBreaker();
+        ReflectionTestUtils.setField(circuitBreaker, "judge0Properties", judge0Properties);
+        circuitBreaker.init();
+        return circuitBreaker;
+    }
+
+    public static ExecutionResultCache resultCache(Judge0Properties judge0Properties) {
+        ExecutionResultCache resultCache = new ExecutionResultCache();
+        ReflectionTestUtils.setField(resultCache, "judge0Properties", judge0Properties);
+        return resultCache;
+    }
+}